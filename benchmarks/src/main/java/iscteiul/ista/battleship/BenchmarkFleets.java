@@ -0,0 +1,108 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixtures shared by the benchmarks: a fixed, valid standard fleet (one galleon,
+ * one frigate, two carracks, three caravels and four barges) and the shots
+ * needed to bring it to each {@link FleetState}
+ */
+final class BenchmarkFleets {
+    static final String[] KINDS = {"galeao", "fragata", "nau", "nau", "caravela", "caravela", "caravela",
+            "barca", "barca", "barca", "barca"};
+    private static final Compass[] BEARINGS = {Compass.NORTH, Compass.EAST, Compass.SOUTH, Compass.EAST,
+            Compass.NORTH, Compass.EAST, Compass.NORTH, Compass.NORTH, Compass.NORTH, Compass.NORTH, Compass.NORTH};
+    private static final int[][] ANCHORS = {{0, 0}, {0, 5}, {4, 0}, {9, 0}, {3, 9}, {6, 4}, {2, 4}, {9, 9},
+            {7, 7}, {2, 7}, {9, 5}};
+
+    private BenchmarkFleets() {
+    }
+
+    /**
+     * This operation builds the ships of the standard fleet
+     *
+     * @return A new list with freshly built ships
+     */
+    static List<IShip> standardShips() {
+        List<IShip> ships = new ArrayList<>();
+        for (int i = 0; i < KINDS.length; i++)
+            ships.add(Ship.buildShip(KINDS[i], BEARINGS[i], Positions.of(ANCHORS[i][0], ANCHORS[i][1])));
+        return ships;
+    }
+
+    /**
+     * This operation builds a fleet of the given kind holding the ships that
+     * correspond to the given state (no ships at all for {@link FleetState#EMPTY})
+     */
+    static IFleet fleet(FleetKind kind, FleetState state) {
+        return fleet(kind, state, KINDS.length);
+    }
+
+    /**
+     * This operation builds a fleet of the given kind holding the first ships of
+     * the standard fleet, or none at all for {@link FleetState#EMPTY}
+     *
+     * @param count the number of ships of a non-empty fleet
+     */
+    static IFleet fleet(FleetKind kind, FleetState state, int count) {
+        IFleet fleet = kind.create();
+        if (state != FleetState.EMPTY)
+            for (IShip s : standardShips().subList(0, count))
+                if (!fleet.addShip(s))
+                    throw new IllegalStateException("Invalid benchmark fleet: " + s);
+        return fleet;
+    }
+
+    /**
+     * This operation builds a game over the given fleet and fires the shots
+     * needed to reach the given state
+     */
+    static Game game(IFleet fleet, FleetState state) {
+        Game game = new Game(fleet);
+        List<IShip> ships = fleet.getShips();
+        int sunk;
+        switch (state) {
+            case HALF_SUNK:
+                sunk = ships.size() / 2;
+                break;
+            case NEARLY_SUNK:
+                sunk = ships.size() - 1;
+                break;
+            default:
+                sunk = 0;
+        }
+        for (int i = 0; i < sunk; i++)
+            for (IPosition p : ships.get(i).getPositions())
+                game.fire(Positions.of(p.getRow(), p.getColumn()));
+        return game;
+    }
+
+    /**
+     * @return A position of a ship that has not been hit yet, or a water cell if
+     * every ship cell has been hit
+     */
+    static IPosition unhitShipCell(IFleet fleet, Game game) {
+        for (IShip s : fleet.getShips())
+            for (IPosition p : s.getPositions())
+                if (!p.isHit())
+                    return Positions.of(p.getRow(), p.getColumn());
+        return waterCell(fleet, game);
+    }
+
+    /**
+     * @return A position without any ship that has not been fired upon yet
+     */
+    static IPosition waterCell(IFleet fleet, Game game) {
+        for (int r = IFleet.BOARD_SIZE - 1; r >= 0; r--)
+            for (int c = IFleet.BOARD_SIZE - 1; c >= 0; c--) {
+                IPosition p = Positions.of(r, c);
+                if (fleet.shipAt(p) == null && !game.getShots().contains(p))
+                    return p;
+            }
+        throw new IllegalStateException("No water left on the board");
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link Fleet#addShip(IShip)} (both accepted ships and ships
+ * rejected by the collision check) and {@link Fleet#shipAt(IPosition)}.
+ * <p>
+ * The fleets hold the standard fleet but its last barge, so that they have room
+ * for one more ship: that barge is the ship that fits, and a full fleet would
+ * turn every addition away before the collision check.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FleetBenchmark {
+
+    /**
+     * The number of ships of a non-empty benchmark fleet
+     */
+    static final int SHIPS = BenchmarkFleets.KINDS.length - 1;
+
+    /**
+     * @return A new ship that fits in a non-empty benchmark fleet: the barge
+     * left out of it, at (9,5)
+     */
+    static IShip fittingShip() {
+        return BenchmarkFleets.standardShips().get(SHIPS);
+    }
+
+    @State(Scope.Thread)
+    public static class Fixture {
+        @Param
+        FleetKind kind;
+        @Param
+        FleetState state;
+
+        IFleet fleet;
+        IShip colliding;
+        IPosition occupied;
+        IPosition water;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            fleet = BenchmarkFleets.fleet(kind, state, SHIPS);
+            BenchmarkFleets.game(fleet, state);
+            // next to the galleon at (0,0) and the carrack at (4,0): as the fleet has
+            // room for one more ship, only colisionRisk turns it away
+            colliding = new Barge(Compass.NORTH, Positions.of(3, 1));
+            occupied = Positions.of(9, 9);
+            water = Positions.of(5, 5);
+
+            // a rejected ship leaves the fleet as it was
+            if (state != FleetState.EMPTY && fleet.addShip(colliding))
+                throw new IllegalStateException("Benchmark ship does not collide: " + colliding);
+            IShip fitting = fittingShip();
+            if (!BenchmarkFleets.fleet(kind, state, SHIPS).addShip(fitting))
+                throw new IllegalStateException("Benchmark ship does not fit: " + fitting);
+            if (state != FleetState.EMPTY && (fleet.shipAt(occupied) == null || fleet.shipAt(water) != null))
+                throw new IllegalStateException("Benchmark cells are not where expected");
+        }
+    }
+
+    /**
+     * A fleet that must be rebuilt before every call, since accepting a ship
+     * changes it
+     */
+    @State(Scope.Thread)
+    public static class FreshFleet {
+        @Param
+        FleetKind kind;
+        @Param
+        FleetState state;
+
+        IFleet fleet;
+        IShip fitting;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            fleet = BenchmarkFleets.fleet(kind, state, SHIPS);
+            fitting = fittingShip();
+        }
+    }
+
+    @Benchmark
+    public boolean addShipRejected(Fixture s) {
+        return s.fleet.addShip(s.colliding);
+    }
+
+    @Benchmark
+    public boolean addShipAccepted(FreshFleet s) {
+        return s.fleet.addShip(s.fitting);
+    }
+
+    @Benchmark
+    public void shipAt(Fixture s, Blackhole bh) {
+        bh.consume(s.fleet.shipAt(s.occupied));
+        bh.consume(s.fleet.shipAt(s.water));
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for {@link FleetGenerator#fill(Fleet)} on a reused fleet; the
+ * throughput mode reports fleets per second
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FleetGeneratorBenchmark {
+    @Param
+    FleetKind kind;
+
+    FleetGenerator generator;
+    Fleet fleet;
+
+    @Setup
+    public void setUp() {
+        generator = new FleetGenerator(42);
+        fleet = (Fleet) kind.create();
+    }
+
+    @Benchmark
+    public Fleet fill() {
+        generator.fill(fleet);
+        return fleet;
+    }
+}
@@ -0,0 +1,20 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+/**
+ * The fleet implementations under measurement
+ */
+public enum FleetKind {
+    FLEET, BITBOARD;
+
+    IFleet create() {
+        switch (this) {
+            case BITBOARD:
+                return new BitboardFleet();
+            default:
+                return new Fleet();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+/**
+ * The fleet situations every benchmark is run against
+ */
+public enum FleetState {
+    /**
+     * A fleet without any ship: every shot is a miss
+     */
+    EMPTY,
+    /**
+     * The standard fleet, not yet shot at
+     */
+    INTACT,
+    /**
+     * The standard fleet after sinking roughly half of its ships
+     */
+    HALF_SUNK,
+    /**
+     * The standard fleet after sinking all of its ships but the last one
+     */
+    NEARLY_SUNK
+}
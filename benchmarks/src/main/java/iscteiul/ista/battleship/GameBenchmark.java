@@ -0,0 +1,102 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for {@link Game#fire(IPosition)} and
+ * {@link Game#getRemainingShips()}
+ * <p>
+ * Hits and misses change the game, so those benchmarks get a fresh game for
+ * every invocation; repeated and invalid shots leave the game untouched and
+ * share one game per trial. Note that the allocation rate reported by
+ * {@code -prof gc} for the former includes that per-invocation setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+    @State(Scope.Thread)
+    public static class FreshGame {
+        @Param
+        FleetKind kind;
+        @Param
+        FleetState state;
+
+        Game game;
+        IPosition hit;
+        IPosition miss;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            IFleet fleet = BenchmarkFleets.fleet(kind, state);
+            game = BenchmarkFleets.game(fleet, state);
+            hit = BenchmarkFleets.unhitShipCell(fleet, game);
+            miss = BenchmarkFleets.waterCell(fleet, game);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class SettledGame {
+        @Param
+        FleetKind kind;
+        @Param
+        FleetState state;
+
+        Game game;
+        IPosition repeated;
+        IPosition invalid;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            IFleet fleet = BenchmarkFleets.fleet(kind, state);
+            game = BenchmarkFleets.game(fleet, state);
+            repeated = BenchmarkFleets.waterCell(fleet, game);
+            game.fire(repeated);
+            invalid = Positions.of(-1, IFleet.BOARD_SIZE + 1);
+        }
+    }
+
+    @Benchmark
+    public IShip fireHit(FreshGame s) {
+        return s.game.fire(s.hit);
+    }
+
+    @Benchmark
+    public IShip fireMiss(FreshGame s) {
+        return s.game.fire(s.miss);
+    }
+
+    @Benchmark
+    public IShip fireRepeated(SettledGame s) {
+        return s.game.fire(s.repeated);
+    }
+
+    @Benchmark
+    public IShip fireInvalid(SettledGame s) {
+        return s.game.fire(s.invalid);
+    }
+
+    @Benchmark
+    public int getRemainingShips(SettledGame s) {
+        return s.game.getRemainingShips();
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks a whole game, every cell of the board fired at once, played
+ * with and without a {@link GameJournal}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JournalBenchmark {
+    private final Fleet fleet = new Fleet();
+    private final FleetGenerator generator = new FleetGenerator(1);
+    private final IPosition[] cells = new IPosition[BoardSpec.DEFAULT.getCellCount()];
+    private Path directory;
+    private GameJournal journal;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        for (int i = 0; i < cells.length; i++)
+            cells[i] = Positions.of(i / IFleet.BOARD_SIZE, i % IFleet.BOARD_SIZE);
+        directory = Files.createTempDirectory("journal-benchmark");
+        journal = new GameJournal(directory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private int play(IGame game) {
+        for (IPosition cell : cells)
+            game.fire(cell);
+        return game.getHits();
+    }
+
+    @Benchmark
+    public int plainGame() {
+        generator.fill(fleet);
+        return play(new Game(fleet));
+    }
+
+    @Benchmark
+    public int journaledGame() {
+        generator.fill(fleet);
+        return play(new JournaledGame(fleet, journal));
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the cost of {@link EngineMetrics} per call: every cell of the
+ * board fired at, and looked up, with and without metrics
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MetricsBenchmark {
+    private static final int CELLS = 100;
+
+    private final Fleet fleet = new FleetGenerator(1).generate();
+    private final IFleet meteredFleet = new EngineMetrics().meter(fleet);
+    private final IPosition[] cells = new IPosition[CELLS];
+    private final EngineMetrics metrics = new EngineMetrics();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        for (int i = 0; i < cells.length; i++)
+            cells[i] = Positions.of(i / IFleet.BOARD_SIZE, i % IFleet.BOARD_SIZE);
+    }
+
+    private int play(IGame game) {
+        for (IPosition cell : cells)
+            game.fire(cell);
+        return game.getHits();
+    }
+
+    private int lookUp(IFleet fleet) {
+        int found = 0;
+        for (IPosition cell : cells)
+            if (fleet.shipAt(cell) != null)
+                found++;
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CELLS)
+    public int plainFire() {
+        return play(new Game(fleet.fork()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CELLS)
+    public int meteredFire() {
+        return play(metrics.meter(new Game(fleet.fork())));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CELLS)
+    public int plainShipAt() {
+        return lookUp(fleet);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CELLS)
+    public int meteredShipAt() {
+        return lookUp(meteredFleet);
+    }
+}
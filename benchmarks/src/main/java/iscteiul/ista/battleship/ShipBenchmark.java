@@ -0,0 +1,42 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for {@link Ship#buildShip(String, Compass, IPosition)} over the
+ * five kinds of ship
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShipBenchmark {
+    @Param({"barca", "caravela", "nau", "fragata", "galeao"})
+    String shipKind;
+
+    @Param({"NORTH", "EAST"})
+    Compass bearing;
+
+    IPosition anchor = Positions.of(3, 3);
+
+    @Benchmark
+    public Ship buildShip() {
+        return Ship.buildShip(shipKind, bearing, anchor);
+    }
+}
@@ -1,5 +1,8 @@
 package iscteiul.ista;
 
+import java.util.Arrays;
+
+import iscteiul.ista.battleship.BatchRunner;
 import iscteiul.ista.battleship.Fleet;
 import iscteiul.ista.battleship.Tasks;
 
@@ -10,8 +13,13 @@ import iscteiul.ista.battleship.Tasks;
  */
 public class App
 {
-    public static void main( String[] args )
+    public static void main( String[] args ) throws Exception
     {
+        // App batch <scripts> <output> [threads] plays recorded scripts headless
+        if (args.length > 0 && args[0].equals("batch")) {
+            BatchRunner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
 
         System.out.printf("\n***  Battleship Game ***\n");
 
@@ -13,7 +13,8 @@ public class Barge extends Ship {
      */
     public Barge(Compass bearing, IPosition pos) {
         super(Barge.NAME, bearing, pos);
-        getPositions().add(new Position(pos.getRow(), pos.getColumn()));
+        // a single cell, whatever the bearing
+        setShape(ShipShape.of(ShipShape.BARCA, Compass.NORTH));
     }
 
     @Override
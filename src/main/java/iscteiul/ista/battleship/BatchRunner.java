@@ -0,0 +1,271 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Plays recorded scripts of {@link Tasks#taskD()} commands without a console,
+ * many at once, as regression and load runs.
+ * <p>
+ * Every file of a directory is a script. Each one is played by a
+ * {@link GameSession} of its own, with its own fleet and game, reading the
+ * script file and writing what it prints to a file of the same name, with
+ * {@link #OUTPUT_SUFFIX}, in the output directory. The output is what the task
+ * prints for the script, line for line: the messages it logs, without the time
+ * and thread the log layout adds to them, and the boards. The time each
+ * command takes is recorded, per command, with the reply written.
+ * <p>
+ * The output is the task's, byte for byte, for scripts of well-formed commands.
+ * Where a number is malformed, the task stops with an
+ * {@link java.util.InputMismatchException}, while the session answers it as an
+ * unknown command, skips the token and plays the rest of the script. A script
+ * whose session fails is counted as failed and does not stop the others.
+ */
+public class BatchRunner {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final String OUTPUT_SUFFIX = ".out";
+
+    private final int threads;
+
+    /**
+     * @param threads the number of scripts played at the same time
+     */
+    public BatchRunner(int threads) throws IllegalArgumentException {
+        if (threads <= 0)
+            throw new IllegalArgumentException("ERROR! invalid number of threads: " + threads);
+
+        this.threads = threads;
+    }
+
+    /**
+     * The outcome of a batch run
+     */
+    public static final class Report {
+        private final int scripts;
+        private final int failed;
+        private final long elapsedNanos;
+        private final Map<String, LatencyHistogram> latencies;
+
+        Report(int scripts, int failed, long elapsedNanos, Map<String, LatencyHistogram> latencies) {
+            this.scripts = scripts;
+            this.failed = failed;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+        }
+
+        public int getScripts() {
+            return scripts;
+        }
+
+        /**
+         * @return The number of scripts that could not be read, whose output
+         * could not be written, or whose session failed
+         */
+        public int getFailed() {
+            return failed;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * @return The number of scripts played per second
+         */
+        public double getThroughput() {
+            return elapsedNanos == 0 ? 0 : scripts * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * @return The latencies of the commands, by command, unknown commands
+         * last under "?"
+         */
+        public Map<String, LatencyHistogram> getLatencies() {
+            return latencies;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(String.format("%d scripts, %d failed, %.0f scripts/s", scripts,
+                    failed, getThroughput()));
+            for (Map.Entry<String, LatencyHistogram> command : latencies.entrySet())
+                if (command.getValue().getCount() > 0)
+                    text.append(String.format("%n  %-8s %8d calls, latency mean %.1f us p99 %.1f us max %.1f us",
+                            command.getKey(), command.getValue().getCount(), command.getValue().getMean() / 1e3,
+                            command.getValue().getValueAtPercentile(99) / 1e3, command.getValue().getMax() / 1e3));
+            return text.toString();
+        }
+    }
+
+    /**
+     * This operation plays every script of a directory
+     *
+     * @param scripts the directory of the scripts
+     * @param output  the directory the outputs are written to, created if need
+     *                be
+     * @return The outcome of the run
+     */
+    public Report run(Path scripts, Path output) throws IOException, InterruptedException {
+        assert scripts != null;
+        assert output != null;
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(scripts)) {
+            files = listing.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        Files.createDirectories(output);
+
+        LatencyHistogram[] latencies = new LatencyHistogram[GameSession.UNKNOWN + 1];
+        for (int i = 0; i < latencies.length; i++)
+            latencies[i] = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        int failed = 0;
+        long start = System.nanoTime();
+        try {
+            List<Future<Boolean>> played = new ArrayList<>(files.size());
+            for (Path file : files)
+                played.add(executor.submit(
+                        () -> play(file, output.resolve(file.getFileName() + OUTPUT_SUFFIX), latencies)));
+            for (Future<Boolean> script : played)
+                if (!script.get())
+                    failed++;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("ERROR! a script failed unexpectedly", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Map<String, LatencyHistogram> byCommand = new LinkedHashMap<>();
+        for (int i = 0; i < GameSession.COMMANDS.length; i++)
+            byCommand.put(GameSession.COMMANDS[i], latencies[i]);
+        byCommand.put("?", latencies[GameSession.UNKNOWN]);
+        return new Report(files.size(), failed, elapsed, byCommand);
+    }
+
+    /**
+     * This operation plays a script
+     *
+     * @return true if the script was played and its output written
+     */
+    private static boolean play(Path script, Path output, LatencyHistogram[] latencies) {
+        try (ScriptChannel channel = new ScriptChannel(script, output)) {
+            GameSession session = new GameSession(channel, false, latencies);
+            session.run();
+            if (session.getFailure() != null) {
+                LOGGER.warn("{} failed: {}", script, session.getFailure().toString());
+                return false;
+            }
+            return !channel.failed;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("{} not played: {}", script, e.toString());
+            return false;
+        }
+    }
+
+    /**
+     * A channel that reads a script file and writes to an output file, so that
+     * a session plays the script as if the player typed it
+     */
+    private static final class ScriptChannel implements ByteChannel {
+        private final FileChannel in;
+        private final FileChannel out;
+        /**
+         * Set once a write has failed, as the session keeps quiet about it
+         */
+        private boolean failed;
+
+        ScriptChannel(Path script, Path output) throws IOException {
+            this.in = FileChannel.open(script, StandardOpenOption.READ);
+            try {
+                this.out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return in.read(dst);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            try {
+                return out.write(src);
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return out.isOpen();
+        }
+
+        /**
+         * This operation closes the files; the session closing the channel once
+         * done, it may be called twice
+         */
+        @Override
+        public void close() throws IOException {
+            IOException failure = null;
+            try {
+                out.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+            try {
+                in.close();
+            } catch (IOException e) {
+                if (failure == null)
+                    failure = e;
+                else
+                    failure.addSuppressed(e);
+            }
+            if (failure != null)
+                throw failure;
+        }
+    }
+
+    /**
+     * Plays a directory of scripts
+     *
+     * @param args the directory of the scripts, the output directory and the
+     *             number of scripts played at the same time
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            LOGGER.error("usage: BatchRunner <scripts> <output> [threads]");
+            return;
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        LOGGER.info("{}", new BatchRunner(threads).run(Paths.get(args[0]), Paths.get(args[1])));
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.Arrays;
+
+/**
+ * A fleet that keeps a dense board index (one short per cell holding the id of
+ * the ship occupying it) next to the list of ships, so that finding the ship
+ * at a given position does not require walking every ship.
+ * <p>
+ * Placement rules and all query results are those of {@link Fleet}.
+ */
+public class BitboardFleet extends Fleet {
+    private static final short NO_SHIP = 0;
+
+    /**
+     * Cell index: 0 for water, otherwise the (1-based) index of the first ship
+     * added that occupies the cell
+     */
+    private short[] cells;
+    /**
+     * Set while the index is shared with a fork, which must then be copied
+     * before it is changed
+     */
+    private boolean cellsShared;
+
+    public BitboardFleet() {
+        this(BoardSpec.DEFAULT);
+    }
+
+    /**
+     * @param spec The board and fleet dimensions
+     */
+    public BitboardFleet(BoardSpec spec) throws IllegalArgumentException {
+        super(spec);
+        if (spec.getFleetSize() >= Short.MAX_VALUE)
+            throw new IllegalArgumentException("ERROR! fleet too large to be indexed: " + spec.getFleetSize());
+        cells = new short[spec.getCellCount()];
+    }
+
+    /**
+     * Builds a fork of a fleet, sharing its index until either fleet changes it
+     *
+     * @param original A fleet made of {@link Ship}s only
+     */
+    protected BitboardFleet(BitboardFleet original) {
+        super(original);
+        cells = original.cells;
+        cellsShared = true;
+        original.cellsShared = true;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.Fleet#fork()
+     */
+    @Override
+    public BitboardFleet fork() throws UnsupportedOperationException {
+        checkForkable();
+        return new BitboardFleet(this);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#addShip(battleship.IShip)
+     */
+    @Override
+    public boolean addShip(IShip s) {
+        if (!super.addShip(s))
+            return false;
+
+        if (cellsShared) {
+            cells = cells.clone();
+            cellsShared = false;
+        }
+        BoardSpec spec = getBoardSpec();
+        short id = (short) getShips().size();
+        if (s instanceof Ship) {
+            Ship ship = (Ship) s;
+            for (int i = 0; i < ship.cellCount(); i++)
+                index(spec, ship.cellRow(i), ship.cellColumn(i), id);
+        } else {
+            for (IPosition p : s.getPositions())
+                index(spec, p.getRow(), p.getColumn(), id);
+        }
+        return true;
+    }
+
+    private void index(BoardSpec spec, int row, int column, short id) {
+        if (spec.contains(row, column)) {
+            int index = spec.cellIndex(row, column);
+            if (cells[index] == NO_SHIP)
+                cells[index] = id;
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.Fleet#clear()
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        if (cellsShared)
+            cells = new short[cells.length];
+        else
+            Arrays.fill(cells, NO_SHIP);
+        cellsShared = false;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#shipAt(battleship.IPosition)
+     */
+    @Override
+    public IShip shipAt(IPosition pos) {
+        BoardSpec spec = getBoardSpec();
+        if (!spec.contains(pos.getRow(), pos.getColumn()))
+            return null;
+
+        short id = cells[spec.cellIndex(pos.getRow(), pos.getColumn())];
+        if (id == NO_SHIP)
+            return null;
+        return getShips().get(id - 1);
+    }
+
+}
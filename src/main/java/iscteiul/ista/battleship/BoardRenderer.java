@@ -0,0 +1,223 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Draws boards as text, one line per row and one character per cell: water
+ * '.', ships '#', shots 'X', and, when the outcome of the shots is asked for,
+ * hits '*' and misses 'o'.
+ * <p>
+ * A board is drawn into a buffer the renderer keeps, and grows, from one
+ * drawing to the next, and is then written out whole, with a single call, to
+ * an {@link Appendable} or a {@link WritableByteChannel}. Only the ships and
+ * shots that fall in the part of the board drawn, its viewport, are looked at,
+ * so that a corner of a very large board is drawn as fast as a small board. A
+ * renderer is not meant to be shared between threads.
+ */
+public final class BoardRenderer {
+    /**
+     * Layers of a drawing, to be or'ed together
+     */
+    public static final int FLEET = 1;
+    public static final int SHOTS = 2;
+    public static final int OUTCOMES = 4;
+
+    public static final char WATER = '.';
+    public static final char SHIP = '#';
+    public static final char SHOT = 'X';
+    public static final char HIT = '*';
+    public static final char MISS = 'o';
+
+    private char[] chars = new char[0];
+    private byte[] bytes = new byte[0];
+    private CharBuffer charView = CharBuffer.wrap(chars);
+    private ByteBuffer byteView = ByteBuffer.wrap(bytes);
+    private int length;
+
+    private int top;
+    private int left;
+    private int height;
+    private int width;
+
+    /**
+     * This operation draws a whole board, which must be small enough to be held
+     * as a string
+     *
+     * @param fleet  the fleet on the board
+     * @param game   the game played on it, or null if no shots are drawn
+     * @param layers FLEET, SHOTS and OUTCOMES, or'ed together
+     * @return This renderer, to write the drawing out
+     */
+    public BoardRenderer render(IFleet fleet, IGame game, int layers) {
+        int size = fleet.getBoardSpec().getBoardSize();
+        return render(fleet, game, layers, 0, 0, size, size);
+    }
+
+    /**
+     * This operation draws a part of a board, cut to the board if it goes past
+     * it
+     *
+     * @param fleet  the fleet on the board
+     * @param game   the game played on it, or null if no shots are drawn
+     * @param layers FLEET, SHOTS and OUTCOMES, or'ed together
+     * @param top    the first row drawn
+     * @param left   the first column drawn
+     * @param height the number of rows drawn
+     * @param width  the number of columns drawn
+     * @return This renderer, to write the drawing out
+     */
+    public BoardRenderer render(IFleet fleet, IGame game, int layers, int top, int left, int height, int width)
+            throws IllegalArgumentException {
+        assert fleet != null;
+        if ((layers & (SHOTS | OUTCOMES)) != 0 && game == null)
+            throw new IllegalArgumentException("ERROR! shots cannot be drawn without a game");
+
+        viewport(fleet.getBoardSpec(), top, left, height, width);
+        if ((layers & (FLEET | OUTCOMES)) != 0)
+            drawFleet(fleet);
+        if ((layers & (SHOTS | OUTCOMES)) != 0)
+            drawShots(game, (layers & OUTCOMES) != 0);
+        if ((layers & FLEET) == 0 && (layers & OUTCOMES) != 0)
+            // the ships were only drawn to tell hits from misses
+            for (int i = 0; i < length; i++)
+                if (chars[i] == SHIP)
+                    chars[i] = WATER;
+        return this;
+    }
+
+    /**
+     * This operation draws a whole board with the given positions marked
+     *
+     * @param spec      the board
+     * @param positions the positions marked; those off the board are left out
+     * @param marker    the character the positions are marked with
+     * @return This renderer, to write the drawing out
+     */
+    public BoardRenderer render(BoardSpec spec, List<IPosition> positions, char marker) {
+        viewport(spec, 0, 0, spec.getBoardSize(), spec.getBoardSize());
+        for (int i = 0; i < positions.size(); i++)
+            mark(positions.get(i).getRow(), positions.get(i).getColumn(), marker);
+        return this;
+    }
+
+    /**
+     * This operation sets the viewport, cut to the board, and fills it with
+     * water
+     */
+    private void viewport(BoardSpec spec, int top, int left, int height, int width) throws IllegalArgumentException {
+        int size = spec.getBoardSize();
+        this.top = Math.min(Math.max(top, 0), size);
+        this.left = Math.min(Math.max(left, 0), size);
+        this.height = (int) Math.max(0, Math.min((long) top + height, size) - this.top);
+        this.width = (int) Math.max(0, Math.min((long) left + width, size) - this.left);
+        long cells = this.height == 0 ? 0 : (long) this.height * (this.width + 1L);
+        if (cells > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("ERROR! viewport too large to be drawn: " + this.height + "x" + this.width);
+        length = (int) cells;
+        if (chars.length < length) {
+            chars = new char[Math.max(length, 2 * chars.length)];
+            charView = CharBuffer.wrap(chars);
+        }
+        for (int row = 0; row < this.height; row++) {
+            int start = row * (this.width + 1);
+            for (int column = 0; column < this.width; column++)
+                chars[start + column] = WATER;
+            chars[start + this.width] = '\n';
+        }
+    }
+
+    private boolean inViewport(int row, int column) {
+        return row >= top && row < top + height && column >= left && column < left + width;
+    }
+
+    private int indexOf(int row, int column) {
+        return (row - top) * (width + 1) + column - left;
+    }
+
+    private void mark(int row, int column, char marker) {
+        if (inViewport(row, column))
+            chars[indexOf(row, column)] = marker;
+    }
+
+    private void drawFleet(IFleet fleet) {
+        List<IShip> ships = fleet.getShips();
+        for (int i = 0; i < ships.size(); i++) {
+            if (ships.get(i) instanceof Ship) {
+                Ship ship = (Ship) ships.get(i);
+                for (int c = 0; c < ship.cellCount(); c++)
+                    mark(ship.cellRow(c), ship.cellColumn(c), SHIP);
+            } else {
+                List<IPosition> positions = ships.get(i).getPositions();
+                for (int p = 0; p < positions.size(); p++)
+                    mark(positions.get(p).getRow(), positions.get(p).getColumn(), SHIP);
+            }
+        }
+    }
+
+    private void drawShots(IGame game, boolean outcomes) {
+        if (game instanceof FiredCells) {
+            // the cells of the viewport are looked up, not the whole list of shots
+            FiredCells fired = (FiredCells) game;
+            for (int row = top; row < top + height; row++)
+                for (int column = left; column < left + width; column++)
+                    if (fired.isFired(row, column))
+                        drawShot(row, column, outcomes);
+        } else {
+            List<IPosition> shots = game.getShots();
+            for (int i = 0; i < shots.size(); i++)
+                if (inViewport(shots.get(i).getRow(), shots.get(i).getColumn()))
+                    drawShot(shots.get(i).getRow(), shots.get(i).getColumn(), outcomes);
+        }
+    }
+
+    private void drawShot(int row, int column, boolean outcomes) {
+        int index = indexOf(row, column);
+        chars[index] = !outcomes ? SHOT : chars[index] == SHIP || chars[index] == HIT ? HIT : MISS;
+    }
+
+    /**
+     * @return The number of characters of the last drawing
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * This operation writes the last drawing out, with a single append
+     */
+    public void writeTo(Appendable out) throws IOException {
+        charView.clear().limit(length);
+        out.append(charView);
+    }
+
+    /**
+     * This operation writes the last drawing out to a channel, in ASCII, with as
+     * many writes as the channel takes to accept it; a blocking channel takes one
+     */
+    public void writeTo(WritableByteChannel out) throws IOException {
+        if (bytes.length < length) {
+            bytes = new byte[chars.length];
+            byteView = ByteBuffer.wrap(bytes);
+        }
+        for (int i = 0; i < length; i++)
+            bytes[i] = (byte) chars[i];
+        byteView.clear().limit(length);
+        while (byteView.hasRemaining())
+            out.write(byteView);
+    }
+
+    /**
+     * @return The last drawing
+     */
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+/**
+ * The dimensions of a game: the side of the (square) board and the fleet size
+ * limit. Fleets accept up to {@code fleetSize + 1} ships, as the standard
+ * fleet of {@link IFleet#FLEET_SIZE} does.
+ * <p>
+ * A sparse spec, from {@link #sparse(int, int)}, describes a board too large
+ * to index cell by cell, up to Integer.MAX_VALUE rows, played through a
+ * {@link SparseFleet} and a {@link SparseGame}. Its cells are only known by
+ * their {@link #cellKey(int, int) keys}.
+ */
+public final class BoardSpec {
+    /**
+     * Largest board side whose cell count still fits in an int
+     */
+    public static final int MAX_BOARD_SIZE = 46340;
+
+    /**
+     * The standard 10x10 board
+     */
+    public static final BoardSpec DEFAULT = new BoardSpec(IFleet.BOARD_SIZE, IFleet.FLEET_SIZE);
+
+    private final int boardSize;
+    private final int fleetSize;
+    private final boolean sparse;
+
+    /**
+     * @param boardSize number of rows (and columns) of the board
+     * @param fleetSize fleet size limit
+     */
+    public BoardSpec(int boardSize, int fleetSize) throws IllegalArgumentException {
+        if (boardSize <= 0 || boardSize > MAX_BOARD_SIZE)
+            throw new IllegalArgumentException("ERROR! invalid board size: " + boardSize);
+        if (fleetSize < 0)
+            throw new IllegalArgumentException("ERROR! invalid fleet size: " + fleetSize);
+
+        this.boardSize = boardSize;
+        this.fleetSize = fleetSize;
+        this.sparse = false;
+    }
+
+    private BoardSpec(int boardSize, int fleetSize, boolean sparse) {
+        this.boardSize = boardSize;
+        this.fleetSize = fleetSize;
+        this.sparse = sparse;
+    }
+
+    /**
+     * @param boardSize number of rows (and columns) of the board, up to
+     *                  Integer.MAX_VALUE
+     * @param fleetSize fleet size limit
+     * @return The spec of a sparse board
+     */
+    public static BoardSpec sparse(int boardSize, int fleetSize) throws IllegalArgumentException {
+        if (boardSize <= 0)
+            throw new IllegalArgumentException("ERROR! invalid board size: " + boardSize);
+        if (fleetSize < 0)
+            throw new IllegalArgumentException("ERROR! invalid fleet size: " + fleetSize);
+
+        return new BoardSpec(boardSize, fleetSize, true);
+    }
+
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    public int getFleetSize() {
+        return fleetSize;
+    }
+
+    public boolean isSparse() {
+        return sparse;
+    }
+
+    /**
+     * @return The number of cells of the board, which only a dense board has
+     */
+    public int getCellCount() throws IllegalStateException {
+        if (sparse)
+            throw new IllegalStateException("ERROR! a sparse board is not indexed cell by cell");
+        return boardSize * boardSize;
+    }
+
+    /**
+     * @return true if the given coordinates lie on the board
+     */
+    public boolean contains(int row, int column) {
+        return row >= 0 && row < boardSize && column >= 0 && column < boardSize;
+    }
+
+    /**
+     * @return The row-major index of a cell of the board
+     */
+    public int cellIndex(int row, int column) {
+        assert !sparse;
+        return row * boardSize + column;
+    }
+
+    /**
+     * @return The row and column of a cell packed in a long, on any board
+     */
+    public static long cellKey(int row, int column) {
+        return (long) row << 32 | column & 0xFFFFFFFFL;
+    }
+
+    public static int keyRow(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int keyColumn(long key) {
+        return (int) key;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other)
+            return true;
+        if (!(other instanceof BoardSpec))
+            return false;
+        BoardSpec spec = (BoardSpec) other;
+        return boardSize == spec.boardSize && fleetSize == spec.fleetSize && sparse == spec.sparse;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 31 * boardSize + fleetSize;
+        return sparse ? ~hash : hash;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + boardSize + "x" + boardSize + " " + fleetSize + (sparse ? " sparse]" : "]");
+    }
+}
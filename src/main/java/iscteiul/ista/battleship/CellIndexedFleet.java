@@ -0,0 +1,203 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A fleet whose board keeps, for each occupied cell, the index of the ship
+ * occupying it, wherever that index is stored: subclasses only look cells up
+ * and record them.
+ * <p>
+ * Placement rules and query results are those of {@link Fleet}: a ship is
+ * refused if the fleet is full, if it leaves the board, or if any of its cells
+ * touches a cell already occupied, diagonals included.
+ */
+abstract class CellIndexedFleet implements IFleet {
+    static final int NO_SHIP = -1;
+
+    private final BoardSpec spec;
+    private final List<IShip> ships = new ArrayList<>();
+
+    /**
+     * @param spec the board and fleet dimensions
+     */
+    CellIndexedFleet(BoardSpec spec) {
+        assert spec != null;
+
+        this.spec = spec;
+    }
+
+    /**
+     * @return The index of the ship occupying the given cell of the board, from
+     * 0, or NO_SHIP
+     */
+    abstract int shipIndexAt(int row, int column);
+
+    /**
+     * This operation records the ship occupying a cell of the board
+     *
+     * @param ship the index of the ship, from 0
+     */
+    abstract void indexCell(int row, int column, int ship);
+
+    /**
+     * This operation forgets every occupied cell
+     */
+    abstract void clearCells();
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#getShips()
+     */
+    @Override
+    public List<IShip> getShips() {
+        return ships;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#addShip(battleship.IShip)
+     */
+    @Override
+    public boolean addShip(IShip s) {
+        if (ships.size() > spec.getFleetSize() || !Fleet.isInsideBoard(spec, s) || colisionRisk(s))
+            return false;
+        int index = ships.size();
+        ships.add(s);
+        if (s instanceof Ship) {
+            Ship ship = (Ship) s;
+            for (int i = 0; i < ship.cellCount(); i++)
+                indexCell(ship.cellRow(i), ship.cellColumn(i), index);
+        } else {
+            for (IPosition pos : s.getPositions())
+                indexCell(pos.getRow(), pos.getColumn(), index);
+        }
+        return true;
+    }
+
+    private boolean colisionRisk(IShip s) {
+        if (s instanceof Ship) {
+            Ship ship = (Ship) s;
+            for (int i = 0; i < ship.cellCount(); i++)
+                if (crowded(ship.cellRow(i), ship.cellColumn(i)))
+                    return true;
+        } else {
+            for (IPosition pos : s.getPositions())
+                if (crowded(pos.getRow(), pos.getColumn()))
+                    return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the given cell or any of its neighbours is occupied
+     */
+    private boolean crowded(int row, int column) {
+        int last = spec.getBoardSize() - 1;
+        int bottom = (int) Math.min(row + 1L, last);
+        int right = (int) Math.min(column + 1L, last);
+        for (int r = Math.max(row - 1, 0); r <= bottom; r++)
+            for (int c = Math.max(column - 1, 0); c <= right; c++)
+                if (shipIndexAt(r, c) != NO_SHIP)
+                    return true;
+        return false;
+    }
+
+    /**
+     * This operation removes every ship from the fleet and the board
+     */
+    public void clear() {
+        ships.clear();
+        clearCells();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#getShipsLike(java.lang.String)
+     */
+    @Override
+    public List<IShip> getShipsLike(String category) {
+        List<IShip> shipsLike = new ArrayList<>();
+        for (IShip s : ships)
+            if (s.getCategory().equals(category))
+                shipsLike.add(s);
+        return shipsLike;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#getFloatingShips()
+     */
+    @Override
+    public List<IShip> getFloatingShips() {
+        List<IShip> floatingShips = new ArrayList<>();
+        for (IShip s : ships)
+            if (s.stillFloating())
+                floatingShips.add(s);
+        return floatingShips;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#countFloatingShips()
+     */
+    @Override
+    public int countFloatingShips() {
+        int floating = 0;
+        for (int i = 0; i < ships.size(); i++)
+            if (ships.get(i).stillFloating())
+                floating++;
+        return floating;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#shipAt(battleship.IPosition)
+     */
+    @Override
+    public IShip shipAt(IPosition pos) {
+        return shipAt(pos.getRow(), pos.getColumn());
+    }
+
+    /**
+     * @return The ship occupying the given cell, or null
+     */
+    IShip shipAt(int row, int column) {
+        if (!spec.contains(row, column))
+            return null;
+        int index = shipIndexAt(row, column);
+        return index == NO_SHIP ? null : ships.get(index);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#printStatus()
+     */
+    @Override
+    public void printStatus() {
+        Fleet.printShips(ships);
+        Fleet.printShips(getFloatingShips());
+        for (String category : Fleet.STATUS_CATEGORIES)
+            Fleet.printShips(getShipsLike(category));
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#getBoardSpec()
+     */
+    @Override
+    public BoardSpec getBoardSpec() {
+        return spec;
+    }
+}
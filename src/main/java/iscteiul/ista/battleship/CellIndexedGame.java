@@ -0,0 +1,200 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * A game on the board of a {@link CellIndexedFleet}, wherever the cells fired
+ * at are kept: subclasses only mark them and look them up.
+ * <p>
+ * Shots and their outcomes are those of {@link Game}.
+ */
+abstract class CellIndexedGame implements IGame, FiredCells, ShotOutcomes {
+    private final CellIndexedFleet fleet;
+    private final BoardSpec spec;
+
+    private int countInvalidShots;
+    private int countRepeatedShots;
+    private int countHits;
+    private int countSinks;
+
+    /**
+     * @param fleet the fleet to be fired at, already complete
+     */
+    CellIndexedGame(CellIndexedFleet fleet) {
+        assert fleet != null;
+
+        this.fleet = fleet;
+        this.spec = fleet.getBoardSpec();
+    }
+
+    /**
+     * This operation marks a cell of the board as fired at, and records the
+     * shot in the list of shots, unless it had already been fired at
+     *
+     * @return false if the cell had already been fired at
+     */
+    abstract boolean markFired(int row, int column);
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#fire(battleship.IPosition)
+     */
+    @Override
+    public IShip fire(IPosition pos) {
+        return shoot(pos.getRow(), pos.getColumn(), pos) == SHOT_SUNK ? fleet.shipAt(pos) : null;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.ShotOutcomes#fire(battleship.IPosition, byte[])
+     */
+    @Override
+    public IShip fire(IPosition pos, byte[] outcome) {
+        outcome[0] = shoot(pos.getRow(), pos.getColumn(), pos);
+        return outcome[0] == SHOT_SUNK ? fleet.shipAt(pos) : null;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#fireVolley(int[], int[], byte[])
+     */
+    @Override
+    public void fireVolley(int[] rows, int[] cols, byte[] outcomes) {
+        assert rows.length == cols.length && outcomes.length >= rows.length;
+
+        for (int i = 0; i < rows.length; i++)
+            outcomes[i] = shoot(rows[i], cols[i], null);
+    }
+
+    /**
+     * This operation fires a shot
+     *
+     * @param pos the position shot at, or null to build it if needed
+     * @return The outcome of the shot, one of the SHOT_ constants
+     */
+    private byte shoot(int row, int column, IPosition pos) {
+        if (!spec.contains(row, column)) {
+            countInvalidShots++;
+            return SHOT_INVALID;
+        }
+        if (!markFired(row, column)) {
+            countRepeatedShots++;
+            return SHOT_REPEATED;
+        }
+        IShip s = fleet.shipAt(row, column);
+        if (s == null)
+            return SHOT_MISSED;
+        s.shoot(pos != null ? pos : Positions.of(row, column));
+        countHits++;
+        if (s.stillFloating())
+            return SHOT_HIT;
+        countSinks++;
+        return SHOT_SUNK;
+    }
+
+    /**
+     * This operation forgets every shot, so that the game can be played again on
+     * a fleet placed anew
+     */
+    public void reset() {
+        countInvalidShots = 0;
+        countRepeatedShots = 0;
+        countHits = 0;
+        countSinks = 0;
+    }
+
+    CellIndexedFleet getFleet() {
+        return fleet;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getRepeatedShots()
+     */
+    @Override
+    public int getRepeatedShots() {
+        return countRepeatedShots;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getInvalidShots()
+     */
+    @Override
+    public int getInvalidShots() {
+        return countInvalidShots;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getHits()
+     */
+    @Override
+    public int getHits() {
+        return countHits;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getSunkShips()
+     */
+    @Override
+    public int getSunkShips() {
+        return countSinks;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getRemainingShips()
+     */
+    @Override
+    public int getRemainingShips() {
+        return fleet.countFloatingShips();
+    }
+
+    /**
+     * This operation prints the board, or the part of it worth printing
+     *
+     * @param layers BoardRenderer.FLEET or BoardRenderer.SHOTS
+     */
+    void print(int layers) {
+        print(new BoardRenderer().render(fleet, this, layers));
+    }
+
+    static void print(BoardRenderer board) {
+        try {
+            board.writeTo(System.out);
+        } catch (IOException e) {
+            // PrintStream does not throw
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Prints the board showing valid shots that have been fired
+     */
+    @Override
+    public void printValidShots() {
+        print(BoardRenderer.SHOTS);
+    }
+
+    /**
+     * Prints the board showing the fleet
+     */
+    @Override
+    public void printFleet() {
+        print(BoardRenderer.FLEET);
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.Arrays;
+
+/**
+ * A map from cell keys, as packed by {@link BoardSpec#cellKey(int, int)}, to
+ * non-negative ints, held in two primitive arrays with open addressing and
+ * linear probing, so that neither keys nor values are boxed. The table is kept
+ * at most half full, doubling as it grows, and entries are never removed one by
+ * one, only all at once.
+ */
+final class CellTable {
+    static final int NO_VALUE = -1;
+
+    /**
+     * Cell keys have non-negative rows, so no key is negative
+     */
+    private static final long EMPTY = -1L;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int shift;
+    private int size;
+
+    CellTable() {
+        allocate(MIN_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    /**
+     * Fibonacci hashing: the top bits of the key times the golden ratio
+     */
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    /**
+     * @return The value of the given key, or NO_VALUE
+     */
+    int get(long key) {
+        assert key != EMPTY;
+
+        int mask = keys.length - 1;
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            if (keys[i] == key)
+                return values[i];
+            if (keys[i] == EMPTY)
+                return NO_VALUE;
+        }
+    }
+
+    boolean containsKey(long key) {
+        return get(key) != NO_VALUE;
+    }
+
+    /**
+     * This operation maps a key to a value, unless the key is already mapped
+     *
+     * @return false if the key was already mapped, its value being kept
+     */
+    boolean putIfAbsent(long key, int value) {
+        assert key != EMPTY && value != NO_VALUE;
+
+        int mask = keys.length - 1;
+        int i = slot(key);
+        for (; keys[i] != EMPTY; i = (i + 1) & mask)
+            if (keys[i] == key)
+                return false;
+        keys[i] = key;
+        values[i] = value;
+        if (++size > keys.length >>> 1)
+            grow();
+        return true;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++)
+            if (oldKeys[j] != EMPTY) {
+                int i = slot(oldKeys[j]);
+                while (keys[i] != EMPTY)
+                    i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * This operation removes every entry, giving back the memory of a table that
+     * had grown
+     */
+    void clear() {
+        if (keys.length > MIN_CAPACITY)
+            allocate(MIN_CAPACITY);
+        else
+            Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+}
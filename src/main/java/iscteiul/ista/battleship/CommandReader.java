@@ -0,0 +1,233 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the whitespace separated tokens of the command language from a byte
+ * channel, without allocating per token.
+ * <p>
+ * It stands in for the few {@link java.util.Scanner} operations the tasks use,
+ * with the same behaviour on their inputs: tokens are split on whitespace, a
+ * missing token raises {@link NoSuchElementException}, a token that is not an
+ * int raises {@link InputMismatchException} and stays unread, and a failing
+ * channel is taken as the end of the input. Commands and ship kinds are matched
+ * against the bytes of the token in place, so only {@link #next()} builds a
+ * String. The language is ASCII: integers are an optional sign and ASCII
+ * digits, and only ASCII whitespace separates tokens.
+ */
+public class CommandReader {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    /**
+     * Bytes kept of a token; longer tokens are cut to this length
+     */
+    private final int maxTokenLength;
+    private byte[] token = new byte[64];
+    private int tokenLength;
+    /**
+     * Whether the token in the buffer has been read from the channel but not
+     * consumed yet
+     */
+    private boolean pending;
+    private boolean endOfInput;
+    private IOException ioException;
+
+    /**
+     * @param channel the channel the commands are read from
+     */
+    public CommandReader(ReadableByteChannel channel) {
+        this(channel, BUFFER_SIZE);
+    }
+
+    CommandReader(ReadableByteChannel channel, int bufferSize) {
+        this(channel, bufferSize, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param channel        the channel the commands are read from
+     * @param bufferSize     the size of the input buffer
+     * @param maxTokenLength the number of bytes kept of a token, so that the
+     *                       memory of the reader is bounded; the rest of a longer
+     *                       token is skipped
+     */
+    CommandReader(ReadableByteChannel channel, int bufferSize, int maxTokenLength) {
+        assert channel != null;
+        assert bufferSize > 0;
+        assert maxTokenLength > 0;
+
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.buffer.flip();
+        this.maxTokenLength = maxTokenLength;
+        if (maxTokenLength < token.length)
+            token = new byte[maxTokenLength];
+    }
+
+    /**
+     * @return true if there is another token in the input
+     */
+    public boolean hasNext() {
+        return pending || readToken();
+    }
+
+    /**
+     * @return The next token
+     * @throws NoSuchElementException if the input is exhausted
+     */
+    public String next() throws NoSuchElementException {
+        require();
+        pending = false;
+        return new String(token, 0, tokenLength, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * This operation reads the next token and looks it up in a list of words
+     *
+     * @param words the words the token may be
+     * @return The index of the word equal to the token, or -1 if there is none
+     * @throws NoSuchElementException if the input is exhausted
+     */
+    public int nextWord(String[] words) throws NoSuchElementException {
+        require();
+        pending = false;
+        for (int w = 0; w < words.length; w++)
+            if (tokenIs(words[w]))
+                return w;
+        return -1;
+    }
+
+    /**
+     * @return The first character of the next token; U+FFFD if it is not ASCII
+     * @throws NoSuchElementException if the input is exhausted
+     */
+    public char nextChar() throws NoSuchElementException {
+        require();
+        pending = false;
+        return token[0] >= 0 ? (char) token[0] : '\uFFFD';
+    }
+
+    /**
+     * @return The next token, as an int
+     * @throws NoSuchElementException if the input is exhausted
+     * @throws InputMismatchException if the token is not an int; it is then left
+     *                                to be read again
+     */
+    public int nextInt() throws NoSuchElementException, InputMismatchException {
+        require();
+        int i = 0;
+        boolean negative = false;
+        if (token[0] == '-' || token[0] == '+') {
+            negative = token[0] == '-';
+            i++;
+        }
+        if (i == tokenLength)
+            throw mismatch();
+        // accumulated as a negative number, whose range holds Integer.MIN_VALUE
+        int value = 0;
+        for (; i < tokenLength; i++) {
+            int digit = token[i] - '0';
+            if (digit < 0 || digit > 9 || value < (Integer.MIN_VALUE + digit) / 10)
+                throw mismatch();
+            value = value * 10 - digit;
+        }
+        if (!negative && value == Integer.MIN_VALUE)
+            throw mismatch();
+        pending = false;
+        return negative ? value : -value;
+    }
+
+    /**
+     * @return The exception last thrown by the channel, if its failure ended the
+     * input, or null
+     */
+    public IOException ioException() {
+        return ioException;
+    }
+
+    private InputMismatchException mismatch() {
+        return new InputMismatchException("For input string: \"" + new String(token, 0, tokenLength,
+                StandardCharsets.UTF_8) + "\"");
+    }
+
+    private boolean tokenIs(String word) {
+        if (word.length() != tokenLength)
+            return false;
+        for (int i = 0; i < tokenLength; i++)
+            if (token[i] != word.charAt(i))
+                return false;
+        return true;
+    }
+
+    private void require() throws NoSuchElementException {
+        if (!pending && !readToken())
+            throw new NoSuchElementException();
+    }
+
+    /**
+     * This operation reads the next token into the token buffer
+     *
+     * @return false if the input has no more tokens
+     */
+    private boolean readToken() {
+        int b;
+        do {
+            b = read();
+            if (b < 0)
+                return false;
+        } while (isWhitespace(b));
+
+        tokenLength = 0;
+        while (b >= 0 && !isWhitespace(b)) {
+            if (tokenLength == token.length && tokenLength < maxTokenLength) {
+                byte[] larger = new byte[(int) Math.min(2L * token.length, maxTokenLength)];
+                System.arraycopy(token, 0, larger, 0, tokenLength);
+                token = larger;
+            }
+            if (tokenLength < token.length)
+                token[tokenLength++] = (byte) b;
+            b = read();
+        }
+        pending = true;
+        return true;
+    }
+
+    /**
+     * @return The next byte of the input, or -1 at its end
+     */
+    private int read() {
+        if (!buffer.hasRemaining()) {
+            if (endOfInput)
+                return -1;
+            buffer.clear();
+            try {
+                int n;
+                do {
+                    n = channel.read(buffer);
+                } while (n == 0);
+                if (n < 0)
+                    endOfInput = true;
+            } catch (IOException e) {
+                ioException = e;
+                endOfInput = true;
+            }
+            buffer.flip();
+            if (!buffer.hasRemaining())
+                return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    private static boolean isWhitespace(int b) {
+        return b == ' ' || (b >= '\t' && b <= '\r') || (b >= 0x1C && b <= 0x1F);
+    }
+}
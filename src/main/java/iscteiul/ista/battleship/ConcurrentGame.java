@@ -0,0 +1,308 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A game that many threads may fire at together, without locks.
+ * <p>
+ * The cells fired at are the bits of an atomic bitmap: the thread whose
+ * compare-and-set claims the bit of a cell is the one whose shot counts, and
+ * any other shot at the cell is a repeated one. Each ship keeps an atomic count
+ * of its cells not yet hit, and the shot that takes it to zero is the one, and
+ * only one, that reports the ship as sunk. Every outcome is thus decided at a
+ * single atomic step, as if the shots had been fired one at a time in some
+ * order. The counters are {@link LongAdder}s, so that threads do not contend
+ * for them; read while shots are being fired, they need not add up to a
+ * single moment of the game.
+ * <p>
+ * The fleet is only read, when the game is created or printed, and its ships
+ * are not shot: the game keeps their state itself. Once the game has started,
+ * the fleet must not be changed. The fleet and its ships therefore do not
+ * follow the game: {@link IShip#stillFloating()}, the hit state of their cells
+ * and {@link IFleet#getFloatingShips()} stay as they were when the game was
+ * created, whatever has been fired since. Only the game itself, through its
+ * counters, {@link #getRemainingShips()} and the outcomes of its shots, tells
+ * how the fleet stands.
+ */
+public class ConcurrentGame implements IGame, FiredCells, ShotOutcomes {
+    private static final int NO_SHIP = -1;
+
+    /**
+     * Outcomes of {@link #shoot(int, int, IPosition)} other than a sunk ship
+     */
+    private static final int INVALID = -1;
+    private static final int REPEATED = -2;
+    private static final int MISSED = -3;
+    private static final int HIT = -4;
+
+    private final IFleet fleet;
+    private final BoardSpec spec;
+    private final IShip[] ships;
+    /**
+     * Per cell: the index of the ship occupying it, or NO_SHIP
+     */
+    private final int[] cellShips;
+    /**
+     * Per ship: the number of its cells not hit yet
+     */
+    private final AtomicIntegerArray unhitCells;
+    /**
+     * One bit per cell, set once a valid shot has claimed it
+     */
+    private final AtomicLongArray firedCells;
+    /**
+     * The cells fired at, in the order their shots were recorded
+     */
+    private final AtomicReferenceArray<IPosition> shots;
+    private final AtomicInteger shotCount = new AtomicInteger();
+    private final AtomicInteger floatingShips;
+
+    private final LongAdder countInvalidShots = new LongAdder();
+    private final LongAdder countRepeatedShots = new LongAdder();
+    private final LongAdder countHits = new LongAdder();
+    private final LongAdder countSinks = new LongAdder();
+
+    /**
+     * @param fleet the fleet to be fired at, already complete
+     */
+    public ConcurrentGame(IFleet fleet) {
+        assert fleet != null;
+
+        this.fleet = fleet;
+        this.spec = fleet.getBoardSpec();
+        this.ships = fleet.getShips().toArray(new IShip[0]);
+        this.cellShips = new int[spec.getCellCount()];
+        Arrays.fill(cellShips, NO_SHIP);
+        this.unhitCells = new AtomicIntegerArray(ships.length);
+        for (int i = 0; i < ships.length; i++) {
+            if (ships[i] instanceof Ship) {
+                Ship ship = (Ship) ships[i];
+                for (int c = 0; c < ship.cellCount(); c++)
+                    occupy(ship.cellRow(c), ship.cellColumn(c), i);
+            } else {
+                for (IPosition p : ships[i].getPositions())
+                    occupy(p.getRow(), p.getColumn(), i);
+            }
+        }
+        this.firedCells = new AtomicLongArray((spec.getCellCount() + 63) >>> 6);
+        this.shots = new AtomicReferenceArray<>(spec.getCellCount());
+        this.floatingShips = new AtomicInteger(ships.length);
+    }
+
+    private void occupy(int row, int column, int ship) {
+        if (spec.contains(row, column) && cellShips[spec.cellIndex(row, column)] == NO_SHIP) {
+            cellShips[spec.cellIndex(row, column)] = ship;
+            unhitCells.incrementAndGet(ship);
+        }
+    }
+
+    /**
+     * This operation fires a shot
+     *
+     * @return The ship sunk by the shot, or null. The ship is the fleet's own,
+     * which the game does not shoot: it still answers
+     * {@link IShip#stillFloating()} as it did before the game
+     */
+    @Override
+    public IShip fire(IPosition pos) {
+        int ship = shoot(pos.getRow(), pos.getColumn(), pos);
+        return ship >= 0 ? ships[ship] : null;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.ShotOutcomes#fire(battleship.IPosition, byte[])
+     */
+    @Override
+    public IShip fire(IPosition pos, byte[] outcome) {
+        int ship = shoot(pos.getRow(), pos.getColumn(), pos);
+        outcome[0] = outcome(ship);
+        return ship >= 0 ? ships[ship] : null;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#fireVolley(int[], int[], byte[])
+     */
+    @Override
+    public void fireVolley(int[] rows, int[] cols, byte[] outcomes) {
+        assert rows.length == cols.length && outcomes.length >= rows.length;
+
+        for (int i = 0; i < rows.length; i++)
+            outcomes[i] = outcome(shoot(rows[i], cols[i], null));
+    }
+
+    private static byte outcome(int shot) {
+        switch (shot) {
+            case INVALID:
+                return SHOT_INVALID;
+            case REPEATED:
+                return SHOT_REPEATED;
+            case MISSED:
+                return SHOT_MISSED;
+            case HIT:
+                return SHOT_HIT;
+            default:
+                return SHOT_SUNK;
+        }
+    }
+
+    /**
+     * This operation fires a shot
+     *
+     * @param pos the position shot at, or null to build it if needed
+     * @return The index of the ship sunk by the shot, or one of the negative
+     * outcomes
+     */
+    private int shoot(int row, int column, IPosition pos) {
+        if (!spec.contains(row, column)) {
+            countInvalidShots.increment();
+            return INVALID;
+        }
+
+        int cell = spec.cellIndex(row, column);
+        int word = cell >>> 6;
+        long bit = 1L << cell;
+        long fired;
+        do {
+            fired = firedCells.get(word);
+            if ((fired & bit) != 0) {
+                countRepeatedShots.increment();
+                return REPEATED;
+            }
+        } while (!firedCells.compareAndSet(word, fired, fired | bit));
+
+        shots.set(shotCount.getAndIncrement(), pos != null ? pos : Positions.of(row, column));
+        int ship = cellShips[cell];
+        if (ship == NO_SHIP)
+            return MISSED;
+        countHits.increment();
+        if (unhitCells.decrementAndGet(ship) > 0)
+            return HIT;
+        floatingShips.decrementAndGet();
+        countSinks.increment();
+        return ship;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.FiredCells#isFired(int, int)
+     */
+    @Override
+    public boolean isFired(int row, int column) {
+        if (!spec.contains(row, column))
+            return false;
+        int cell = spec.cellIndex(row, column);
+        return (firedCells.get(cell >>> 6) & 1L << cell) != 0;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getShots()
+     */
+    @Override
+    public List<IPosition> getShots() {
+        int count = shotCount.get();
+        List<IPosition> fired = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // a shot being recorded right now may not be there yet
+            IPosition pos = shots.get(i);
+            if (pos != null)
+                fired.add(pos);
+        }
+        return Collections.unmodifiableList(fired);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getRepeatedShots()
+     */
+    @Override
+    public int getRepeatedShots() {
+        return countRepeatedShots.intValue();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getInvalidShots()
+     */
+    @Override
+    public int getInvalidShots() {
+        return countInvalidShots.intValue();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getHits()
+     */
+    @Override
+    public int getHits() {
+        return countHits.intValue();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getSunkShips()
+     */
+    @Override
+    public int getSunkShips() {
+        return countSinks.intValue();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getRemainingShips()
+     */
+    @Override
+    public int getRemainingShips() {
+        return floatingShips.get();
+    }
+
+    private static void print(BoardRenderer board) {
+        try {
+            board.writeTo(System.out);
+        } catch (IOException e) {
+            // PrintStream does not throw
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Prints the board showing valid shots that have been fired
+     */
+    @Override
+    public void printValidShots() {
+        // a renderer of its own, as other threads may be printing too
+        print(new BoardRenderer().render(fleet, this, BoardRenderer.SHOTS));
+    }
+
+    /**
+     * Prints the board showing the fleet
+     */
+    @Override
+    public void printFleet() {
+        print(new BoardRenderer().render(fleet, null, BoardRenderer.FLEET));
+    }
+}
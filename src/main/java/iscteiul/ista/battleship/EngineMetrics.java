@@ -0,0 +1,269 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Metrics of the game engine: how often {@link IGame#fire(IPosition)},
+ * {@link IFleet#addShip(IShip)} and {@link IFleet#shipAt(IPosition)} are
+ * called, the outcome of the shots, why ships are rejected, and the latency
+ * and allocation of the calls.
+ * <p>
+ * Metrics are gathered by wrapping a game or fleet with {@link #meter(IGame)}
+ * or {@link #meter(IFleet)}; games and fleets that are not wrapped pay nothing.
+ * Calls are counted with {@link LongAdder}s; one call in every
+ * {@code sampleInterval} is also timed and has its allocation measured, as
+ * reading the clock twice would cost more than the operations themselves. The
+ * metrics may be read at any time, with the getters or over JMX once
+ * {@link #register(String)}ed.
+ */
+public final class EngineMetrics implements EngineMetricsMXBean {
+    public static final int FIRE = 0;
+    public static final int ADD_SHIP = 1;
+    public static final int SHIP_AT = 2;
+    private static final String[] OPERATIONS = {"fire", "addShip", "shipAt"};
+
+    public static final int REJECTED_FLEET_FULL = 0;
+    public static final int REJECTED_OUT_OF_BOARD = 1;
+    public static final int REJECTED_COLLISION = 2;
+    private static final String[] REJECTIONS = {"fleetFull", "outOfBoard", "collision"};
+
+    private static final String[] OUTCOMES = {"invalid", "repeated", "missed", "hit", "sunk"};
+
+    public static final int DEFAULT_SAMPLE_INTERVAL = 1024;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean ALLOCATION_SUPPORTED = allocationSupported();
+
+    private final int sampleMask;
+    private final LongAdder[] calls = adders(OPERATIONS.length);
+    private final LongAdder[] outcomes = adders(OUTCOMES.length);
+    private final LongAdder[] rejections = adders(REJECTIONS.length);
+    private final LongAdder shipsFound = new LongAdder();
+    private final LatencyHistogram[] latencies = new LatencyHistogram[OPERATIONS.length];
+    private final LongAdder[] allocatedBytes = adders(OPERATIONS.length);
+
+    public EngineMetrics() {
+        this(DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * @param sampleInterval one call in this many is timed, a power of two; 1
+     *                       times every call
+     */
+    public EngineMetrics(int sampleInterval) throws IllegalArgumentException {
+        if (sampleInterval <= 0 || Integer.bitCount(sampleInterval) != 1)
+            throw new IllegalArgumentException("ERROR! invalid sample interval: " + sampleInterval);
+
+        this.sampleMask = sampleInterval - 1;
+        for (int op = 0; op < latencies.length; op++)
+            latencies[op] = new LatencyHistogram();
+    }
+
+    private static LongAdder[] adders(int n) {
+        LongAdder[] adders = new LongAdder[n];
+        for (int i = 0; i < n; i++)
+            adders[i] = new LongAdder();
+        return adders;
+    }
+
+    private static boolean allocationSupported() {
+        if (!(THREADS instanceof com.sun.management.ThreadMXBean))
+            return false;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+        return threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled();
+    }
+
+    /**
+     * @return A game that records its shots in these metrics and plays the
+     * given one
+     */
+    public IGame meter(IGame game) {
+        return new MeteredGame(game, this);
+    }
+
+    /**
+     * @return A fleet that records its calls in these metrics and delegates
+     * them to the given one
+     */
+    public IFleet meter(IFleet fleet) {
+        return new MeteredFleet(fleet, this);
+    }
+
+    int sampleMask() {
+        return sampleMask;
+    }
+
+    /**
+     * @return The bytes allocated so far by the current thread, or 0 if the
+     * runtime cannot tell
+     */
+    static long allocatedBytes() {
+        return ALLOCATION_SUPPORTED ? ((com.sun.management.ThreadMXBean) THREADS).getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    void count(int operation) {
+        calls[operation].increment();
+    }
+
+    void countOutcome(byte outcome) {
+        outcomes[outcome].increment();
+    }
+
+    void countRejection(int reason) {
+        rejections[reason].increment();
+    }
+
+    void countShipFound() {
+        shipsFound.increment();
+    }
+
+    /**
+     * This operation records a sampled call
+     *
+     * @param operation the operation called
+     * @param nanos     how long it took
+     * @param allocated the bytes the thread had allocated before the call
+     */
+    void sample(int operation, long nanos, long allocated) {
+        latencies[operation].record(nanos);
+        allocatedBytes[operation].add(allocatedBytes() - allocated);
+    }
+
+    /**
+     * @param operation one of FIRE, ADD_SHIP and SHIP_AT
+     * @return The number of calls of the operation
+     */
+    public long getCount(int operation) {
+        return calls[operation].sum();
+    }
+
+    /**
+     * @param outcome one of the IGame.SHOT_ outcomes
+     * @return The number of shots with that outcome
+     */
+    public long getShots(byte outcome) {
+        return outcomes[outcome].sum();
+    }
+
+    /**
+     * @param reason one of the REJECTED_ reasons
+     * @return The number of ships rejected for that reason
+     */
+    public long getRejections(int reason) {
+        return rejections[reason].sum();
+    }
+
+    /**
+     * @param operation one of FIRE, ADD_SHIP and SHIP_AT
+     * @return The latencies of the sampled calls of the operation
+     */
+    public LatencyHistogram getLatency(int operation) {
+        return latencies[operation];
+    }
+
+    /**
+     * @param operation one of FIRE, ADD_SHIP and SHIP_AT
+     * @return A snapshot of the metrics of the operation
+     */
+    public OperationStatistics getStatistics(int operation) {
+        long sampled = latencies[operation].getCount();
+        double bytes = !ALLOCATION_SUPPORTED ? -1 : sampled == 0 ? 0 : (double) allocatedBytes[operation].sum() / sampled;
+        return new OperationStatistics(calls[operation].sum(), latencies[operation], bytes);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.EngineMetricsMXBean#getFire()
+     */
+    @Override
+    public OperationStatistics getFire() {
+        return getStatistics(FIRE);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.EngineMetricsMXBean#getAddShip()
+     */
+    @Override
+    public OperationStatistics getAddShip() {
+        return getStatistics(ADD_SHIP);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.EngineMetricsMXBean#getShipAt()
+     */
+    @Override
+    public OperationStatistics getShipAt() {
+        return getStatistics(SHIP_AT);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.EngineMetricsMXBean#getShotOutcomes()
+     */
+    @Override
+    public Map<String, Long> getShotOutcomes() {
+        Map<String, Long> shots = new LinkedHashMap<>();
+        for (int i = 0; i < OUTCOMES.length; i++)
+            shots.put(OUTCOMES[i], outcomes[i].sum());
+        return shots;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.EngineMetricsMXBean#getRejections()
+     */
+    @Override
+    public Map<String, Long> getRejections() {
+        Map<String, Long> rejected = new LinkedHashMap<>();
+        for (int i = 0; i < REJECTIONS.length; i++)
+            rejected.put(REJECTIONS[i], rejections[i].sum());
+        return rejected;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.EngineMetricsMXBean#getShipAtFound()
+     */
+    @Override
+    public long getShipAtFound() {
+        return shipsFound.sum();
+    }
+
+    /**
+     * This operation publishes the metrics in the platform MBean server
+     *
+     * @param name the name of these metrics, unique in the process
+     * @return The name the metrics are published under
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("iscteiul.ista.battleship:type=EngineMetrics,name="
+                + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    /**
+     * This operation withdraws metrics published by {@link #register(String)}
+     */
+    public static void unregister(ObjectName objectName) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    }
+}
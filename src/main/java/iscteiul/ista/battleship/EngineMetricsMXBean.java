@@ -0,0 +1,32 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link EngineMetrics}, as published over JMX
+ */
+public interface EngineMetricsMXBean {
+    OperationStatistics getFire();
+
+    OperationStatistics getAddShip();
+
+    OperationStatistics getShipAt();
+
+    /**
+     * @return The number of shots of each outcome, by name
+     */
+    Map<String, Long> getShotOutcomes();
+
+    /**
+     * @return The number of ships rejected for each reason, by name
+     */
+    Map<String, Long> getRejections();
+
+    /**
+     * @return The number of shipAt calls that found a ship
+     */
+    long getShipAtFound();
+}
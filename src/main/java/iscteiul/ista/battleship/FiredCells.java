@@ -0,0 +1,16 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+/**
+ * A game that tells, in constant time, whether a cell has been fired at, so
+ * that a part of its board can be drawn without going through every shot
+ */
+interface FiredCells {
+    /**
+     * @return true if a valid shot has been fired at the given cell; false for
+     * a cell outside the board, which no valid shot reaches
+     */
+    boolean isFired(int row, int column);
+}
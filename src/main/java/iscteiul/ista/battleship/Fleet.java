@@ -4,9 +4,15 @@
 package iscteiul.ista.battleship;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 public class Fleet implements IFleet {
+    /**
+     * The categories the status of a fleet lists the ships of, in order
+     */
+    static final String[] STATUS_CATEGORIES = {"Galeao", "Fragata", "Nau", "Caravela", "Barca"};
+
     /**
      * This operation prints all the given ships
      *
@@ -19,10 +25,106 @@ public class Fleet implements IFleet {
 
     // -----------------------------------------------------
 
+    private final BoardSpec spec;
     private List<IShip> ships;
+    /**
+     * Ships owned by this fleet that are still floating; owned ships report
+     * their own sinking, see {@link Ship#claim(Fleet)}
+     */
+    private int floatingOwnedShips;
+    /**
+     * Ships that do not report to this fleet when they sink, and whose state
+     * must therefore be asked for
+     */
+    private List<IShip> unownedShips;
+    /**
+     * Forbidden halo: the cells of every {@link Ship} of the fleet plus their
+     * 8-neighbourhood, where no other ship may be placed
+     */
+    private BitSet halo;
+    /**
+     * Set while the halo is shared with a fork, which must then be copied
+     * before it is changed
+     */
+    private boolean haloShared;
+    /**
+     * Ships of other {@link IShip} implementations, whose own notion of being
+     * too close to another ship must be asked for
+     */
+    private List<IShip> otherShips;
 
     public Fleet() {
+        this(BoardSpec.DEFAULT);
+    }
+
+    /**
+     * @param spec The board and fleet dimensions
+     */
+    public Fleet(BoardSpec spec) {
+        assert spec != null;
+
+        this.spec = spec;
         ships = new ArrayList<>();
+        unownedShips = new ArrayList<>();
+        halo = new BitSet(spec.getCellCount());
+        otherShips = new ArrayList<>();
+    }
+
+    /**
+     * Builds a fork of a fleet; see {@link #fork()}
+     *
+     * @param original A fleet made of {@link Ship}s only
+     */
+    protected Fleet(Fleet original) {
+        spec = original.spec;
+        ships = new ArrayList<>(original.ships.size());
+        unownedShips = new ArrayList<>();
+        otherShips = new ArrayList<>();
+        halo = original.halo;
+        haloShared = true;
+        original.haloShared = true;
+        for (int i = 0; i < original.ships.size(); i++) {
+            Ship ship = ((Ship) original.ships.get(i)).fork();
+            ships.add(ship);
+            ship.claim(this);
+            if (ship.stillFloating())
+                floatingOwnedShips++;
+        }
+    }
+
+    /**
+     * This operation copies the fleet, so that each copy may be shot, or have
+     * ships added, without the other one seeing it. The ships are copied, but
+     * share their placement with the original ones; the forbidden halo is only
+     * copied when either fleet next adds a ship. Forking takes a time
+     * proportional to the number of ships
+     *
+     * @return An independent copy of the fleet
+     * @throws UnsupportedOperationException if the fleet holds ships of another
+     *                                       {@link IShip} implementation
+     */
+    public Fleet fork() throws UnsupportedOperationException {
+        checkForkable();
+        return new Fleet(this);
+    }
+
+    /**
+     * @throws UnsupportedOperationException if the fleet holds ships other than
+     *                                       {@link Ship}s
+     */
+    protected void checkForkable() throws UnsupportedOperationException {
+        if (!otherShips.isEmpty())
+            throw new UnsupportedOperationException("ERROR! only fleets of the game's own ships can be forked");
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#getBoardSpec()
+     */
+    @Override
+    public BoardSpec getBoardSpec() {
+        return spec;
     }
 
     @Override
@@ -38,13 +140,42 @@ public class Fleet implements IFleet {
     @Override
     public boolean addShip(IShip s) {
         boolean result = false;
-        if ((ships.size() <= FLEET_SIZE) && (isInsideBoard(s)) && (!colisionRisk(s))) {
+        if ((ships.size() <= spec.getFleetSize()) && (isInsideBoard(spec, s)) && (!colisionRisk(s))) {
             ships.add(s);
+            if (s instanceof Ship)
+                addToHalo((Ship) s);
+            else
+                otherShips.add(s);
+            if (s instanceof Ship && ((Ship) s).claim(this)) {
+                if (s.stillFloating())
+                    floatingOwnedShips++;
+            } else {
+                unownedShips.add(s);
+            }
             result = true;
         }
         return result;
     }
 
+    /**
+     * This operation removes every ship from the fleet, leaving it as if it had
+     * just been created, so that it can be filled again
+     */
+    public void clear() {
+        for (int i = 0; i < ships.size(); i++)
+            if (ships.get(i) instanceof Ship)
+                ((Ship) ships.get(i)).release(this);
+        ships.clear();
+        unownedShips.clear();
+        otherShips.clear();
+        if (haloShared)
+            halo = new BitSet(spec.getCellCount());
+        else
+            halo.clear();
+        haloShared = false;
+        floatingOwnedShips = 0;
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -75,6 +206,27 @@ public class Fleet implements IFleet {
         return floatingShips;
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#countFloatingShips()
+     */
+    @Override
+    public int countFloatingShips() {
+        int floating = floatingOwnedShips;
+        for (int i = 0; i < unownedShips.size(); i++)
+            if (unownedShips.get(i).stillFloating())
+                floating++;
+        return floating;
+    }
+
+    /**
+     * This operation is called by an owned ship when its last position is hit
+     */
+    void shipSunk() {
+        floatingOwnedShips--;
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -88,19 +240,70 @@ public class Fleet implements IFleet {
         return null;
     }
 
-    private boolean isInsideBoard(IShip s) {
-        return (s.getLeftMostPos() >= 0 && s.getRightMostPos() <= BOARD_SIZE - 1 && s.getTopMostPos() >= 0
-                && s.getBottomMostPos() <= BOARD_SIZE - 1);
+    /**
+     * @return true if every cell of the ship lies on the board
+     */
+    static boolean isInsideBoard(BoardSpec spec, IShip s) {
+        if (s instanceof Ship)
+            return ((Ship) s).liesWithin(spec.getBoardSize());
+        int last = spec.getBoardSize() - 1;
+        return (s.getLeftMostPos() >= 0 && s.getRightMostPos() <= last && s.getTopMostPos() >= 0
+                && s.getBottomMostPos() <= last);
     }
 
     private boolean colisionRisk(IShip s) {
-        for (int i = 0; i < ships.size(); i++) {
-            if (ships.get(i).tooCloseTo(s))
+        if (s instanceof Ship) {
+            Ship ship = (Ship) s;
+            for (int i = 0; i < ship.cellCount(); i++)
+                if (inHalo(ship.cellRow(i), ship.cellColumn(i)))
+                    return true;
+        } else {
+            List<IPosition> positions = s.getPositions();
+            for (int i = 0; i < positions.size(); i++)
+                if (inHalo(positions.get(i).getRow(), positions.get(i).getColumn()))
+                    return true;
+        }
+        for (int i = 0; i < otherShips.size(); i++) {
+            if (otherShips.get(i).tooCloseTo(s))
                 return true;
         }
         return false;
     }
 
+    private boolean inHalo(int row, int column) {
+        return spec.contains(row, column) && halo.get(spec.cellIndex(row, column));
+    }
+
+    /**
+     * @return true if the given cell is occupied by, or next to, one of the
+     * {@link Ship}s of the fleet
+     */
+    boolean isForbidden(int row, int column) {
+        return halo.get(spec.cellIndex(row, column));
+    }
+
+    /**
+     * This operation marks the cells of a ship, and those around them, as
+     * forbidden for the ships still to come
+     *
+     * @param s The ship that has just been added
+     */
+    private void addToHalo(Ship s) {
+        if (haloShared) {
+            halo = (BitSet) halo.clone();
+            haloShared = false;
+        }
+        int last = spec.getBoardSize() - 1;
+        for (int i = 0; i < s.cellCount(); i++) {
+            int top = Math.max(s.cellRow(i) - 1, 0);
+            int bottom = Math.min(s.cellRow(i) + 1, last);
+            int left = Math.max(s.cellColumn(i) - 1, 0);
+            int right = Math.min(s.cellColumn(i) + 1, last);
+            for (int r = top; r <= bottom; r++)
+                halo.set(spec.cellIndex(r, left), spec.cellIndex(r, right) + 1);
+        }
+    }
+
 
     /**
      * This operation shows the state of a fleet
@@ -108,11 +311,8 @@ public class Fleet implements IFleet {
     public void printStatus() {
         printAllShips();
         printFloatingShips();
-        printShipsByCategory("Galeao");
-        printShipsByCategory("Fragata");
-        printShipsByCategory("Nau");
-        printShipsByCategory("Caravela");
-        printShipsByCategory("Barca");
+        for (String category : STATUS_CATEGORIES)
+            printShipsByCategory(category);
     }
 
     /**
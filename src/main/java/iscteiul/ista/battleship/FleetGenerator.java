@@ -0,0 +1,196 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds random, valid fleets following the placement rules of {@link Fleet}.
+ * <p>
+ * Generators are seedable: two generators created with the same seed, board
+ * and composition produce the same sequence of fleets. A generator is not
+ * thread-safe; concurrent users should each have their own.
+ */
+public class FleetGenerator implements PlacementStrategy {
+    /**
+     * The standard fleet: one galleon, one frigate, two carracks, three caravels
+     * and four barges, biggest ships first
+     */
+    public static final String[] STANDARD_COMPOSITION = {"galeao", "fragata", "nau", "nau", "caravela",
+            "caravela", "caravela", "barca", "barca", "barca", "barca"};
+
+    /**
+     * Failed placements of a single ship after which the fleet is started over
+     */
+    private static final int MAX_ATTEMPTS_PER_SHIP = 200;
+    /**
+     * Fleets started over after which the composition is deemed not to fit
+     */
+    private static final int MAX_RESTARTS = 1000;
+
+    private static final Compass[] BEARINGS = {Compass.NORTH, Compass.SOUTH, Compass.EAST, Compass.WEST};
+
+    private final BoardSpec spec;
+    private final String[] composition;
+    /**
+     * The kind of each ship of the composition, and its shape per bearing
+     */
+    private final int[] kinds;
+    private final ShipShape[][] shapes;
+    /**
+     * The ships of the fleet being filled, one per kind of the composition,
+     * moved about rather than built anew at each placement
+     */
+    private final Ship[] spares;
+    private final SplitMix64 random;
+
+    /**
+     * @param seed the seed of the random sequence
+     */
+    public FleetGenerator(long seed) {
+        this(BoardSpec.DEFAULT, STANDARD_COMPOSITION, seed);
+    }
+
+    /**
+     * @param spec        the board the fleets are built for
+     * @param composition the kinds of the ships of each fleet, as accepted by
+     *                    {@link Ship#buildShip(String, Compass, IPosition)}
+     * @param seed        the seed of the random sequence
+     */
+    public FleetGenerator(BoardSpec spec, String[] composition, long seed) throws IllegalArgumentException {
+        assert spec != null;
+        assert composition != null;
+
+        if (composition.length > spec.getFleetSize() + 1)
+            throw new IllegalArgumentException("ERROR! composition larger than the fleet size");
+
+        this.spec = spec;
+        this.composition = composition.clone();
+        this.kinds = new int[composition.length];
+        this.shapes = new ShipShape[composition.length][BEARINGS.length];
+        for (int k = 0; k < composition.length; k++) {
+            kinds[k] = Ship.kindOf(composition[k]);
+            if (kinds[k] < 0)
+                throw new IllegalArgumentException("ERROR! unknown ship kind: " + composition[k]);
+            for (int b = 0; b < BEARINGS.length; b++)
+                shapes[k][b] = ShipShape.of(kinds[k], BEARINGS[b]);
+        }
+        this.spares = new Ship[composition.length];
+        this.random = new SplitMix64(seed);
+    }
+
+    /**
+     * This operation restarts the random sequence
+     *
+     * @param seed the new seed
+     */
+    public void reseed(long seed) {
+        random.reseed(seed);
+    }
+
+    /**
+     * @return A new random fleet
+     */
+    public Fleet generate() {
+        Fleet fleet = new Fleet(spec);
+        fill(fleet);
+        return fleet;
+    }
+
+    /**
+     * This operation empties the given fleet and fills it with a random
+     * placement of the composition. Ships the fleet already holds, in the order
+     * and of the kinds of the composition, as left by a previous fill, are moved
+     * to their new places instead of being built again, so that refilling a
+     * fleet allocates nothing
+     *
+     * @param fleet The fleet to be filled; it must have been built for the same
+     *              board as the generator
+     * @throws IllegalStateException if the composition does not seem to fit on
+     *                               the board
+     */
+    public void fill(Fleet fleet) throws IllegalStateException {
+        assert spec.equals(fleet.getBoardSpec());
+
+        List<IShip> ships = fleet.getShips();
+        for (int k = 0; k < composition.length; k++)
+            spares[k] = k < ships.size() && ships.get(k) instanceof Ship
+                    && ((Ship) ships.get(k)).getKind() == kinds[k] ? (Ship) ships.get(k) : null;
+        try {
+            for (int restart = 0; restart < MAX_RESTARTS; restart++) {
+                fleet.clear();
+                if (tryFill(fleet))
+                    return;
+            }
+        } finally {
+            // the generator does not keep the ships of a fleet it is done with
+            Arrays.fill(spares, null);
+        }
+        throw new IllegalStateException("ERROR! could not place the fleet on a " + spec + " board");
+    }
+
+    /**
+     * This operation fills the given fleet with the placement the generator
+     * makes when reseeded with the given seed
+     *
+     * @see battleship.PlacementStrategy#place(battleship.Fleet, long)
+     */
+    @Override
+    public void place(Fleet fleet, long seed) throws IllegalStateException {
+        reseed(seed);
+        fill(fleet);
+    }
+
+    /**
+     * This operation refills every given fleet, in order
+     *
+     * @param fleets The fleets to be filled
+     */
+    public void fill(Fleet[] fleets) {
+        for (Fleet fleet : fleets)
+            fill(fleet);
+    }
+
+    private boolean tryFill(Fleet fleet) {
+        int size = spec.getBoardSize();
+        for (int k = 0; k < composition.length; k++) {
+            int attempts = 0;
+            boolean placed = false;
+            while (!placed && attempts++ < MAX_ATTEMPTS_PER_SHIP) {
+                int b = random.nextInt(BEARINGS.length);
+                int row = random.nextInt(size);
+                int column = random.nextInt(size);
+                // ships are only built, and checked again by the fleet, once they fit
+                if (fits(fleet, shapes[k][b], row, column))
+                    placed = fleet.addShip(ship(k, BEARINGS[b], Positions.of(row, column)));
+            }
+            if (!placed)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return The ship of the k-th kind of the composition, laid out at the
+     * given place: the spare one if there is one, a new one otherwise
+     */
+    private Ship ship(int k, Compass bearing, IPosition pos) {
+        if (spares[k] == null)
+            spares[k] = Ship.buildShip(kinds[k], bearing, pos);
+        else
+            spares[k].moveTo(bearing, pos);
+        return spares[k];
+    }
+
+    private boolean fits(Fleet fleet, ShipShape shape, int row, int column) {
+        if (!spec.contains(row + shape.getTop(), column + shape.getLeft())
+                || !spec.contains(row + shape.getBottom(), column + shape.getRight()))
+            return false;
+        for (int i = 0; i < shape.size(); i++)
+            if (fleet.isForbidden(row + shape.rowOffset(i), column + shape.columnOffset(i)))
+                return false;
+        return true;
+    }
+}
@@ -16,13 +16,9 @@ public class Frigate extends Ship {
         switch (bearing) {
             case NORTH:
             case SOUTH:
-                for (int r = 0; r < SIZE; r++)
-                    getPositions().add(new Position(pos.getRow() + r, pos.getColumn()));
-                break;
             case EAST:
             case WEST:
-                for (int c = 0; c < SIZE; c++)
-                    getPositions().add(new Position(pos.getRow(), pos.getColumn() + c));
+                setShape(ShipShape.of(ShipShape.FRAGATA, bearing));
                 break;
             default:
                 throw new IllegalArgumentException("ERROR! invalid bearing for thr frigate");
@@ -3,31 +3,164 @@
  */
 package iscteiul.ista.battleship;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 /**
  * @author fba
  *
  */
-public class Game implements IGame {
+public class Game implements IGame, FiredCells, ShotOutcomes {
     private IFleet fleet;
+    private BoardSpec spec;
     private List<IPosition> shots;
+    /**
+     * One bit per board cell, set once a valid shot has been fired at it
+     */
+    private BitSet firedCells;
+    /**
+     * Set while the shots and fired cells are shared with a fork, which must
+     * then be copied before they are changed
+     */
+    private boolean shotsShared;
+    /**
+     * Draws the board when printed, built the first time it is
+     */
+    private BoardRenderer renderer;
 
-    private Integer countInvalidShots;
-    private Integer countRepeatedShots;
-    private Integer countHits;
-    private Integer countSinks;
+    private int countInvalidShots;
+    private int countRepeatedShots;
+    private int countHits;
+    private int countSinks;
 
 
     /**
      * @param fleet
      */
     public Game(IFleet fleet) {
+        this(fleet, fleet.getBoardSpec());
+    }
+
+    /**
+     * @param fleet
+     * @param spec  the board the shots are fired at
+     */
+    public Game(IFleet fleet, BoardSpec spec) {
+        assert spec != null;
+
+        this.spec = spec;
         shots = new ArrayList<>();
+        firedCells = new BitSet(spec.getCellCount());
         countInvalidShots = 0;
         countRepeatedShots = 0;
+        countHits = 0;
+        countSinks = 0;
+        this.fleet = fleet;
+    }
+
+    /**
+     * Builds a fork of a game; see {@link #fork()}
+     */
+    private Game(Game original, IFleet fleet) {
         this.fleet = fleet;
+        spec = original.spec;
+        shots = original.shots;
+        firedCells = original.firedCells;
+        shotsShared = true;
+        original.shotsShared = true;
+        countInvalidShots = original.countInvalidShots;
+        countRepeatedShots = original.countRepeatedShots;
+        countHits = original.countHits;
+        countSinks = original.countSinks;
+    }
+
+    /**
+     * This operation copies the game and its fleet, so that each copy may be
+     * played on without the other one seeing it. The fleet is forked (see
+     * {@link Fleet#fork()}), and the shots fired so far are only copied when
+     * either game next fires a valid shot; a list returned by
+     * {@link #getShots()} before the fork may then no longer follow the game.
+     * Forking takes a time proportional to the number of ships
+     *
+     * @return An independent copy of the game
+     * @throws UnsupportedOperationException if the game is not played over a
+     *                                       {@link Fleet} of the game's own ships
+     */
+    public Game fork() throws UnsupportedOperationException {
+        if (!(fleet instanceof Fleet))
+            throw new UnsupportedOperationException("ERROR! only games over a Fleet can be forked");
+        return new Game(this, ((Fleet) fleet).fork());
+    }
+
+    private void unshareShots() {
+        if (shotsShared) {
+            shots = new ArrayList<>(shots);
+            firedCells = (BitSet) firedCells.clone();
+            shotsShared = false;
+        }
+    }
+
+    /**
+     * This operation forgets every shot fired so far, so that the game can be
+     * played again over its fleet (once the fleet itself has been refilled)
+     */
+    void reset() {
+        if (shotsShared) {
+            shots = new ArrayList<>();
+            firedCells = new BitSet(spec.getCellCount());
+            shotsShared = false;
+        } else {
+            shots.clear();
+            firedCells.clear();
+        }
+        countInvalidShots = 0;
+        countRepeatedShots = 0;
+        countHits = 0;
+        countSinks = 0;
+    }
+
+    /**
+     * @return The fleet the game is played against
+     */
+    IFleet getFleet() {
+        return fleet;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.FiredCells#isFired(int, int)
+     */
+    @Override
+    public boolean isFired(int row, int column) {
+        return spec.contains(row, column) && firedCells.get(spec.cellIndex(row, column));
+    }
+
+    /**
+     * This operation marks a cell as fired at, without shooting the fleet, while
+     * the game is being restored
+     */
+    void markFired(int row, int column) {
+        assert spec.contains(row, column);
+
+        if (!firedCells.get(spec.cellIndex(row, column))) {
+            unshareShots();
+            firedCells.set(spec.cellIndex(row, column));
+            shots.add(Positions.of(row, column));
+        }
+    }
+
+    /**
+     * This operation sets the shot counters of a game being restored
+     */
+    void setCounters(int invalid, int repeated, int hits, int sinks) {
+        countInvalidShots = invalid;
+        countRepeatedShots = repeated;
+        countHits = hits;
+        countSinks = sinks;
     }
 
     /*
@@ -37,25 +170,94 @@ public class Game implements IGame {
      */
     @Override
     public IShip fire(IPosition pos) {
-        if (!validShot(pos))
+        return shoot(pos) == SHOT_SUNK ? fleet.shipAt(pos) : null;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.ShotOutcomes#fire(battleship.IPosition, byte[])
+     */
+    @Override
+    public IShip fire(IPosition pos, byte[] outcome) {
+        outcome[0] = shoot(pos);
+        return outcome[0] == SHOT_SUNK ? fleet.shipAt(pos) : null;
+    }
+
+    /**
+     * This operation fires a shot
+     *
+     * @return The outcome of the shot, one of the SHOT_ constants
+     */
+    private byte shoot(IPosition pos) {
+        if (!validShot(pos)) {
             countInvalidShots++;
-        else { // valid shot!
-            if (repeatedShot(pos))
-                countRepeatedShots++;
-            else {
+            return SHOT_INVALID;
+        }
+        if (repeatedShot(pos)) {
+            countRepeatedShots++;
+            return SHOT_REPEATED;
+        }
+        unshareShots();
+        firedCells.set(cellIndex(pos));
+        shots.add(pos);
+        IShip s = fleet.shipAt(pos);
+        if (s == null)
+            return SHOT_MISSED;
+        s.shoot(pos);
+        countHits++;
+        if (s.stillFloating())
+            return SHOT_HIT;
+        countSinks++;
+        return SHOT_SUNK;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#fireVolley(int[], int[], byte[])
+     */
+    @Override
+    public void fireVolley(int[] rows, int[] cols, byte[] outcomes) {
+        assert rows.length == cols.length && outcomes.length >= rows.length;
+
+        int invalid = 0;
+        int repeated = 0;
+        int hits = 0;
+        int sinks = 0;
+        for (int i = 0; i < rows.length; i++) {
+            int row = rows[i];
+            int column = cols[i];
+            if (!spec.contains(row, column)) {
+                invalid++;
+                outcomes[i] = SHOT_INVALID;
+            } else if (firedCells.get(spec.cellIndex(row, column))) {
+                repeated++;
+                outcomes[i] = SHOT_REPEATED;
+            } else {
+                unshareShots();
+                firedCells.set(spec.cellIndex(row, column));
+                IPosition pos = Positions.of(row, column);
                 shots.add(pos);
                 IShip s = fleet.shipAt(pos);
-                if (s != null) {
+                if (s == null) {
+                    outcomes[i] = SHOT_MISSED;
+                } else {
                     s.shoot(pos);
-                    countHits++;
-                    if (!s.stillFloating()) {
-                        countSinks++;
-                        return s;
+                    hits++;
+                    if (s.stillFloating()) {
+                        outcomes[i] = SHOT_HIT;
+                    } else {
+                        sinks++;
+                        outcomes[i] = SHOT_SUNK;
                     }
                 }
             }
         }
-        return null;
+        countInvalidShots += invalid;
+        countRepeatedShots += repeated;
+        countHits += hits;
+        countSinks += sinks;
     }
 
     /*
@@ -115,39 +317,39 @@ public class Game implements IGame {
      */
     @Override
     public int getRemainingShips() {
-        List<IShip> floatingShips = fleet.getFloatingShips();
-        return floatingShips.size();
+        return fleet.countFloatingShips();
     }
 
     private boolean validShot(IPosition pos) {
-        return (pos.getRow() >= 0 && pos.getRow() <= Fleet.BOARD_SIZE && pos.getColumn() >= 0
-                && pos.getColumn() <= Fleet.BOARD_SIZE);
+        return spec.contains(pos.getRow(), pos.getColumn());
     }
 
     private boolean repeatedShot(IPosition pos) {
-        for (int i = 0; i < shots.size(); i++)
-            if (shots.get(i).equals(pos))
-                return true;
-        return false;
+        return firedCells.get(cellIndex(pos));
     }
 
+    private int cellIndex(IPosition pos) {
+        return spec.cellIndex(pos.getRow(), pos.getColumn());
+    }
 
-    public void printBoard(List<IPosition> positions, Character marker) {
-        char[][] map = new char[Fleet.BOARD_SIZE][Fleet.BOARD_SIZE];
 
-        for (int r = 0; r < Fleet.BOARD_SIZE; r++)
-            for (int c = 0; c < Fleet.BOARD_SIZE; c++)
-                map[r][c] = '.';
+    public void printBoard(List<IPosition> positions, Character marker) {
+        print(renderer().render(spec, positions, marker));
+    }
 
-        for (IPosition pos : positions)
-            map[pos.getRow()][pos.getColumn()] = marker;
+    private BoardRenderer renderer() {
+        if (renderer == null)
+            renderer = new BoardRenderer();
+        return renderer;
+    }
 
-        for (int row = 0; row < Fleet.BOARD_SIZE; row++) {
-            for (int col = 0; col < Fleet.BOARD_SIZE; col++)
-                System.out.print(map[row][col]);
-            System.out.println();
+    private static void print(BoardRenderer board) {
+        try {
+            board.writeTo(System.out);
+        } catch (IOException e) {
+            // PrintStream does not throw
+            throw new UncheckedIOException(e);
         }
-
     }
 
 
@@ -155,7 +357,7 @@ public class Game implements IGame {
      * Prints the board showing valid shots that have been fired
      */
     public void printValidShots() {
-        printBoard(getShots(), 'X');
+        print(renderer().render(fleet, this, BoardRenderer.SHOTS));
     }
 
 
@@ -163,12 +365,7 @@ public class Game implements IGame {
      * Prints the board showing the fleet
      */
     public void printFleet() {
-        List<IPosition> shipPositions = new ArrayList<IPosition>();
-
-        for (IShip s : fleet.getShips())
-            shipPositions.addAll(s.getPositions());
-
-        printBoard(shipPositions, '#');
+        print(renderer().render(fleet, null, BoardRenderer.FLEET));
     }
 
 }
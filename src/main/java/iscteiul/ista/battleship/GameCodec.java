@@ -0,0 +1,232 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A compact binary snapshot of a fleet, or of a game and its fleet, written to
+ * and read from a {@link ByteBuffer} as a stream of bits.
+ * <p>
+ * A fleet is written as its board and fleet sizes and number of ships, then
+ * each ship as its kind (3 bits), bearing (3 bits), anchor row and column (as
+ * many bits as a coordinate of the board needs) and one bit per cell, set if
+ * the cell has been hit. A game adds one bit per cell of the board, set if it
+ * has been fired at, and its invalid, repeated, hit and sunk counters. Sizes
+ * and counters are Elias gamma codes, so small values take a few bits; the
+ * snapshot is padded to a whole byte. A standard 10x10 game takes about 40
+ * bytes, whatever the number of shots fired.
+ * <p>
+ * The order in which the shots were fired is not kept: a restored game lists
+ * them by row, then column. Only ships built by
+ * {@link Ship#buildShip(String, Compass, IPosition)} can be encoded.
+ * A codec keeps the bits not yet written or read between calls, so it must not
+ * be shared by threads; it may be reused for any number of snapshots.
+ */
+public class GameCodec {
+    static final int VERSION = 1;
+
+    private static final int KIND_BITS = 3;
+    private static final int BEARING_BITS = 3;
+
+    private final Compass[] bearings = Compass.values();
+    private ByteBuffer buffer;
+    /**
+     * Bits waiting to be written, or read, in the low {@code count} bits
+     */
+    private long bits;
+    private int count;
+
+    /**
+     * This operation writes a snapshot of a fleet
+     *
+     * @param fleet  the fleet, made of the game's own ships
+     * @param buffer the buffer, written from its position on
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    public void encodeFleet(IFleet fleet, ByteBuffer buffer) throws IllegalArgumentException {
+        start(buffer);
+        writeFleet(fleet);
+        finishWrite();
+    }
+
+    /**
+     * This operation writes a snapshot of a game and its fleet
+     *
+     * @param game   the game, played over a fleet of the game's own ships
+     * @param buffer the buffer, written from its position on
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    public void encodeGame(Game game, ByteBuffer buffer) throws IllegalArgumentException {
+        start(buffer);
+        IFleet fleet = game.getFleet();
+        writeFleet(fleet);
+        int size = fleet.getBoardSpec().getBoardSize();
+        for (int row = 0; row < size; row++)
+            for (int column = 0; column < size; column++)
+                write(game.isFired(row, column) ? 1 : 0, 1);
+        writeGamma(game.getInvalidShots());
+        writeGamma(game.getRepeatedShots());
+        writeGamma(game.getHits());
+        writeGamma(game.getSunkShips());
+        finishWrite();
+    }
+
+    /**
+     * This operation reads a snapshot of a fleet
+     *
+     * @param buffer the buffer, read from its position on
+     * @param fleet  an empty fleet, or one that may be cleared, for the board of
+     *               the snapshot; it gets the ships of the snapshot
+     * @throws IllegalStateException            if the snapshot is not valid
+     * @throws java.nio.BufferUnderflowException if the snapshot is truncated
+     */
+    public void decodeFleet(ByteBuffer buffer, Fleet fleet) throws IllegalArgumentException, IllegalStateException {
+        start(buffer);
+        readFleet(fleet);
+        finishRead();
+    }
+
+    /**
+     * This operation reads a snapshot of a game
+     *
+     * @param buffer the buffer, read from its position on
+     * @param fleet  an empty fleet, or one that may be cleared, for the board of
+     *               the snapshot; the returned game is played over it
+     * @return The game of the snapshot
+     * @throws IllegalStateException            if the snapshot is not valid
+     * @throws java.nio.BufferUnderflowException if the snapshot is truncated
+     */
+    public Game decodeGame(ByteBuffer buffer, Fleet fleet) throws IllegalArgumentException, IllegalStateException {
+        start(buffer);
+        readFleet(fleet);
+        Game game = new Game(fleet);
+        int size = fleet.getBoardSpec().getBoardSize();
+        for (int row = 0; row < size; row++)
+            for (int column = 0; column < size; column++)
+                if (read(1) != 0)
+                    game.markFired(row, column);
+        game.setCounters(readGamma(), readGamma(), readGamma(), readGamma());
+        finishRead();
+        return game;
+    }
+
+    private void writeFleet(IFleet fleet) throws IllegalArgumentException {
+        for (IShip s : fleet.getShips())
+            if (!(s instanceof Ship))
+                throw new IllegalArgumentException("ERROR! only the game's own ships can be encoded: " + s);
+
+        BoardSpec spec = fleet.getBoardSpec();
+        int width = coordinateBits(spec.getBoardSize());
+        write(VERSION, 8);
+        writeGamma(spec.getBoardSize());
+        writeGamma(spec.getFleetSize());
+        writeGamma(fleet.getShips().size());
+        for (IShip s : fleet.getShips()) {
+            Ship ship = (Ship) s;
+            write(ship.getKind(), KIND_BITS);
+            write(ship.getBearing().ordinal(), BEARING_BITS);
+            write(ship.getPosition().getRow(), width);
+            write(ship.getPosition().getColumn(), width);
+            write(ship.getHitMask(), ship.cellCount());
+        }
+    }
+
+    private void readFleet(Fleet fleet) throws IllegalArgumentException, IllegalStateException {
+        int version = read(8);
+        if (version != VERSION)
+            throw new IllegalStateException("ERROR! unknown snapshot version: " + version);
+        int boardSize = readGamma();
+        int fleetSize = readGamma();
+        if (fleet.getBoardSpec().getBoardSize() != boardSize || fleet.getBoardSpec().getFleetSize() != fleetSize)
+            throw new IllegalArgumentException("ERROR! the snapshot is of a " + boardSize + "x" + boardSize
+                    + " board, with " + fleetSize + " ships");
+
+        fleet.clear();
+        int width = coordinateBits(boardSize);
+        int ships = readGamma();
+        for (int i = 0; i < ships; i++) {
+            int kind = read(KIND_BITS);
+            int bearing = read(BEARING_BITS);
+            Ship ship = bearing < bearings.length
+                    ? Ship.buildShip(kind, bearings[bearing], Positions.of(read(width), read(width)))
+                    : null;
+            if (ship == null || !fleet.addShip(ship))
+                throw new IllegalStateException("ERROR! ship " + i + " of the snapshot cannot be placed");
+            ship.hitCells(read(ship.cellCount()));
+        }
+    }
+
+    private static int coordinateBits(int boardSize) {
+        return 32 - Integer.numberOfLeadingZeros(boardSize - 1);
+    }
+
+    private void start(ByteBuffer buffer) {
+        assert buffer != null;
+
+        this.buffer = buffer;
+        bits = 0;
+        count = 0;
+    }
+
+    /**
+     * This operation writes the low {@code width} bits of a value, at most 32
+     */
+    private void write(int value, int width) {
+        bits = bits << width | (value & ((1L << width) - 1));
+        count += width;
+        while (count >= 8) {
+            count -= 8;
+            buffer.put((byte) (bits >>> count));
+        }
+    }
+
+    /**
+     * This operation writes a non-negative value as the Elias gamma code of the
+     * value plus one: as many zeros as it has bits after the first, then its bits
+     */
+    private void writeGamma(int value) {
+        assert value >= 0;
+
+        long code = value + 1L;
+        int length = 64 - Long.numberOfLeadingZeros(code);
+        write(0, length - 1);
+        write((int) code, length);
+    }
+
+    private void finishWrite() {
+        if (count > 0)
+            write(0, 8 - count);
+        buffer = null;
+    }
+
+    /**
+     * @return The next {@code width} bits, at most 32
+     */
+    private int read(int width) {
+        while (count < width) {
+            bits = bits << 8 | (buffer.get() & 0xFF);
+            count += 8;
+        }
+        count -= width;
+        return (int) (bits >>> count & ((1L << width) - 1));
+    }
+
+    private int readGamma() throws IllegalStateException {
+        int zeros = 0;
+        while (read(1) == 0)
+            if (++zeros > 31)
+                throw new IllegalStateException("ERROR! invalid number in the snapshot");
+        long code = 1L << zeros | (zeros > 0 ? read(zeros) & 0xFFFFFFFFL : 0);
+        if (code - 1 > Integer.MAX_VALUE)
+            throw new IllegalStateException("ERROR! invalid number in the snapshot");
+        return (int) (code - 1);
+    }
+
+    private void finishRead() {
+        // the padding of the last byte is dropped
+        count = 0;
+        buffer = null;
+    }
+}
@@ -0,0 +1,303 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An append-only binary record of games: the placement of each fleet, then
+ * every shot fired at it and its outcome.
+ * <p>
+ * The journal is a directory of segment files of a fixed size, each mapped in
+ * memory while it is being written. Every record takes {@link #RECORD_SIZE}
+ * bytes:
+ * <pre>
+ *  0  type           GAME, SHIP or SHOT
+ *  1  kind / outcome ship kind, or the IGame.SHOT_ outcome of a shot
+ *  2  bearing        Compass ordinal of a ship
+ *  3  (unused)
+ *  4  row            or board size, for GAME
+ *  8  column         or fleet size, for GAME
+ * 12  sequence       number of the record in the journal, from 0
+ * </pre>
+ * The first record slot of a segment holds its header. A zero type marks the
+ * end of the data of a segment, since segments are zero-filled, and a segment
+ * without a header the end of the journal.
+ * <p>
+ * Records are packed in a small heap batch and copied to the mapped segment a
+ * batch at a time, with no system call; they reach the disk when the operating
+ * system writes the pages back or {@link #flush()} forces them. Records still
+ * in the batch are not seen by readers until the journal is flushed or closed.
+ * While a segment is being written, a background thread creates the next one
+ * and touches its pages, so that the writer does not wait for the page faults
+ * of a fresh file; a journal thus usually ends with an empty segment. If the
+ * journal stopped while that segment was being created, it may be shorter than
+ * the others, or empty: having no header, it holds no record, and is extended
+ * when the journal is opened again.
+ * A journal is not thread-safe; see {@link GameReplayer} to read it back.
+ */
+public class GameJournal implements Closeable {
+    public static final int RECORD_SIZE = 16;
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 20;
+
+    /**
+     * Records gathered before being copied to the segment
+     */
+    private static final int BATCH_RECORDS = 256;
+    private static final int PAGE_SIZE = 4096;
+
+    static final byte HEADER = 0x7F;
+    static final byte GAME = 1;
+    static final byte SHIP = 2;
+    static final byte SHOT = 3;
+
+    static final int MAGIC = 0x42534A4E;
+    static final byte VERSION = 1;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ExecutorService preparer;
+    private MappedByteBuffer segment;
+    private int segmentIndex;
+    /**
+     * The segment after the current one, as it is being prepared
+     */
+    private Future<MappedByteBuffer> next;
+    private final ByteBuffer batch = ByteBuffer.allocate(BATCH_RECORDS * RECORD_SIZE);
+    /**
+     * Number of the next record to be appended, and of the next one to reach
+     * the segment
+     */
+    private int sequence;
+    private int written;
+
+    /**
+     * @param directory the directory of the journal, created if needed
+     */
+    public GameJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens a journal for appending; the records of an existing journal are
+     * kept and the new ones follow them
+     *
+     * @param directory   the directory of the journal, created if needed
+     * @param segmentSize the size of new segment files, a multiple of
+     *                    {@link #RECORD_SIZE} with room for a header and a
+     *                    record; existing segments must have the same size
+     */
+    public GameJournal(Path directory, int segmentSize) throws IOException, IllegalArgumentException {
+        assert directory != null;
+
+        if (segmentSize < 2 * RECORD_SIZE || segmentSize % RECORD_SIZE != 0)
+            throw new IllegalArgumentException("ERROR! invalid segment size: " + segmentSize);
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+
+        // continue after the last record of the last segment with a header
+        int last = 0;
+        while (Files.exists(segmentPath(directory, last + 1)))
+            last++;
+        MappedByteBuffer existing = map(last);
+        while (last > 0 && existing.get(0) != HEADER)
+            existing = map(--last);
+        if (existing.get(0) == HEADER) {
+            int position = RECORD_SIZE;
+            while (position < segmentSize && existing.get(position) != 0)
+                position += RECORD_SIZE;
+            sequence = position > RECORD_SIZE ? existing.getInt(position - RECORD_SIZE + 12) + 1
+                    : existing.getInt(8);
+            written = sequence;
+        }
+
+        preparer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "journal-preparer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        useSegment(last, existing);
+    }
+
+    static Path segmentPath(Path directory, int index) {
+        return directory.resolve(String.format("journal-%06d.seg", index));
+    }
+
+    /**
+     * @return true if the segment file holds no header, as a segment created
+     *         ahead and not used yet
+     */
+    static boolean isHeaderless(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer first = ByteBuffer.allocate(1);
+            return channel.read(first, 0) <= 0 || first.get(0) != HEADER;
+        }
+    }
+
+    private MappedByteBuffer map(int index) throws IOException {
+        Path path = segmentPath(directory, index);
+        // a short segment without a header is mapped, and so extended, as a new one
+        if (Files.exists(path) && Files.size(path) != segmentSize
+                && (Files.size(path) > segmentSize || !isHeaderless(path)))
+            throw new IllegalArgumentException("ERROR! segment " + path + " is not " + segmentSize + " bytes long");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    /**
+     * This operation maps a segment and writes to each of its pages, which are
+     * still zero, so that they are all in memory before it is used
+     */
+    private MappedByteBuffer prepare(int index) throws IOException {
+        MappedByteBuffer prepared = map(index);
+        for (int position = 0; position < segmentSize; position += PAGE_SIZE)
+            prepared.put(position, prepared.get(position));
+        return prepared;
+    }
+
+    /**
+     * This operation makes a segment the current one, writing its header if it
+     * has none, and starts preparing the following one
+     */
+    private void useSegment(int index, MappedByteBuffer mapped) {
+        segment = mapped;
+        segmentIndex = index;
+        if (segment.get(0) != HEADER) {
+            // header: magic, version, segment index and first sequence number
+            segment.put(0, HEADER);
+            segment.put(1, VERSION);
+            segment.putInt(4, MAGIC);
+            segment.putInt(8, written);
+            segment.putInt(12, index);
+        }
+        int position = RECORD_SIZE;
+        while (position < segmentSize && segment.get(position) != 0)
+            position += RECORD_SIZE;
+        segment.position(position);
+        next = preparer.submit(() -> prepare(index + 1));
+    }
+
+    private void nextSegment() throws IOException {
+        MappedByteBuffer prepared;
+        try {
+            prepared = next.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("ERROR! interrupted while waiting for segment " + (segmentIndex + 1), e);
+        } catch (ExecutionException e) {
+            throw new IOException("ERROR! segment " + (segmentIndex + 1) + " could not be prepared", e.getCause());
+        }
+        useSegment(segmentIndex + 1, prepared);
+    }
+
+    /**
+     * This operation starts a new game, recording its board and fleet
+     *
+     * @param fleet The fleet of the game, made of ships built by
+     *              {@link Ship#buildShip(String, Compass, IPosition)}
+     */
+    public void recordGame(IFleet fleet) throws IOException, IllegalArgumentException {
+        for (IShip s : fleet.getShips())
+            if (!(s instanceof Ship))
+                throw new IllegalArgumentException("ERROR! only the game's own ships can be journaled: " + s);
+
+        BoardSpec spec = fleet.getBoardSpec();
+        append(GAME, (byte) 0, (byte) 0, spec.getBoardSize(), spec.getFleetSize());
+        for (IShip s : fleet.getShips()) {
+            Ship ship = (Ship) s;
+            append(SHIP, (byte) ship.getKind(), (byte) ship.getBearing().ordinal(), ship.getPosition().getRow(),
+                    ship.getPosition().getColumn());
+        }
+    }
+
+    /**
+     * This operation records a shot of the current game
+     *
+     * @param row     the row of the shot
+     * @param column  the column of the shot
+     * @param outcome one of the IGame.SHOT_ outcomes
+     */
+    public void recordShot(int row, int column, byte outcome) throws IOException {
+        append(SHOT, outcome, (byte) 0, row, column);
+    }
+
+    private void append(byte type, byte a, byte b, int row, int column) throws IOException {
+        if (segment == null)
+            throw new IllegalStateException("ERROR! the journal has been closed");
+        if (!batch.hasRemaining())
+            drain();
+        // the record layout, as two big-endian longs
+        batch.putLong((long) type << 56 | (a & 0xFFL) << 48 | (b & 0xFFL) << 40 | (row & 0xFFFFFFFFL));
+        batch.putLong((long) column << 32 | (sequence++ & 0xFFFFFFFFL));
+    }
+
+    /**
+     * This operation copies the batch to the segments, moving on to the next
+     * one as they fill up
+     */
+    private void drain() throws IOException {
+        batch.flip();
+        while (batch.hasRemaining()) {
+            if (!segment.hasRemaining())
+                nextSegment();
+            int records = Math.min(batch.remaining(), segment.remaining()) / RECORD_SIZE;
+            int limit = batch.limit();
+            batch.limit(batch.position() + records * RECORD_SIZE);
+            segment.put(batch);
+            batch.limit(limit);
+            written += records;
+        }
+        batch.clear();
+    }
+
+    /**
+     * This operation forces the records appended so far to the disk
+     */
+    public void flush() throws IOException {
+        if (segment == null)
+            return;
+        drain();
+        segment.force();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() throws IOException {
+        if (segment == null)
+            return;
+        try {
+            flush();
+        } finally {
+            segment = null;
+            // a segment being created must be complete before the journal is reopened
+            next.cancel(false);
+            preparer.shutdown();
+            try {
+                preparer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
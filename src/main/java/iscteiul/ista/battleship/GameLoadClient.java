@@ -0,0 +1,207 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Drives many sessions against a {@link GameServer}, to measure how many it
+ * plays at once and how fast.
+ * <p>
+ * Each session places a random fleet, fires at every cell of the board in
+ * volleys of three and gives up; its script is sent at once and the replies
+ * are read until the server closes the connection. A session has succeeded
+ * if its replies end with the whole fleet sunk and the goodbye message.
+ */
+public class GameLoadClient {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final int NUMBER_SHOTS = 3;
+    private static final String SUNK_FLEET = "Restam 0 navios.";
+    private static final int REPLY_BUFFER_SIZE = 16384;
+
+    private final InetSocketAddress address;
+
+    /**
+     * @param address the address of the server
+     */
+    public GameLoadClient(InetSocketAddress address) {
+        assert address != null;
+
+        this.address = address;
+    }
+
+    /**
+     * The outcome of a load run
+     */
+    public static final class Report {
+        private final int sessions;
+        private final int succeeded;
+        private final long elapsedNanos;
+        private final long totalLatencyNanos;
+        private final long maxLatencyNanos;
+
+        Report(int sessions, int succeeded, long elapsedNanos, long totalLatencyNanos, long maxLatencyNanos) {
+            this.sessions = sessions;
+            this.succeeded = succeeded;
+            this.elapsedNanos = elapsedNanos;
+            this.totalLatencyNanos = totalLatencyNanos;
+            this.maxLatencyNanos = maxLatencyNanos;
+        }
+
+        public int getSessions() {
+            return sessions;
+        }
+
+        public int getSucceeded() {
+            return succeeded;
+        }
+
+        public int getFailed() {
+            return sessions - succeeded;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * @return The mean time from connecting to the end of a session
+         */
+        public double getMeanLatencyNanos() {
+            return sessions == 0 ? 0 : (double) totalLatencyNanos / sessions;
+        }
+
+        public long getMaxLatencyNanos() {
+            return maxLatencyNanos;
+        }
+
+        /**
+         * @return The number of sessions played per second
+         */
+        public double getThroughput() {
+            return elapsedNanos == 0 ? 0 : sessions * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d sessions, %d failed, %.0f sessions/s, latency mean %.2f ms max %.2f ms", sessions,
+                    getFailed(), getThroughput(), getMeanLatencyNanos() / 1e6, maxLatencyNanos / 1e6);
+        }
+    }
+
+    /**
+     * This operation plays a number of sessions, keeping a number of them open
+     * at the same time
+     *
+     * @param sessions    the number of sessions
+     * @param concurrency the number of sessions open at the same time
+     * @param seed        the seed of the fleets; session i places the fleet of
+     *                    seed + i
+     * @return The outcome of the run
+     */
+    public Report run(int sessions, int concurrency, long seed) throws InterruptedException {
+        assert sessions >= 0;
+        assert concurrency > 0;
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicLong totalLatency = new AtomicLong();
+        AtomicLong maxLatency = new AtomicLong();
+        int workers = Math.min(concurrency, sessions);
+        CountDownLatch done = new CountDownLatch(workers);
+        ExecutorService executor = GameServer.newSessionExecutor();
+        long start = System.nanoTime();
+        try {
+            for (int w = 0; w < workers; w++)
+                executor.execute(() -> {
+                    try {
+                        ByteBuffer reply = ByteBuffer.allocate(REPLY_BUFFER_SIZE);
+                        for (int i = next.getAndIncrement(); i < sessions; i = next.getAndIncrement()) {
+                            long begin = System.nanoTime();
+                            if (play(script(seed + i), reply))
+                                succeeded.incrementAndGet();
+                            long latency = System.nanoTime() - begin;
+                            totalLatency.addAndGet(latency);
+                            maxLatency.accumulateAndGet(latency, Math::max);
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            done.await();
+        } finally {
+            executor.shutdown();
+        }
+        return new Report(sessions, succeeded.get(), System.nanoTime() - start, totalLatency.get(), maxLatency.get());
+    }
+
+    /**
+     * @return The commands of a session: a random fleet, then every cell fired
+     * at, then giving up
+     */
+    static String script(long seed) {
+        StringBuilder script = new StringBuilder(1024).append("nova\n");
+        for (IShip s : new FleetGenerator(seed).generate().getShips()) {
+            Ship ship = (Ship) s;
+            script.append(Ship.KIND_NAMES[ship.getKind()]).append(' ').append(ship.getPosition().getRow()).append(' ')
+                    .append(ship.getPosition().getColumn()).append(' ').append(ship.getBearing().getDirection())
+                    .append('\n');
+        }
+        int size = BoardSpec.DEFAULT.getBoardSize();
+        int cells = BoardSpec.DEFAULT.getCellCount();
+        for (int first = 0; first < cells; first += NUMBER_SHOTS) {
+            script.append("rajada");
+            // the last volley fires again at the last cell
+            for (int i = first; i < first + NUMBER_SHOTS; i++) {
+                int cell = Math.min(i, cells - 1);
+                script.append(' ').append(cell / size).append(' ').append(cell % size);
+            }
+            script.append('\n');
+        }
+        return script.append("desisto\n").toString();
+    }
+
+    private boolean play(String script, ByteBuffer reply) {
+        reply.clear();
+        try (SocketChannel channel = SocketChannel.open(address)) {
+            ByteBuffer commands = ByteBuffer.wrap(script.getBytes(StandardCharsets.UTF_8));
+            while (commands.hasRemaining())
+                channel.write(commands);
+            while (channel.read(reply) >= 0)
+                if (!reply.hasRemaining())
+                    return false;
+        } catch (IOException e) {
+            return false;
+        }
+        String text = new String(reply.array(), 0, reply.position(), StandardCharsets.UTF_8);
+        return text.contains(SUNK_FLEET) && text.endsWith(GameSession.GOODBYE_MESSAGE + "\n");
+    }
+
+    /**
+     * Drives a server on this machine
+     *
+     * @param args the port, the number of sessions and the number of sessions
+     *             open at the same time
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : GameServer.DEFAULT_PORT;
+        int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+        GameLoadClient client = new GameLoadClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        LOGGER.info("{}", client.run(sessions, concurrency, 1));
+    }
+}
@@ -0,0 +1,198 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a {@link GameJournal} back and rebuilds its games.
+ * <p>
+ * The segments are mapped read-only and indexed once, when the replayer is
+ * created; records added to the journal afterwards are not seen. Replaying a
+ * game builds its fleet from the journal, then fires its shots in order and
+ * checks that each has the recorded outcome.
+ */
+public class GameReplayer {
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    /**
+     * Records of a segment, its header aside
+     */
+    private final int recordsPerSegment;
+    /**
+     * Per game: the record of its GAME entry, its number of ships and of shots
+     */
+    private int[] gameRecords = new int[16];
+    private int[] shipCounts = new int[16];
+    private int[] shotCounts = new int[16];
+    private int games;
+
+    /**
+     * @param directory the directory of the journal
+     */
+    public GameReplayer(Path directory) throws IOException, IllegalStateException {
+        int segmentSize = -1;
+        for (int index = 0; Files.exists(GameJournal.segmentPath(directory, index)); index++) {
+            Path path = GameJournal.segmentPath(directory, index);
+            long size = Files.size(path);
+            if (size != (segmentSize < 0 ? size : segmentSize) || size < 2 * GameJournal.RECORD_SIZE) {
+                // the last segment may have been left short while created ahead
+                if (!Files.exists(GameJournal.segmentPath(directory, index + 1)) && GameJournal.isHeaderless(path))
+                    break;
+                throw new IllegalStateException("ERROR! segment " + index + " has a different size");
+            }
+            segmentSize = (int) size;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                segments.add(channel.map(FileChannel.MapMode.READ_ONLY, 0, segmentSize));
+            }
+        }
+        recordsPerSegment = Math.max(segmentSize / GameJournal.RECORD_SIZE - 1, 1);
+        index();
+    }
+
+    private void index() throws IllegalStateException {
+        int expected = -1;
+        for (int s = 0; s < segments.size(); s++) {
+            MappedByteBuffer segment = segments.get(s);
+            // the journal creates its next segment ahead, without a header
+            if (segment.get(0) == 0 && segment.getInt(4) == 0)
+                return;
+            if (segment.get(0) != GameJournal.HEADER || segment.getInt(4) != GameJournal.MAGIC
+                    || segment.getInt(12) != s)
+                throw new IllegalStateException("ERROR! segment " + s + " is not a journal segment");
+            for (int slot = 0; slot < recordsPerSegment; slot++) {
+                int offset = (slot + 1) * GameJournal.RECORD_SIZE;
+                byte type = segment.get(offset);
+                if (type == 0)
+                    break;
+                int sequence = segment.getInt(offset + 12);
+                if (expected >= 0 && sequence != expected)
+                    throw new IllegalStateException("ERROR! journal record " + expected + " is missing");
+                expected = sequence + 1;
+
+                int record = s * recordsPerSegment + slot;
+                if (type == GameJournal.GAME) {
+                    if (games == gameRecords.length) {
+                        gameRecords = Arrays.copyOf(gameRecords, 2 * games);
+                        shipCounts = Arrays.copyOf(shipCounts, 2 * games);
+                        shotCounts = Arrays.copyOf(shotCounts, 2 * games);
+                    }
+                    gameRecords[games++] = record;
+                } else if (games == 0) {
+                    throw new IllegalStateException("ERROR! journal record " + sequence + " precedes any game");
+                } else if (type == GameJournal.SHIP) {
+                    if (shotCounts[games - 1] > 0)
+                        throw new IllegalStateException("ERROR! journal record " + sequence + " is out of place");
+                    shipCounts[games - 1]++;
+                } else if (type == GameJournal.SHOT) {
+                    shotCounts[games - 1]++;
+                } else {
+                    throw new IllegalStateException("ERROR! journal record " + sequence + " has an unknown type");
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The number of games in the journal
+     */
+    public int countGames() {
+        return games;
+    }
+
+    /**
+     * @param game the index of a game, from 0
+     * @return The number of shots recorded for that game
+     */
+    public int countShots(int game) {
+        checkGame(game);
+        return shotCounts[game];
+    }
+
+    /**
+     * @param game the index of a game, from 0
+     * @return The board of that game
+     */
+    public BoardSpec getBoardSpec(int game) {
+        checkGame(game);
+        return new BoardSpec(intAt(gameRecords[game], 4), intAt(gameRecords[game], 8));
+    }
+
+    /**
+     * This operation rebuilds the fleet of a game, before any shot
+     *
+     * @param game  the index of a game, from 0
+     * @param fleet an empty fleet, or one that may be cleared, for the board of
+     *              that game
+     */
+    public void replayFleet(int game, Fleet fleet) throws IllegalStateException {
+        checkGame(game);
+        assert fleet.getBoardSpec().equals(getBoardSpec(game));
+
+        fleet.clear();
+        Compass[] bearings = Compass.values();
+        for (int i = 1; i <= shipCounts[game]; i++) {
+            int record = gameRecords[game] + i;
+            Ship ship = Ship.buildShip(byteAt(record, 1), bearings[byteAt(record, 2)],
+                    Positions.of(intAt(record, 4), intAt(record, 8)));
+            if (ship == null || !fleet.addShip(ship))
+                throw new IllegalStateException("ERROR! journaled ship " + i + " of game " + game + " cannot be placed");
+        }
+    }
+
+    /**
+     * This operation rebuilds a game as it was after some of its shots
+     *
+     * @param game  the index of a game, from 0
+     * @param shots how many of its shots are replayed
+     * @param fleet an empty fleet, or one that may be cleared, for the board of
+     *              that game; the returned game is played over it
+     * @return The game after those shots
+     * @throws IllegalStateException if a shot does not have the recorded outcome
+     */
+    public Game replay(int game, int shots, Fleet fleet) throws IllegalStateException {
+        checkGame(game);
+        if (shots < 0 || shots > shotCounts[game])
+            throw new IllegalArgumentException("ERROR! game " + game + " has " + shotCounts[game] + " shots");
+
+        replayFleet(game, fleet);
+        Game replayed = new Game(fleet);
+        int[] rows = new int[1];
+        int[] cols = new int[1];
+        byte[] outcomes = new byte[1];
+        for (int i = 0; i < shots; i++) {
+            int record = gameRecords[game] + 1 + shipCounts[game] + i;
+            rows[0] = intAt(record, 4);
+            cols[0] = intAt(record, 8);
+            replayed.fireVolley(rows, cols, outcomes);
+            if (outcomes[0] != byteAt(record, 1))
+                throw new IllegalStateException("ERROR! shot " + i + " of game " + game + " does not replay as journaled");
+        }
+        return replayed;
+    }
+
+    private void checkGame(int game) throws IllegalArgumentException {
+        if (game < 0 || game >= games)
+            throw new IllegalArgumentException("ERROR! the journal has " + games + " games");
+    }
+
+    private int slotOffset(int record) {
+        return (record % recordsPerSegment + 1) * GameJournal.RECORD_SIZE;
+    }
+
+    private int byteAt(int record, int field) {
+        return segments.get(record / recordsPerSegment).get(slotOffset(record) + field);
+    }
+
+    private int intAt(int record, int field) {
+        return segments.get(record / recordsPerSegment).getInt(slotOffset(record) + field);
+    }
+}
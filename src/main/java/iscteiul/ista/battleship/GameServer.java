@@ -0,0 +1,186 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A TCP server playing many independent games at once, one {@link GameSession}
+ * per connection, with the command language of {@link Tasks#taskD()}.
+ * <p>
+ * Each session runs on a thread of its own, in blocking mode. On a Java runtime
+ * with virtual threads these are virtual threads, so that thousands of sessions
+ * cost little; otherwise they are daemon platform threads of a cached pool.
+ * Connections beyond the session limit are told so and closed at once.
+ */
+public class GameServer implements Closeable {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final int DEFAULT_PORT = 4545;
+    public static final int DEFAULT_MAX_SESSIONS = 10_000;
+
+    static final String FULL_MESSAGE = "Servidor cheio, tenta mais tarde.\n";
+
+    private final ServerSocketChannel server;
+    private final ExecutorService sessions;
+    private final int maxSessions;
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final AtomicLong servedSessions = new AtomicLong();
+    private final Thread acceptor;
+
+    /**
+     * Starts a server on the loopback interface
+     *
+     * @param port        the port to listen on, or 0 for any free port
+     * @param maxSessions the most sessions played at the same time
+     */
+    public GameServer(int port, int maxSessions) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), maxSessions);
+    }
+
+    /**
+     * @param address     the address to listen on
+     * @param maxSessions the most sessions played at the same time
+     */
+    public GameServer(InetSocketAddress address, int maxSessions) throws IOException, IllegalArgumentException {
+        assert address != null;
+
+        if (maxSessions <= 0)
+            throw new IllegalArgumentException("ERROR! invalid session limit: " + maxSessions);
+
+        this.maxSessions = maxSessions;
+        this.server = ServerSocketChannel.open();
+        server.bind(address, Math.min(maxSessions, 4096));
+        this.sessions = newSessionExecutor();
+        this.acceptor = new Thread(this::accept, "game-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * @return An executor running each task on a new virtual thread, if the
+     * runtime has them, or else on a pool of daemon platform threads
+     */
+    static ExecutorService newSessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "game-session");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void accept() {
+        while (server.isOpen()) {
+            SocketChannel connection;
+            try {
+                connection = server.accept();
+            } catch (ClosedChannelException e) {
+                break;
+            } catch (IOException e) {
+                LOGGER.warn("Falha ao aceitar uma ligação: {}", e.getMessage());
+                continue;
+            }
+            if (activeSessions.incrementAndGet() > maxSessions) {
+                activeSessions.decrementAndGet();
+                refuse(connection);
+                continue;
+            }
+            connections.add(connection);
+            try {
+                sessions.execute(() -> {
+                    try {
+                        new GameSession(connection).run();
+                    } finally {
+                        connections.remove(connection);
+                        activeSessions.decrementAndGet();
+                        servedSessions.incrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // the server has just been closed
+                connections.remove(connection);
+                activeSessions.decrementAndGet();
+                refuse(connection);
+            }
+        }
+    }
+
+    private static void refuse(SocketChannel connection) {
+        try (SocketChannel c = connection) {
+            c.write(ByteBuffer.wrap(FULL_MESSAGE.getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            // the player has left already
+        }
+    }
+
+    /**
+     * @return The address the server listens on
+     */
+    public InetSocketAddress getAddress() throws IOException {
+        return (InetSocketAddress) server.getLocalAddress();
+    }
+
+    /**
+     * @return The number of sessions being played
+     */
+    public int countActiveSessions() {
+        return activeSessions.get();
+    }
+
+    /**
+     * @return The number of sessions played to their end
+     */
+    public long countServedSessions() {
+        return servedSessions.get();
+    }
+
+    /**
+     * This operation stops accepting connections and ends the sessions being
+     * played, closing their connections
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+        for (SocketChannel connection : connections)
+            connection.close();
+        sessions.shutdown();
+    }
+
+    /**
+     * Runs a server until the process is stopped
+     *
+     * @param args the port, and the most sessions played at the same time
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int maxSessions = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MAX_SESSIONS;
+        try (GameServer server = new GameServer(port, maxSessions)) {
+            LOGGER.info("A ouvir em {}, até {} jogos", server.getAddress(), maxSessions);
+            server.acceptor.join();
+        }
+    }
+}
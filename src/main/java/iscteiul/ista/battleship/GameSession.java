@@ -0,0 +1,269 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.InputMismatchException;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * One game played over a connection of the {@link GameServer}, with the
+ * command language of {@link Tasks#taskD()}: {@code nova} and eleven ships,
+ * {@code rajada} and three shots, {@code ver}, {@code mapa}, {@code estado} and
+ * {@code desisto}. The replies are the messages the task logs, one per line,
+ * written back to the connection after each command.
+ * <p>
+ * The memory of a session is bounded: the input and output buffers have a fixed
+ * size and long replies are sent in parts, tokens are cut to
+ * {@link #MAX_TOKEN_LENGTH} bytes, and the fleet and game are bounded by the
+ * board. A token that should be a number but is not is answered as an unknown
+ * command and skipped.
+ */
+class GameSession implements Runnable {
+    static final String WELCOME_MESSAGE = "Batalha naval!";
+    static final String GOODBYE_MESSAGE = "Bons ventos!";
+    static final String UNKNOWN_COMMAND = "Que comando é esse??? Repete ...";
+
+    private static final int NUMBER_SHOTS = 3;
+    private static final int INPUT_BUFFER_SIZE = 512;
+    static final int MAX_TOKEN_LENGTH = 32;
+    /**
+     * Replies longer than half of it are sent as they are built
+     */
+    private static final int OUTPUT_BUFFER_SIZE = 4096;
+
+    static final String[] COMMANDS = {"nova", "desisto", "rajada", "ver", "mapa", "estado"};
+    /**
+     * The index of unknown commands in the latencies of a session
+     */
+    static final int UNKNOWN = COMMANDS.length;
+    private static final int CMD_NOVAFROTA = 0;
+    private static final int CMD_DESISTIR = 1;
+    private static final int CMD_RAJADA = 2;
+    private static final int CMD_VERTIROS = 3;
+    private static final int CMD_BATOTA = 4;
+    private static final int CMD_STATUS = 5;
+
+    private final ByteChannel channel;
+    private final CommandReader in;
+    private final StringBuilder reply = new StringBuilder(OUTPUT_BUFFER_SIZE / 2);
+    private final ByteBuffer out = ByteBuffer.allocate(OUTPUT_BUFFER_SIZE);
+    private final int[] rows = new int[NUMBER_SHOTS];
+    private final int[] cols = new int[NUMBER_SHOTS];
+    private final byte[] outcomes = new byte[NUMBER_SHOTS];
+    private final BoardRenderer renderer = new BoardRenderer();
+    private final boolean greeting;
+    private final LatencyHistogram[] latencies;
+    private int command;
+    private Fleet fleet;
+    private Game game;
+    private RuntimeException failure;
+
+    /**
+     * @param channel the connection of the player, in blocking mode
+     */
+    GameSession(ByteChannel channel) {
+        this(channel, true, null);
+    }
+
+    /**
+     * @param channel   the connection of the player, in blocking mode
+     * @param greeting  whether the session starts with the welcome message, as
+     *                  the interactive task does not
+     * @param latencies where the time each command takes, reply included, is
+     *                  recorded, per command and then UNKNOWN; or null
+     */
+    GameSession(ByteChannel channel, boolean greeting, LatencyHistogram[] latencies) {
+        assert channel != null;
+        assert latencies == null || latencies.length == UNKNOWN + 1;
+
+        this.channel = channel;
+        this.in = new CommandReader(channel, INPUT_BUFFER_SIZE, MAX_TOKEN_LENGTH);
+        this.greeting = greeting;
+        this.latencies = latencies;
+    }
+
+    /**
+     * This operation plays the session until the player gives up or leaves, then
+     * closes the connection
+     */
+    @Override
+    public void run() {
+        try (channel) {
+            if (greeting)
+                line(WELCOME_MESSAGE);
+            send();
+            boolean playing;
+            do {
+                long start = latencies != null ? System.nanoTime() : 0;
+                playing = play();
+                if (playing)
+                    send();
+                if (latencies != null)
+                    latencies[command < 0 ? UNKNOWN : command].record(System.nanoTime() - start);
+            } while (playing);
+            line(GOODBYE_MESSAGE);
+            send();
+        } catch (IOException | NoSuchElementException e) {
+            // the player has left
+        } catch (RuntimeException e) {
+            // a fault of this session ends it alone, not the server nor a batch
+            failure = e;
+        }
+    }
+
+    /**
+     * @return The fault that ended the session, or null if it ended as the
+     * player gave up or left
+     */
+    RuntimeException getFailure() {
+        return failure;
+    }
+
+    /**
+     * This operation reads and carries out a command
+     *
+     * @return false once the player has given up
+     */
+    private boolean play() throws IOException, NoSuchElementException {
+        command = in.nextWord(COMMANDS);
+        try {
+            switch (command) {
+                case CMD_DESISTIR:
+                    return false;
+                case CMD_NOVAFROTA:
+                    // a fleet left incomplete by a malformed command replaces nothing
+                    Fleet built = buildFleet();
+                    fleet = built;
+                    game = new Game(built);
+                    break;
+                case CMD_STATUS:
+                    if (fleet != null)
+                        status();
+                    break;
+                case CMD_BATOTA:
+                    if (fleet != null)
+                        board(true);
+                    break;
+                case CMD_RAJADA:
+                    if (game != null)
+                        firingRound();
+                    break;
+                case CMD_VERTIROS:
+                    if (game != null)
+                        board(false);
+                    break;
+                default:
+                    line(UNKNOWN_COMMAND);
+            }
+        } catch (InputMismatchException e) {
+            in.next();
+            line(UNKNOWN_COMMAND);
+        }
+        return true;
+    }
+
+    private Fleet buildFleet() throws IOException, NoSuchElementException, InputMismatchException {
+        Fleet fleet = new Fleet();
+        int i = 0;
+        while (i <= Fleet.FLEET_SIZE) {
+            IShip s = Tasks.readShip(in);
+            if (s == null) {
+                line("Navio desconhecido!");
+            } else if (fleet.addShip(s)) {
+                i++;
+            } else {
+                reply.append("Falha na criacao de ").append(s.getCategory()).append(' ').append(s.getBearing())
+                        .append(' ').append(s.getPosition());
+                line("");
+            }
+        }
+        reply.append(i);
+        line(" navios adicionados com sucesso!");
+        return fleet;
+    }
+
+    private void firingRound() throws IOException, NoSuchElementException, InputMismatchException {
+        for (int i = 0; i < NUMBER_SHOTS; i++) {
+            rows[i] = in.nextInt();
+            cols[i] = in.nextInt();
+        }
+        game.fireVolley(rows, cols, outcomes);
+        for (int i = 0; i < NUMBER_SHOTS; i++)
+            if (outcomes[i] == IGame.SHOT_SUNK) {
+                reply.append("Mas... mas... ").append(fleet.shipAt(Positions.of(rows[i], cols[i])).getCategory());
+                line("s nao sao a prova de bala? :-(");
+            }
+        reply.append("Hits: ").append(game.getHits()).append(" Inv: ").append(game.getInvalidShots())
+                .append(" Rep: ").append(game.getRepeatedShots()).append(" Restam ")
+                .append(game.getRemainingShips());
+        line(" navios.");
+        if (game.getRemainingShips() == 0)
+            line("Maldito sejas, Java Sparrow, eu voltarei, glub glub glub...");
+    }
+
+    private void status() throws IOException {
+        ships(fleet.getShips());
+        ships(fleet.getFloatingShips());
+        for (String category : Fleet.STATUS_CATEGORIES)
+            ships(fleet.getShipsLike(category));
+    }
+
+    private void ships(List<IShip> ships) throws IOException {
+        for (int i = 0; i < ships.size(); i++)
+            line(ships.get(i).toString());
+    }
+
+    /**
+     * This operation sends the board, with either the ships or the shots, right
+     * after what has been gathered of the reply
+     */
+    private void board(boolean showShips) throws IOException {
+        send();
+        if (showShips)
+            renderer.render(fleet, null, BoardRenderer.FLEET);
+        else
+            renderer.render(fleet, game, BoardRenderer.SHOTS);
+        renderer.writeTo(channel);
+    }
+
+    private void line(String text) throws IOException {
+        reply.append(text).append('\n');
+        // a fleet with many rejected ships must not grow the reply without end
+        if (reply.length() > OUTPUT_BUFFER_SIZE / 2)
+            send();
+    }
+
+    /**
+     * This operation writes the reply gathered so far to the connection
+     */
+    private void send() throws IOException {
+        for (int i = 0; i < reply.length(); i++) {
+            if (!out.hasRemaining())
+                drain();
+            char c = reply.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else {
+                byte[] bytes = String.valueOf(c).getBytes(StandardCharsets.UTF_8);
+                if (out.remaining() < bytes.length)
+                    drain();
+                out.put(bytes);
+            }
+        }
+        reply.setLength(0);
+        drain();
+    }
+
+    private void drain() throws IOException {
+        out.flip();
+        while (out.hasRemaining())
+            channel.write(out);
+        out.clear();
+    }
+}
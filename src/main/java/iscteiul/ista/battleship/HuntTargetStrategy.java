@@ -0,0 +1,147 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.Arrays;
+
+/**
+ * The classic hunt and target strategy.
+ * <p>
+ * While hunting, it fires at random at the cells of one colour of a
+ * chessboard pattern (any ship longer than one cell covers at least one of
+ * them), then at the remaining cells. Once a ship is hit, it targets the
+ * neighbours of the hit until the ship sinks. Cells around a sunk ship are
+ * known to be water, since ships never touch, and are never fired at.
+ */
+public class HuntTargetStrategy implements ShotStrategy {
+    private static final byte UNKNOWN = 0;
+    private static final byte WATER = 1;
+    private static final byte HIT = 2;
+    private static final byte SUNK = 3;
+
+    private static final int[] NEIGHBOUR_ROWS = {-1, 1, 0, 0};
+    private static final int[] NEIGHBOUR_COLUMNS = {0, 0, -1, 1};
+
+    private final SplitMix64 random = new SplitMix64(0);
+    private BoardSpec spec;
+    private byte[] cells = new byte[0];
+    /**
+     * Hunting order: shuffled chessboard cells, then the shuffled remaining ones
+     */
+    private int[] huntOrder = new int[0];
+    private int hunted;
+    /**
+     * Cells next to hits, still to be tried
+     */
+    private int[] targets = new int[0];
+    private int targetCount;
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.ShotStrategy#newGame(battleship.BoardSpec, long)
+     */
+    @Override
+    public void newGame(BoardSpec spec, long seed) {
+        this.spec = spec;
+        int n = spec.getCellCount();
+        if (cells.length != n) {
+            cells = new byte[n];
+            huntOrder = new int[n];
+            targets = new int[4 * n];
+        } else {
+            Arrays.fill(cells, UNKNOWN);
+        }
+        random.reseed(seed);
+
+        int size = spec.getBoardSize();
+        int even = 0;
+        for (int i = 0; i < n; i++)
+            if ((i / size + i % size) % 2 == 0)
+                huntOrder[even++] = i;
+        int odd = even;
+        for (int i = 0; i < n; i++)
+            if ((i / size + i % size) % 2 != 0)
+                huntOrder[odd++] = i;
+        shuffle(0, even);
+        shuffle(even, n);
+
+        hunted = 0;
+        targetCount = 0;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.ShotStrategy#nextShot()
+     */
+    @Override
+    public IPosition nextShot() throws IllegalStateException {
+        int size = spec.getBoardSize();
+        while (targetCount > 0) {
+            int cell = targets[--targetCount];
+            if (cells[cell] == UNKNOWN)
+                return Positions.of(cell / size, cell % size);
+        }
+        while (hunted < huntOrder.length) {
+            int cell = huntOrder[hunted++];
+            if (cells[cell] == UNKNOWN)
+                return Positions.of(cell / size, cell % size);
+        }
+        throw new IllegalStateException("ERROR! every cell has already been fired at");
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.ShotStrategy#shotResult(battleship.IPosition, boolean, battleship.IShip)
+     */
+    @Override
+    public void shotResult(IPosition pos, boolean hit, IShip sunk) {
+        int row = pos.getRow();
+        int column = pos.getColumn();
+        if (!spec.contains(row, column))
+            return;
+
+        int cell = spec.cellIndex(row, column);
+        if (!hit) {
+            if (cells[cell] == UNKNOWN)
+                cells[cell] = WATER;
+            return;
+        }
+
+        cells[cell] = HIT;
+        for (int i = 0; i < NEIGHBOUR_ROWS.length; i++) {
+            int r = row + NEIGHBOUR_ROWS[i];
+            int c = column + NEIGHBOUR_COLUMNS[i];
+            if (spec.contains(r, c) && cells[spec.cellIndex(r, c)] == UNKNOWN)
+                targets[targetCount++] = spec.cellIndex(r, c);
+        }
+
+        if (sunk != null)
+            for (IPosition p : sunk.getPositions())
+                markSunk(p.getRow(), p.getColumn());
+    }
+
+    /**
+     * This operation records a cell of a sunk ship, and its surroundings as water
+     */
+    private void markSunk(int row, int column) {
+        for (int r = row - 1; r <= row + 1; r++)
+            for (int c = column - 1; c <= column + 1; c++)
+                if (spec.contains(r, c) && cells[spec.cellIndex(r, c)] == UNKNOWN)
+                    cells[spec.cellIndex(r, c)] = WATER;
+        if (spec.contains(row, column))
+            cells[spec.cellIndex(row, column)] = SUNK;
+    }
+
+    private void shuffle(int from, int to) {
+        for (int i = to - 1; i > from; i--) {
+            int j = from + random.nextInt(i - from + 1);
+            int tmp = huntOrder[i];
+            huntOrder[i] = huntOrder[j];
+            huntOrder[j] = tmp;
+        }
+    }
+}
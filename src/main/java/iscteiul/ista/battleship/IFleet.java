@@ -17,7 +17,22 @@ public interface IFleet {
 
     List<IShip> getFloatingShips();
 
+    /**
+     * @return The number of ships still floating, without building the list
+     * returned by {@link #getFloatingShips()}
+     */
+    default int countFloatingShips() {
+        return getFloatingShips().size();
+    }
+
     IShip shipAt(IPosition pos);
 
     void printStatus();
+
+    /**
+     * @return The board and fleet dimensions this fleet was built for
+     */
+    default BoardSpec getBoardSpec() {
+        return BoardSpec.DEFAULT;
+    }
 }
@@ -6,8 +6,48 @@ package iscteiul.ista.battleship;
 import java.util.List;
 
 public interface IGame {
+    /**
+     * Outcomes of the shots of a volley, as written by
+     * {@link #fireVolley(int[], int[], byte[])}
+     */
+    byte SHOT_INVALID = 0;
+    byte SHOT_REPEATED = 1;
+    byte SHOT_MISSED = 2;
+    byte SHOT_HIT = 3;
+    byte SHOT_SUNK = 4;
+
     IShip fire(IPosition pos);
 
+    /**
+     * This operation fires a whole volley, in order, and tells how each shot
+     * went
+     *
+     * @param rows     the rows of the shots
+     * @param cols     the columns of the shots, as many as rows
+     * @param outcomes where the outcome of the i-th shot is written, one of the
+     *                 SHOT_ constants; at least as long as rows
+     */
+    default void fireVolley(int[] rows, int[] cols, byte[] outcomes) {
+        assert rows.length == cols.length && outcomes.length >= rows.length;
+
+        for (int i = 0; i < rows.length; i++) {
+            int invalid = getInvalidShots();
+            int repeated = getRepeatedShots();
+            int hits = getHits();
+            IShip sunk = fire(Positions.of(rows[i], cols[i]));
+            if (sunk != null)
+                outcomes[i] = SHOT_SUNK;
+            else if (getHits() > hits)
+                outcomes[i] = SHOT_HIT;
+            else if (getInvalidShots() > invalid)
+                outcomes[i] = SHOT_INVALID;
+            else if (getRepeatedShots() > repeated)
+                outcomes[i] = SHOT_REPEATED;
+            else
+                outcomes[i] = SHOT_MISSED;
+        }
+    }
+
     List<IPosition> getShots();
 
     int getRepeatedShots();
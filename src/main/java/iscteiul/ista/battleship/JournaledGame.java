@@ -0,0 +1,164 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * A game whose fleet and shots are recorded in a {@link GameJournal}.
+ * <p>
+ * Every shot, whether fired alone or in a volley, is journaled with its
+ * outcome right after being fired. The game does not own the journal, which
+ * may record several games in turn and must be closed by its creator.
+ */
+public class JournaledGame implements IGame {
+    private final Game game;
+    private final GameJournal journal;
+
+    /**
+     * @param fleet   the fleet to be fired at, already complete
+     * @param journal the journal the game is recorded in
+     * @throws UncheckedIOException if the journal cannot be written
+     */
+    public JournaledGame(IFleet fleet, GameJournal journal) throws UncheckedIOException {
+        assert fleet != null;
+        assert journal != null;
+
+        this.game = new Game(fleet);
+        this.journal = journal;
+        try {
+            journal.recordGame(fleet);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#fire(battleship.IPosition)
+     */
+    @Override
+    public IShip fire(IPosition pos) throws UncheckedIOException {
+        int invalid = game.getInvalidShots();
+        int repeated = game.getRepeatedShots();
+        int hits = game.getHits();
+        IShip sunk = game.fire(pos);
+        byte outcome;
+        if (sunk != null)
+            outcome = SHOT_SUNK;
+        else if (game.getHits() > hits)
+            outcome = SHOT_HIT;
+        else if (game.getInvalidShots() > invalid)
+            outcome = SHOT_INVALID;
+        else if (game.getRepeatedShots() > repeated)
+            outcome = SHOT_REPEATED;
+        else
+            outcome = SHOT_MISSED;
+        try {
+            journal.recordShot(pos.getRow(), pos.getColumn(), outcome);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sunk;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#fireVolley(int[], int[], byte[])
+     */
+    @Override
+    public void fireVolley(int[] rows, int[] cols, byte[] outcomes) throws UncheckedIOException {
+        game.fireVolley(rows, cols, outcomes);
+        try {
+            for (int i = 0; i < rows.length; i++)
+                journal.recordShot(rows[i], cols[i], outcomes[i]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getShots()
+     */
+    @Override
+    public List<IPosition> getShots() {
+        return game.getShots();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getRepeatedShots()
+     */
+    @Override
+    public int getRepeatedShots() {
+        return game.getRepeatedShots();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getInvalidShots()
+     */
+    @Override
+    public int getInvalidShots() {
+        return game.getInvalidShots();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getHits()
+     */
+    @Override
+    public int getHits() {
+        return game.getHits();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getSunkShips()
+     */
+    @Override
+    public int getSunkShips() {
+        return game.getSunkShips();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getRemainingShips()
+     */
+    @Override
+    public int getRemainingShips() {
+        return game.getRemainingShips();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#printValidShots()
+     */
+    @Override
+    public void printValidShots() {
+        game.printValidShots();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#printFleet()
+     */
+    @Override
+    public void printFleet() {
+        game.printFleet();
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.List;
+
+/**
+ * A fleet whose additions and lookups are recorded in {@link EngineMetrics}, as
+ * built by {@link EngineMetrics#meter(IFleet)}.
+ * <p>
+ * The reason a ship is rejected is worked out only once the fleet has rejected
+ * it, from the same rules {@link Fleet} applies, in the same order.
+ */
+class MeteredFleet implements IFleet {
+    private final IFleet fleet;
+    private final EngineMetrics metrics;
+    private final int sampleMask;
+    private int clock;
+
+    MeteredFleet(IFleet fleet, EngineMetrics metrics) {
+        assert fleet != null;
+        assert metrics != null;
+
+        this.fleet = fleet;
+        this.metrics = metrics;
+        this.sampleMask = metrics.sampleMask();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#getShips()
+     */
+    @Override
+    public List<IShip> getShips() {
+        return fleet.getShips();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#addShip(battleship.IShip)
+     */
+    @Override
+    public boolean addShip(IShip s) {
+        boolean added;
+        if ((++clock & sampleMask) == 0) {
+            long allocated = EngineMetrics.allocatedBytes();
+            long start = System.nanoTime();
+            added = fleet.addShip(s);
+            metrics.sample(EngineMetrics.ADD_SHIP, System.nanoTime() - start, allocated);
+        } else {
+            added = fleet.addShip(s);
+        }
+        metrics.count(EngineMetrics.ADD_SHIP);
+        if (!added)
+            metrics.countRejection(rejection(s));
+        return added;
+    }
+
+    private int rejection(IShip s) {
+        BoardSpec spec = fleet.getBoardSpec();
+        if (fleet.getShips().size() > spec.getFleetSize())
+            return EngineMetrics.REJECTED_FLEET_FULL;
+        if (!Fleet.isInsideBoard(spec, s))
+            return EngineMetrics.REJECTED_OUT_OF_BOARD;
+        return EngineMetrics.REJECTED_COLLISION;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#getShipsLike(java.lang.String)
+     */
+    @Override
+    public List<IShip> getShipsLike(String category) {
+        return fleet.getShipsLike(category);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#getFloatingShips()
+     */
+    @Override
+    public List<IShip> getFloatingShips() {
+        return fleet.getFloatingShips();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#countFloatingShips()
+     */
+    @Override
+    public int countFloatingShips() {
+        return fleet.countFloatingShips();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#shipAt(battleship.IPosition)
+     */
+    @Override
+    public IShip shipAt(IPosition pos) {
+        IShip ship;
+        if ((++clock & sampleMask) == 0) {
+            long allocated = EngineMetrics.allocatedBytes();
+            long start = System.nanoTime();
+            ship = fleet.shipAt(pos);
+            metrics.sample(EngineMetrics.SHIP_AT, System.nanoTime() - start, allocated);
+        } else {
+            ship = fleet.shipAt(pos);
+        }
+        metrics.count(EngineMetrics.SHIP_AT);
+        if (ship != null)
+            metrics.countShipFound();
+        return ship;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#printStatus()
+     */
+    @Override
+    public void printStatus() {
+        fleet.printStatus();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IFleet#getBoardSpec()
+     */
+    @Override
+    public BoardSpec getBoardSpec() {
+        return fleet.getBoardSpec();
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.List;
+
+/**
+ * A game whose shots are recorded in {@link EngineMetrics}, as built by
+ * {@link EngineMetrics#meter(IGame)}.
+ * <p>
+ * The calls to sample are picked by a plain counter, with no synchronization:
+ * should threads firing together lose some of its increments, calls are only
+ * sampled a little less often.
+ * <p>
+ * The outcome of each shot is told by the game itself, for the games of this
+ * package. For other games it is worked out from their counters before and
+ * after the shot, which is only right as long as no other thread fires at the
+ * same game meanwhile.
+ */
+class MeteredGame implements IGame, ShotOutcomes {
+    private final IGame game;
+    private final EngineMetrics metrics;
+    private final int sampleMask;
+    private int clock;
+
+    MeteredGame(IGame game, EngineMetrics metrics) {
+        assert game != null;
+        assert metrics != null;
+
+        this.game = game;
+        this.metrics = metrics;
+        this.sampleMask = metrics.sampleMask();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#fire(battleship.IPosition)
+     */
+    @Override
+    public IShip fire(IPosition pos) {
+        return fire(pos, new byte[1]);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.ShotOutcomes#fire(battleship.IPosition, byte[])
+     */
+    @Override
+    public IShip fire(IPosition pos, byte[] outcome) {
+        IShip sunk;
+        if ((++clock & sampleMask) == 0) {
+            long allocated = EngineMetrics.allocatedBytes();
+            long start = System.nanoTime();
+            sunk = shoot(pos, outcome);
+            metrics.sample(EngineMetrics.FIRE, System.nanoTime() - start, allocated);
+        } else {
+            sunk = shoot(pos, outcome);
+        }
+        metrics.count(EngineMetrics.FIRE);
+        metrics.countOutcome(outcome[0]);
+        return sunk;
+    }
+
+    private IShip shoot(IPosition pos, byte[] outcome) {
+        if (game instanceof ShotOutcomes)
+            return ((ShotOutcomes) game).fire(pos, outcome);
+
+        int invalid = game.getInvalidShots();
+        int repeated = game.getRepeatedShots();
+        int hits = game.getHits();
+        IShip sunk = game.fire(pos);
+        if (sunk != null)
+            outcome[0] = SHOT_SUNK;
+        else if (game.getHits() > hits)
+            outcome[0] = SHOT_HIT;
+        else if (game.getInvalidShots() > invalid)
+            outcome[0] = SHOT_INVALID;
+        else if (game.getRepeatedShots() > repeated)
+            outcome[0] = SHOT_REPEATED;
+        else
+            outcome[0] = SHOT_MISSED;
+        return sunk;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#fireVolley(int[], int[], byte[])
+     */
+    @Override
+    public void fireVolley(int[] rows, int[] cols, byte[] outcomes) {
+        game.fireVolley(rows, cols, outcomes);
+        for (int i = 0; i < rows.length; i++) {
+            metrics.count(EngineMetrics.FIRE);
+            metrics.countOutcome(outcomes[i]);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getShots()
+     */
+    @Override
+    public List<IPosition> getShots() {
+        return game.getShots();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getRepeatedShots()
+     */
+    @Override
+    public int getRepeatedShots() {
+        return game.getRepeatedShots();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getInvalidShots()
+     */
+    @Override
+    public int getInvalidShots() {
+        return game.getInvalidShots();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getHits()
+     */
+    @Override
+    public int getHits() {
+        return game.getHits();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getSunkShips()
+     */
+    @Override
+    public int getSunkShips() {
+        return game.getSunkShips();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getRemainingShips()
+     */
+    @Override
+    public int getRemainingShips() {
+        return game.getRemainingShips();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#printValidShots()
+     */
+    @Override
+    public void printValidShots() {
+        game.printValidShots();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#printFleet()
+     */
+    @Override
+    public void printFleet() {
+        game.printFleet();
+    }
+}
@@ -0,0 +1,236 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.io.Closeable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The state of a board kept outside the Java heap, in direct buffers, so that
+ * boards of thousands of rows cost the heap nothing more than small ones: the
+ * ship occupying each cell, one short per cell, the cells fired at, one bit per
+ * cell, and the cells fired at in the order they were, one int per shot. A cell
+ * has been hit if it has been fired at and a ship occupies it.
+ * <p>
+ * A board is played through an {@link OffHeapFleet} and an {@link OffHeapGame}
+ * built on it. Its memory is given back by {@link #close()}, not left to the
+ * garbage collector, and a closed board cannot be used any more. A board is not
+ * thread-safe.
+ */
+public final class OffHeapBoard implements Closeable {
+    public static final short NO_SHIP = 0;
+
+    /**
+     * Cells per buffer of ship ids, so that a buffer stays below 2 GiB whatever
+     * the board
+     */
+    private static final int SHIP_CHUNK_BITS = 26;
+    /**
+     * Shots per buffer of the shot log, allocated as shots are fired
+     */
+    private static final int SHOT_CHUNK_BITS = 20;
+
+    private static final Method INVOKE_CLEANER;
+    private static final Object UNSAFE;
+
+    static {
+        Method invokeCleaner = null;
+        Object unsafe = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // the buffers are then freed by the garbage collector
+        }
+        INVOKE_CLEANER = invokeCleaner;
+        UNSAFE = unsafe;
+    }
+
+    private final BoardSpec spec;
+    private ByteBuffer[] ships;
+    private ByteBuffer fired;
+    private ByteBuffer[] shotLog;
+    private int shotCount;
+    private long allocatedBytes;
+
+    /**
+     * @param spec the board; its fleet must have fewer than Short.MAX_VALUE ships
+     */
+    public OffHeapBoard(BoardSpec spec) throws IllegalArgumentException {
+        assert spec != null;
+
+        if (spec.getFleetSize() >= Short.MAX_VALUE)
+            throw new IllegalArgumentException("ERROR! fleet too large to be indexed: " + spec.getFleetSize());
+
+        this.spec = spec;
+        long cells = spec.getCellCount();
+        this.ships = new ByteBuffer[(int) ((cells + (1L << SHIP_CHUNK_BITS) - 1) >>> SHIP_CHUNK_BITS)];
+        for (int chunk = 0; chunk < ships.length; chunk++)
+            ships[chunk] = allocate(2 * Math.min(1L << SHIP_CHUNK_BITS, cells - ((long) chunk << SHIP_CHUNK_BITS)));
+        this.fired = allocate(8 * ((cells + 63) >>> 6));
+        this.shotLog = new ByteBuffer[(int) ((cells + (1L << SHOT_CHUNK_BITS) - 1) >>> SHOT_CHUNK_BITS)];
+    }
+
+    private ByteBuffer allocate(long bytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+        allocatedBytes += bytes;
+        return buffer;
+    }
+
+    private static void free(ByteBuffer buffer) {
+        if (buffer == null || INVOKE_CLEANER == null)
+            return;
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException e) {
+            // left to the garbage collector
+        }
+    }
+
+    private int checkedCell(int row, int column) throws IllegalStateException, IllegalArgumentException {
+        if (fired == null)
+            throw new IllegalStateException("ERROR! board already closed");
+        if (!spec.contains(row, column))
+            throw new IllegalArgumentException("ERROR! position outside the board: " + Positions.of(row, column));
+        return spec.cellIndex(row, column);
+    }
+
+    public BoardSpec getSpec() {
+        return spec;
+    }
+
+    /**
+     * @return The number of bytes the board holds outside the heap
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return The 1-based id of the ship occupying the given cell, or NO_SHIP
+     */
+    public int shipAt(int row, int column) throws IllegalArgumentException {
+        int cell = checkedCell(row, column);
+        return ships[cell >>> SHIP_CHUNK_BITS].getShort((cell & ((1 << SHIP_CHUNK_BITS) - 1)) << 1);
+    }
+
+    void setShip(int row, int column, int ship) {
+        assert ship > 0 && ship < Short.MAX_VALUE;
+
+        int cell = checkedCell(row, column);
+        ships[cell >>> SHIP_CHUNK_BITS].putShort((cell & ((1 << SHIP_CHUNK_BITS) - 1)) << 1, (short) ship);
+    }
+
+    /**
+     * @return true if a valid shot has been fired at the given cell
+     */
+    public boolean isFired(int row, int column) throws IllegalArgumentException {
+        int cell = checkedCell(row, column);
+        return (fired.getLong((cell >>> 6) << 3) & 1L << cell) != 0;
+    }
+
+    /**
+     * @return true if the given cell has been fired at and a ship occupies it
+     */
+    public boolean isHit(int row, int column) throws IllegalArgumentException {
+        return isFired(row, column) && shipAt(row, column) != NO_SHIP;
+    }
+
+    /**
+     * This operation marks a cell as fired at and logs the shot, unless it had
+     * already been fired at
+     *
+     * @return false if the cell had already been fired at
+     */
+    boolean fire(int row, int column) {
+        int cell = checkedCell(row, column);
+        int word = (cell >>> 6) << 3;
+        long bits = fired.getLong(word);
+        if ((bits & 1L << cell) != 0)
+            return false;
+        fired.putLong(word, bits | 1L << cell);
+        int chunk = shotCount >>> SHOT_CHUNK_BITS;
+        if (shotLog[chunk] == null)
+            shotLog[chunk] = allocate(4L << SHOT_CHUNK_BITS);
+        shotLog[chunk].putInt((shotCount & ((1 << SHOT_CHUNK_BITS) - 1)) << 2, cell);
+        shotCount++;
+        return true;
+    }
+
+    /**
+     * @return The number of valid shots fired
+     */
+    public int getShotCount() {
+        return shotCount;
+    }
+
+    /**
+     * @param shot the number of the shot, from 0
+     * @return The index of the cell fired at, as numbered by the spec
+     */
+    public int getShotCell(int shot) {
+        if (fired == null)
+            throw new IllegalStateException("ERROR! board already closed");
+        if (shot < 0 || shot >= shotCount)
+            throw new IndexOutOfBoundsException("ERROR! no shot " + shot);
+        return shotLog[shot >>> SHOT_CHUNK_BITS].getInt((shot & ((1 << SHOT_CHUNK_BITS) - 1)) << 2);
+    }
+
+    /**
+     * This operation forgets every shot, keeping the memory of the shot log
+     */
+    void clearShots() {
+        checkedCell(0, 0);
+        clear(fired);
+        shotCount = 0;
+    }
+
+    /**
+     * This operation takes every ship off the board
+     */
+    void clearShips() {
+        checkedCell(0, 0);
+        for (ByteBuffer chunk : ships)
+            clear(chunk);
+    }
+
+    private static void clear(ByteBuffer buffer) {
+        int limit = buffer.capacity() & ~7;
+        for (int i = 0; i < limit; i += 8)
+            buffer.putLong(i, 0);
+        for (int i = limit; i < buffer.capacity(); i++)
+            buffer.put(i, (byte) 0);
+    }
+
+    public boolean isOpen() {
+        return fired != null;
+    }
+
+    /**
+     * This operation gives the memory of the board back at once; closing a
+     * closed board does nothing
+     *
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() {
+        if (fired == null)
+            return;
+        for (ByteBuffer chunk : ships)
+            free(chunk);
+        for (ByteBuffer chunk : shotLog)
+            free(chunk);
+        free(fired);
+        ships = null;
+        shotLog = null;
+        fired = null;
+        allocatedBytes = 0;
+    }
+}
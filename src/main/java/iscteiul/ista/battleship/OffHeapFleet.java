@@ -0,0 +1,47 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+/**
+ * A fleet whose board index lives in an {@link OffHeapBoard}: the heap only
+ * holds the ships themselves, however large the board.
+ * <p>
+ * Placement rules and query results are those of {@link Fleet}, see
+ * {@link CellIndexedFleet}.
+ */
+public class OffHeapFleet extends CellIndexedFleet {
+    private final OffHeapBoard board;
+
+    /**
+     * @param board the board the fleet is placed on, with no ships yet
+     */
+    public OffHeapFleet(OffHeapBoard board) {
+        super(board.getSpec());
+
+        this.board = board;
+    }
+
+    /**
+     * @return The board the fleet is placed on
+     */
+    public OffHeapBoard getBoard() {
+        return board;
+    }
+
+    @Override
+    int shipIndexAt(int row, int column) {
+        // board ids are the indices from 1, NO_SHIP being 0
+        return board.shipAt(row, column) - 1;
+    }
+
+    @Override
+    void indexCell(int row, int column, int ship) {
+        board.setShip(row, column, ship + 1);
+    }
+
+    @Override
+    void clearCells() {
+        board.clearShips();
+    }
+}
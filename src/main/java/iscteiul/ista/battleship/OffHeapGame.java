@@ -0,0 +1,83 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A game whose shots are kept in the {@link OffHeapBoard} of its fleet: the
+ * cells fired at in its bitmap, and the order they were fired at in its shot
+ * log, so that the heap holds no object per shot.
+ * <p>
+ * Shots and their outcomes are those of {@link Game}. The list of shots is a
+ * view of the log, building each position as it is read.
+ */
+public class OffHeapGame extends CellIndexedGame {
+    private final OffHeapBoard board;
+    private final List<IPosition> shots = new ShotList();
+
+    /**
+     * @param fleet the fleet to be fired at, already complete
+     */
+    public OffHeapGame(OffHeapFleet fleet) {
+        super(fleet);
+
+        this.board = fleet.getBoard();
+    }
+
+    @Override
+    boolean markFired(int row, int column) {
+        return board.fire(row, column);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.FiredCells#isFired(int, int)
+     */
+    @Override
+    public boolean isFired(int row, int column) {
+        return board.getSpec().contains(row, column) && board.isFired(row, column);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.CellIndexedGame#reset()
+     */
+    @Override
+    public void reset() {
+        board.clearShots();
+        super.reset();
+    }
+
+    /**
+     * The shots fired, read from the shot log of the board
+     */
+    private final class ShotList extends AbstractList<IPosition> implements RandomAccess {
+        @Override
+        public IPosition get(int index) {
+            int cell = board.getShotCell(index);
+            int size = board.getSpec().getBoardSize();
+            return Positions.of(cell / size, cell % size);
+        }
+
+        @Override
+        public int size() {
+            return board.getShotCount();
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getShots()
+     */
+    @Override
+    public List<IPosition> getShots() {
+        return shots;
+    }
+}
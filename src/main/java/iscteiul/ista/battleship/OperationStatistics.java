@@ -0,0 +1,80 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+/**
+ * A snapshot of the metrics of one engine operation, as returned by
+ * {@link EngineMetrics#getStatistics(int)} and published over JMX.
+ * <p>
+ * Latencies and allocation are those of the sampled calls only.
+ */
+public final class OperationStatistics {
+    private final long count;
+    private final long sampled;
+    private final double meanNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+    private final double allocatedBytesPerCall;
+
+    OperationStatistics(long count, LatencyHistogram latency, double allocatedBytesPerCall) {
+        this.count = count;
+        this.sampled = latency.getCount();
+        this.meanNanos = latency.getMean();
+        this.p50Nanos = latency.getValueAtPercentile(50);
+        this.p99Nanos = latency.getValueAtPercentile(99);
+        this.p999Nanos = latency.getValueAtPercentile(99.9);
+        this.maxNanos = latency.getMax();
+        this.allocatedBytesPerCall = allocatedBytesPerCall;
+    }
+
+    /**
+     * @return The number of calls
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The number of calls whose latency was measured
+     */
+    public long getSampled() {
+        return sampled;
+    }
+
+    public double getMeanNanos() {
+        return meanNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * @return The mean number of bytes allocated by a sampled call, or -1 if the
+     * runtime cannot tell
+     */
+    public double getAllocatedBytesPerCall() {
+        return allocatedBytesPerCall;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d calls, latency mean %.0f ns p50 %d p99 %d p99.9 %d max %d, %.1f bytes/call", count,
+                meanNanos, p50Nanos, p99Nanos, p999Nanos, maxNanos, allocatedBytesPerCall);
+    }
+}
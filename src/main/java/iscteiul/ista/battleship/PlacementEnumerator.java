@@ -0,0 +1,439 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lists the legal placements of the ships of a fleet on a partially known
+ * board, and counts the whole fleets compatible with it.
+ * <p>
+ * The board state is a set of cells known to be water and a set of cells known
+ * to have been hit. A placement of a single ship is legal when it lies inside
+ * the board and covers no water; a whole fleet is compatible when, in addition,
+ * its ships neither overlap nor touch, as {@link Fleet} requires, and every hit
+ * is covered by one of them. Placements and boards are bitmasks, one bit per
+ * cell in {@link BoardSpec#cellIndex(int, int)} order, packed in longs.
+ * <p>
+ * Fleets are counted by a depth-first search over the ships, biggest first,
+ * which stops as soon as a hit can no longer be covered and remembers the count
+ * of every partial board it has already explored. Ships of the same kind are
+ * interchangeable, so a fleet is counted once whatever the order its identical
+ * ships were placed in. Exact counts are cheap on small boards and late in a
+ * game, when few placements remain; on an empty full-size board they are not.
+ * An enumerator is not thread-safe.
+ */
+public class PlacementEnumerator {
+    /**
+     * Memory the partial boards remembered by a single count may take, tallies
+     * and keys included, beyond which the search goes on without remembering
+     * more
+     */
+    private static final long MAX_MEMO_BYTES = 64L << 20;
+    /**
+     * Memory of a remembered partial board besides its arrays: the key and the
+     * map entry, and the headers of the arrays
+     */
+    private static final int MEMO_ENTRY_OVERHEAD = 112;
+    private static final long[] NO_FLEET = new long[0];
+
+    private static final Compass[] BEARINGS = {Compass.NORTH, Compass.SOUTH, Compass.EAST, Compass.WEST};
+
+    /**
+     * A ship of a given kind, heading a given way from a given anchor
+     */
+    public static final class Placement {
+        private final String kind;
+        private final Compass bearing;
+        private final int row;
+        private final int column;
+        private final int[] cellIndices;
+        private final long[] cells;
+        /**
+         * The cells of the placement and those around them
+         */
+        private final long[] halo;
+
+        private Placement(String kind, Compass bearing, int row, int column, int[] cellIndices, long[] cells,
+                          long[] halo) {
+            this.kind = kind;
+            this.bearing = bearing;
+            this.row = row;
+            this.column = column;
+            this.cellIndices = cellIndices;
+            this.cells = cells;
+            this.halo = halo;
+        }
+
+        /**
+         * @return The kind of the ship, as given to
+         * {@link Ship#buildShip(String, Compass, IPosition)}
+         */
+        public String getKind() {
+            return kind;
+        }
+
+        public Compass getBearing() {
+            return bearing;
+        }
+
+        /**
+         * @return The anchor position of the ship
+         */
+        public IPosition getPosition() {
+            return Positions.of(row, column);
+        }
+
+        /**
+         * @return The cells of the ship, as a bitmask over the board
+         */
+        public long[] getMask() {
+            return cells.clone();
+        }
+
+        @Override
+        public String toString() {
+            return "[" + kind + " " + bearing + " " + getPosition() + "]";
+        }
+    }
+
+    private final BoardSpec spec;
+    private final int words;
+    /**
+     * The distinct kinds of the composition, and every placement of each
+     * inside the board
+     */
+    private final String[] kinds;
+    private final Placement[][] placements;
+    /**
+     * The kind of each ship of the composition, biggest ships first and
+     * identical ones next to each other
+     */
+    private final int[] shipKinds;
+    /**
+     * Cells of the ships from the i-th one to the last
+     */
+    private final int[] cellsLeft;
+
+    private final long[] water;
+    private final long[] hits;
+
+    // per search state
+    private Placement[][] candidates;
+    private final Map<Key, long[]> memo = new HashMap<>();
+    private long memoBytes;
+    private final long[] leaf;
+
+    /**
+     * @param spec        the board the fleet is placed on
+     * @param composition the kinds of the ships of the fleet, as accepted by
+     *                    {@link Ship#buildShip(String, Compass, IPosition)}
+     */
+    public PlacementEnumerator(BoardSpec spec, String[] composition) throws IllegalArgumentException {
+        assert spec != null;
+        assert composition != null;
+
+        this.spec = spec;
+        this.words = (spec.getCellCount() + 63) / 64;
+
+        List<String> distinct = new ArrayList<>();
+        for (String kind : composition) {
+            if (Ship.kindOf(kind) < 0)
+                throw new IllegalArgumentException("ERROR! unknown ship kind: " + kind);
+            if (!distinct.contains(kind))
+                distinct.add(kind);
+        }
+        distinct.sort((a, b) -> Integer.compare(size(b), size(a)));
+        kinds = distinct.toArray(new String[0]);
+        placements = new Placement[kinds.length][];
+        for (int k = 0; k < kinds.length; k++)
+            placements[k] = enumerate(kinds[k]);
+
+        shipKinds = new int[composition.length];
+        int ship = 0;
+        for (int k = 0; k < kinds.length; k++)
+            for (String kind : composition)
+                if (kind.equals(kinds[k]))
+                    shipKinds[ship++] = k;
+        cellsLeft = new int[shipKinds.length + 1];
+        for (int i = shipKinds.length - 1; i >= 0; i--)
+            cellsLeft[i] = cellsLeft[i + 1] + size(kinds[shipKinds[i]]);
+
+        water = new long[words];
+        hits = new long[words];
+        leaf = new long[spec.getCellCount() + 1];
+        leaf[spec.getCellCount()] = 1;
+    }
+
+    private static int size(String kind) {
+        return ShipShape.of(Ship.kindOf(kind), Compass.NORTH).size();
+    }
+
+    /**
+     * This operation lists every placement of a kind of ship inside the board;
+     * bearings giving the same cells, like north and south for straight ships,
+     * are listed once
+     */
+    private Placement[] enumerate(String kind) {
+        int size = spec.getBoardSize();
+        List<ShipShape> shapes = new ArrayList<>();
+        List<Placement> found = new ArrayList<>();
+        for (Compass bearing : BEARINGS) {
+            ShipShape shape = ShipShape.of(Ship.kindOf(kind), bearing);
+            if (shapes.contains(shape))
+                continue;
+            shapes.add(shape);
+            for (int row = -shape.getTop(); row + shape.getBottom() < size; row++)
+                for (int column = -shape.getLeft(); column + shape.getRight() < size; column++) {
+                    int[] cellIndices = new int[shape.size()];
+                    long[] cells = new long[words];
+                    long[] halo = new long[words];
+                    for (int i = 0; i < shape.size(); i++) {
+                        int r = row + shape.rowOffset(i);
+                        int c = column + shape.columnOffset(i);
+                        cellIndices[i] = spec.cellIndex(r, c);
+                        set(cells, cellIndices[i]);
+                        for (int hr = r - 1; hr <= r + 1; hr++)
+                            for (int hc = c - 1; hc <= c + 1; hc++)
+                                if (spec.contains(hr, hc))
+                                    set(halo, spec.cellIndex(hr, hc));
+                    }
+                    found.add(new Placement(kind, bearing, row, column, cellIndices, cells, halo));
+                }
+        }
+        return found.toArray(new Placement[0]);
+    }
+
+    /**
+     * This operation records a shot that missed
+     *
+     * @param row    the row of the cell
+     * @param column the column of the cell
+     */
+    public void markWater(int row, int column) throws IllegalArgumentException {
+        int cell = checkedIndex(row, column);
+        set(water, cell);
+        clear(hits, cell);
+    }
+
+    /**
+     * This operation records a shot that hit a ship
+     *
+     * @param row    the row of the cell
+     * @param column the column of the cell
+     */
+    public void markHit(int row, int column) throws IllegalArgumentException {
+        int cell = checkedIndex(row, column);
+        set(hits, cell);
+        clear(water, cell);
+    }
+
+    /**
+     * This operation forgets every shot, leaving the board unknown
+     */
+    public void clearMarks() {
+        Arrays.fill(water, 0);
+        Arrays.fill(hits, 0);
+    }
+
+    private int checkedIndex(int row, int column) throws IllegalArgumentException {
+        if (!spec.contains(row, column))
+            throw new IllegalArgumentException("ERROR! position outside the board: " + Positions.of(row, column));
+        return spec.cellIndex(row, column);
+    }
+
+    /**
+     * @param kind a kind of ship of the composition
+     * @return The placements of that kind of ship which are inside the board
+     * and cover no water
+     */
+    public List<Placement> placements(String kind) throws IllegalArgumentException {
+        List<Placement> legal = new ArrayList<>();
+        for (Placement p : placements[kindIndex(kind)])
+            if (!intersects(p.cells, water))
+                legal.add(p);
+        return legal;
+    }
+
+    /**
+     * @param kind a kind of ship of the composition
+     * @return The number of placements of that kind of ship which are inside the
+     * board and cover no water
+     */
+    public int countPlacements(String kind) throws IllegalArgumentException {
+        int count = 0;
+        for (Placement p : placements[kindIndex(kind)])
+            if (!intersects(p.cells, water))
+                count++;
+        return count;
+    }
+
+    private int kindIndex(String kind) throws IllegalArgumentException {
+        for (int k = 0; k < kinds.length; k++)
+            if (kinds[k].equals(kind))
+                return k;
+        throw new IllegalArgumentException("ERROR! not a kind of the composition: " + kind);
+    }
+
+    /**
+     * @return The number of whole fleets compatible with the board
+     * @throws ArithmeticException if the count does not fit in a long
+     */
+    public long countConfigurations() throws ArithmeticException {
+        long[] tally = search();
+        return tally == null ? 0 : tally[spec.getCellCount()];
+    }
+
+    /**
+     * This operation computes the exact probability of each cell holding a
+     * ship, all the compatible fleets being equally likely
+     *
+     * @return The probabilities, by row and column; all zero if no fleet is
+     * compatible with the board
+     * @throws ArithmeticException if the counts do not fit in a long
+     */
+    public double[][] hitProbabilities() throws ArithmeticException {
+        int size = spec.getBoardSize();
+        double[][] probabilities = new double[size][size];
+        long[] tally = search();
+        if (tally == null)
+            return probabilities;
+        double total = tally[spec.getCellCount()];
+        for (int row = 0; row < size; row++)
+            for (int column = 0; column < size; column++)
+                probabilities[row][column] = tally[spec.cellIndex(row, column)] / total;
+        return probabilities;
+    }
+
+    /**
+     * @return The number of compatible fleets, at the last index, and how many
+     * of them cover each cell; null if there is none
+     */
+    private long[] search() {
+        candidates = new Placement[kinds.length][];
+        for (int k = 0; k < kinds.length; k++)
+            candidates[k] = placements(kinds[k]).toArray(new Placement[0]);
+        try {
+            return count(0, 0, new long[words], new long[words]);
+        } finally {
+            memo.clear();
+            memoBytes = 0;
+            candidates = null;
+        }
+    }
+
+    /**
+     * @param ship      the next ship to be placed
+     * @param from      the first candidate allowed for it, when it is of the same
+     *                  kind as the previous one
+     * @param forbidden the cells of the ships already placed, and around them
+     * @param covered   the hits covered by the ships already placed
+     * @return The tally of the fleets completing this partial board, or null if
+     * there is none
+     */
+    private long[] count(int ship, int from, long[] forbidden, long[] covered) {
+        // a hit that is no longer coverable, or more hits left than cells, ends the search
+        int uncovered = 0;
+        for (int w = 0; w < words; w++) {
+            long open = hits[w] & ~covered[w];
+            if ((open & forbidden[w]) != 0)
+                return null;
+            uncovered += Long.bitCount(open);
+        }
+        if (uncovered > cellsLeft[ship])
+            return null;
+        if (ship == shipKinds.length)
+            return leaf;
+
+        boolean sameKind = ship > 0 && shipKinds[ship] == shipKinds[ship - 1];
+        int start = sameKind ? from : 0;
+        Key key = new Key(ship, start, forbidden, covered);
+        long[] known = memo.get(key);
+        if (known != null)
+            return known.length == 0 ? null : known;
+
+        int n = spec.getCellCount();
+        long[] tally = null;
+        Placement[] list = candidates[shipKinds[ship]];
+        for (int p = start; p < list.length; p++) {
+            Placement placement = list[p];
+            if (intersects(placement.cells, forbidden))
+                continue;
+            long[] nextForbidden = new long[words];
+            long[] nextCovered = new long[words];
+            for (int w = 0; w < words; w++) {
+                nextForbidden[w] = forbidden[w] | placement.halo[w];
+                nextCovered[w] = covered[w] | (placement.cells[w] & hits[w]);
+            }
+            long[] sub = count(ship + 1, p + 1, nextForbidden, nextCovered);
+            if (sub == null)
+                continue;
+            if (tally == null)
+                tally = new long[n + 1];
+            for (int i = 0; i <= n; i++)
+                tally[i] = Math.addExact(tally[i], sub[i]);
+            for (int cell : placement.cellIndices)
+                tally[cell] = Math.addExact(tally[cell], sub[n]);
+        }
+
+        long bytes = MEMO_ENTRY_OVERHEAD + 8L * (2 * words + (tally == null ? 0 : tally.length));
+        if (memoBytes + bytes <= MAX_MEMO_BYTES) {
+            memo.put(key, tally == null ? NO_FLEET : tally);
+            memoBytes += bytes;
+        }
+        return tally;
+    }
+
+    private static boolean intersects(long[] a, long[] b) {
+        for (int w = 0; w < a.length; w++)
+            if ((a[w] & b[w]) != 0)
+                return true;
+        return false;
+    }
+
+    private static void set(long[] mask, int bit) {
+        mask[bit >>> 6] |= 1L << bit;
+    }
+
+    private static void clear(long[] mask, int bit) {
+        mask[bit >>> 6] &= ~(1L << bit);
+    }
+
+    /**
+     * A partial board of the search
+     */
+    private static final class Key {
+        private final int ship;
+        private final int from;
+        private final long[] forbidden;
+        private final long[] covered;
+        private final int hash;
+
+        Key(int ship, int from, long[] forbidden, long[] covered) {
+            this.ship = ship;
+            this.from = from;
+            this.forbidden = forbidden;
+            this.covered = covered;
+            this.hash = 31 * (31 * (31 * ship + from) + Arrays.hashCode(forbidden)) + Arrays.hashCode(covered);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key))
+                return false;
+            Key key = (Key) other;
+            return ship == key.ship && from == key.from && Arrays.equals(forbidden, key.forbidden)
+                    && Arrays.equals(covered, key.covered);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+/**
+ * A way of placing a fleet on the board, as played in a {@link Tournament}.
+ * <p>
+ * A strategy instance places one fleet at a time and need not be thread-safe.
+ */
+public interface PlacementStrategy {
+    /**
+     * This operation empties the given fleet and places a whole fleet on it
+     *
+     * @param fleet the fleet to be filled
+     * @param seed  seed for any randomness the strategy uses
+     */
+    void place(Fleet fleet, long seed);
+}
@@ -3,8 +3,6 @@
  */
 package iscteiul.ista.battleship;
 
-import java.util.Objects;
-
 public class Position implements IPosition {
     private int row;
     private int column;
@@ -44,7 +42,7 @@ public class Position implements IPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(column, isHit, isOccupied, row);
+        return Positions.hash(row, column);
     }
 
     /*
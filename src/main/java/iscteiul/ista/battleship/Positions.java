@@ -0,0 +1,117 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+/**
+ * Shared, immutable board coordinates.
+ * <p>
+ * {@link #of(int, int)} hands out the same instance for every call with the
+ * same coordinates inside the cached area, so shots and ship anchors can be
+ * described without allocating. These positions carry no state: they cannot
+ * be occupied nor shot, the hit state of a cell being kept by the ship that
+ * occupies it.
+ */
+public final class Positions {
+    /**
+     * Side of the square area, starting at (0,0), whose positions are cached
+     */
+    public static final int CACHED_SIZE = 128;
+
+    private static final IPosition[] CACHE = new IPosition[CACHED_SIZE * CACHED_SIZE];
+
+    static {
+        for (int r = 0; r < CACHED_SIZE; r++)
+            for (int c = 0; c < CACHED_SIZE; c++)
+                CACHE[r * CACHED_SIZE + c] = new Coordinate(r, c);
+    }
+
+    private Positions() {
+    }
+
+    /**
+     * @param row    the row of the position
+     * @param column the column of the position
+     * @return An immutable position, shared for coordinates inside the cached area
+     */
+    public static IPosition of(int row, int column) {
+        if (row >= 0 && row < CACHED_SIZE && column >= 0 && column < CACHED_SIZE)
+            return CACHE[row * CACHED_SIZE + column];
+        return new Coordinate(row, column);
+    }
+
+    /**
+     * The hash code of every {@link IPosition} implementation of the game, which
+     * depends on the coordinates only, as equality does
+     */
+    static int hash(int row, int column) {
+        return 31 * row + column;
+    }
+
+    private static final class Coordinate implements IPosition {
+        private final int row;
+        private final int column;
+
+        private Coordinate(int row, int column) {
+            this.row = row;
+            this.column = column;
+        }
+
+        @Override
+        public int getRow() {
+            return row;
+        }
+
+        @Override
+        public int getColumn() {
+            return column;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash(row, column);
+        }
+
+        @Override
+        public boolean equals(Object otherPosition) {
+            if (this == otherPosition)
+                return true;
+            if (otherPosition instanceof IPosition) {
+                IPosition other = (IPosition) otherPosition;
+                return (row == other.getRow() && column == other.getColumn());
+            } else {
+                return false;
+            }
+        }
+
+        @Override
+        public boolean isAdjacentTo(IPosition other) {
+            return (Math.abs(row - other.getRow()) <= 1 && Math.abs(column - other.getColumn()) <= 1);
+        }
+
+        @Override
+        public void occupy() {
+            throw new UnsupportedOperationException("ERROR! shared positions cannot be occupied");
+        }
+
+        @Override
+        public void shoot() {
+            throw new UnsupportedOperationException("ERROR! shared positions cannot be shot");
+        }
+
+        @Override
+        public boolean isOccupied() {
+            return false;
+        }
+
+        @Override
+        public boolean isHit() {
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return ("Linha = " + row + " Coluna = " + column);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fires at the cell covered by the largest number of ship placements still
+ * compatible with what is known about the board.
+ * <p>
+ * Every placement (kind, bearing, anchor) of the fleet's ships is enumerated
+ * once per board. The density of each cell is then kept up to date as shots
+ * come in: a miss, or water next to a sunk ship, only removes the placements
+ * covering that cell, and a hit only touches the placements through it.
+ * Placements through unsunk hits are favoured, which makes the strategy target
+ * a ship as soon as it has been found.
+ */
+public class ProbabilityDensityStrategy implements ShotStrategy {
+    /**
+     * Weight of a placement through a hit, relative to a plain placement
+     */
+    private static final long HIT_BONUS = 1000;
+
+    private static final byte UNKNOWN = 0;
+    private static final byte WATER = 1;
+    private static final byte HIT = 2;
+    private static final byte SUNK = 3;
+
+    private static final Compass[] BEARINGS = {Compass.NORTH, Compass.SOUTH, Compass.EAST, Compass.WEST};
+
+    /**
+     * The distinct kinds of the composition, their categories and how many
+     * ships of each there are
+     */
+    private final String[] kinds;
+    private final int[] shapeKinds;
+    private final String[] categories;
+    private final int[] fleetCount;
+
+    private final SplitMix64 random = new SplitMix64(0);
+    private BoardSpec spec;
+
+    // placements, enumerated once per board
+    private int[] placementKind = new int[0];
+    private int[] placementStart = new int[1];
+    private int[] placementCells = new int[0];
+    // placements covering each cell
+    private int[] coverStart = new int[1];
+    private int[] coverPlacements = new int[0];
+
+    // per game state
+    private byte[] cells = new byte[0];
+    private boolean[] alive = new boolean[0];
+    private int[] hitsIn = new int[0];
+    private int[] remaining;
+    /**
+     * Per cell: sum of the weights of the live placements covering it, and of
+     * their hits
+     */
+    private long[] density = new long[0];
+    private long[] hitDensity = new long[0];
+
+    public ProbabilityDensityStrategy() {
+        this(FleetGenerator.STANDARD_COMPOSITION);
+    }
+
+    /**
+     * @param composition the kinds of the ships to be found, as accepted by
+     *                    {@link Ship#buildShip(String, Compass, IPosition)}
+     */
+    public ProbabilityDensityStrategy(String[] composition) throws IllegalArgumentException {
+        assert composition != null;
+
+        List<String> distinct = new ArrayList<>();
+        for (String kind : composition)
+            if (!distinct.contains(kind))
+                distinct.add(kind);
+        kinds = distinct.toArray(new String[0]);
+        categories = new String[kinds.length];
+        fleetCount = new int[kinds.length];
+        shapeKinds = new int[kinds.length];
+        for (int k = 0; k < kinds.length; k++) {
+            shapeKinds[k] = Ship.kindOf(kinds[k]);
+            if (shapeKinds[k] < 0)
+                throw new IllegalArgumentException("ERROR! unknown ship kind: " + kinds[k]);
+            categories[k] = Ship.buildShip(shapeKinds[k], Compass.NORTH, Positions.of(0, 0)).getCategory();
+        }
+        for (String kind : composition)
+            fleetCount[distinct.indexOf(kind)]++;
+        remaining = new int[kinds.length];
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.ShotStrategy#newGame(battleship.BoardSpec, long)
+     */
+    @Override
+    public void newGame(BoardSpec spec, long seed) {
+        if (!spec.equals(this.spec)) {
+            this.spec = spec;
+            enumeratePlacements();
+        }
+        random.reseed(seed);
+
+        Arrays.fill(cells, UNKNOWN);
+        Arrays.fill(alive, true);
+        Arrays.fill(hitsIn, 0);
+        Arrays.fill(density, 0);
+        Arrays.fill(hitDensity, 0);
+        System.arraycopy(fleetCount, 0, remaining, 0, kinds.length);
+        for (int p = 0; p < placementKind.length; p++) {
+            long weight = remaining[placementKind[p]];
+            for (int i = placementStart[p]; i < placementStart[p + 1]; i++)
+                density[placementCells[i]] += weight;
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.ShotStrategy#nextShot()
+     */
+    @Override
+    public IPosition nextShot() throws IllegalStateException {
+        int n = cells.length;
+        // ties are broken by starting the scan at a random cell
+        int start = random.nextInt(n);
+        int best = -1;
+        long bestScore = -1;
+        for (int k = 0; k < n; k++) {
+            int cell = start + k < n ? start + k : start + k - n;
+            if (cells[cell] != UNKNOWN)
+                continue;
+            long score = density[cell] + HIT_BONUS * hitDensity[cell];
+            if (score > bestScore) {
+                bestScore = score;
+                best = cell;
+            }
+        }
+        if (best < 0)
+            throw new IllegalStateException("ERROR! every cell has already been fired at");
+        int size = spec.getBoardSize();
+        return Positions.of(best / size, best % size);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.ShotStrategy#shotResult(battleship.IPosition, boolean, battleship.IShip)
+     */
+    @Override
+    public void shotResult(IPosition pos, boolean hit, IShip sunk) {
+        if (!spec.contains(pos.getRow(), pos.getColumn()))
+            return;
+
+        int cell = spec.cellIndex(pos.getRow(), pos.getColumn());
+        if (!hit) {
+            markWater(cell);
+            return;
+        }
+
+        cells[cell] = HIT;
+        for (int i = coverStart[cell]; i < coverStart[cell + 1]; i++) {
+            int p = coverPlacements[i];
+            if (alive[p]) {
+                hitsIn[p]++;
+                for (int j = placementStart[p]; j < placementStart[p + 1]; j++)
+                    hitDensity[placementCells[j]]++;
+            }
+        }
+
+        if (sunk != null)
+            shipSunk(sunk);
+    }
+
+    private void shipSunk(IShip sunk) {
+        // the sunk ship's cells are now accounted for, and its surroundings are water
+        for (IPosition p : sunk.getPositions()) {
+            int row = p.getRow();
+            int column = p.getColumn();
+            for (int r = row - 1; r <= row + 1; r++)
+                for (int c = column - 1; c <= column + 1; c++)
+                    if (spec.contains(r, c) && cells[spec.cellIndex(r, c)] == UNKNOWN)
+                        markWater(spec.cellIndex(r, c));
+        }
+        for (IPosition p : sunk.getPositions())
+            if (spec.contains(p.getRow(), p.getColumn())) {
+                int cell = spec.cellIndex(p.getRow(), p.getColumn());
+                cells[cell] = SUNK;
+                killCovering(cell);
+            }
+
+        // one ship fewer of that kind is left to be found
+        for (int k = 0; k < kinds.length; k++)
+            if (categories[k].equals(sunk.getCategory()) && remaining[k] > 0) {
+                remaining[k]--;
+                for (int p = 0; p < placementKind.length; p++)
+                    if (placementKind[p] == k && alive[p]) {
+                        for (int j = placementStart[p]; j < placementStart[p + 1]; j++)
+                            density[placementCells[j]]--;
+                        if (remaining[k] == 0) {
+                            alive[p] = false;
+                            for (int j = placementStart[p]; j < placementStart[p + 1]; j++)
+                                hitDensity[placementCells[j]] -= hitsIn[p];
+                        }
+                    }
+                break;
+            }
+    }
+
+    private void markWater(int cell) {
+        cells[cell] = WATER;
+        killCovering(cell);
+    }
+
+    private void killCovering(int cell) {
+        for (int i = coverStart[cell]; i < coverStart[cell + 1]; i++)
+            if (alive[coverPlacements[i]])
+                kill(coverPlacements[i]);
+    }
+
+    private void kill(int p) {
+        alive[p] = false;
+        long weight = remaining[placementKind[p]];
+        for (int j = placementStart[p]; j < placementStart[p + 1]; j++) {
+            density[placementCells[j]] -= weight;
+            hitDensity[placementCells[j]] -= hitsIn[p];
+        }
+    }
+
+    /**
+     * This operation lists every placement of every kind of ship on the board,
+     * and for each cell the placements covering it
+     */
+    private void enumeratePlacements() {
+        int size = spec.getBoardSize();
+        int n = spec.getCellCount();
+        List<int[]> found = new ArrayList<>();
+        List<Integer> foundKinds = new ArrayList<>();
+        for (int k = 0; k < kinds.length; k++) {
+            List<ShipShape> shapes = new ArrayList<>();
+            for (Compass bearing : BEARINGS) {
+                ShipShape shape = ShipShape.of(shapeKinds[k], bearing);
+                // bearings giving the same cells (north and south for straight ships) share their shape
+                if (shapes.contains(shape))
+                    continue;
+                shapes.add(shape);
+                for (int row = -shape.getTop(); row + shape.getBottom() < size; row++)
+                    for (int column = -shape.getLeft(); column + shape.getRight() < size; column++) {
+                        int[] placement = new int[shape.size()];
+                        for (int i = 0; i < shape.size(); i++)
+                            placement[i] = spec.cellIndex(row + shape.rowOffset(i), column + shape.columnOffset(i));
+                        found.add(placement);
+                        foundKinds.add(k);
+                    }
+            }
+        }
+
+        int count = found.size();
+        placementKind = new int[count];
+        placementStart = new int[count + 1];
+        int total = 0;
+        for (int p = 0; p < count; p++) {
+            placementKind[p] = foundKinds.get(p);
+            placementStart[p] = total;
+            total += found.get(p).length;
+        }
+        placementStart[count] = total;
+        placementCells = new int[total];
+        coverStart = new int[n + 1];
+        for (int p = 0; p < count; p++) {
+            int[] placement = found.get(p);
+            System.arraycopy(placement, 0, placementCells, placementStart[p], placement.length);
+            for (int cell : placement)
+                coverStart[cell + 1]++;
+        }
+        for (int cell = 0; cell < n; cell++)
+            coverStart[cell + 1] += coverStart[cell];
+        coverPlacements = new int[total];
+        int[] next = Arrays.copyOf(coverStart, n);
+        for (int p = 0; p < count; p++)
+            for (int j = placementStart[p]; j < placementStart[p + 1]; j++)
+                coverPlacements[next[placementCells[j]]++] = p;
+
+        cells = new byte[n];
+        alive = new boolean[count];
+        hitsIn = new int[count];
+        density = new long[n];
+        hitDensity = new long[n];
+    }
+}
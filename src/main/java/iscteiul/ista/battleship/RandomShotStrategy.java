@@ -0,0 +1,58 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+/**
+ * Fires at every cell of the board once, in a random order
+ */
+public class RandomShotStrategy implements ShotStrategy {
+    private int[] cells = new int[0];
+    private int boardSize;
+    private int fired;
+    private final SplitMix64 random = new SplitMix64(0);
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.ShotStrategy#newGame(battleship.BoardSpec, long)
+     */
+    @Override
+    public void newGame(BoardSpec spec, long seed) {
+        boardSize = spec.getBoardSize();
+        if (cells.length != spec.getCellCount())
+            cells = new int[spec.getCellCount()];
+        for (int i = 0; i < cells.length; i++)
+            cells[i] = i;
+        fired = 0;
+        random.reseed(seed);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.ShotStrategy#nextShot()
+     */
+    @Override
+    public IPosition nextShot() throws IllegalStateException {
+        if (fired == cells.length)
+            throw new IllegalStateException("ERROR! every cell has already been fired at");
+
+        // one step of a Fisher-Yates shuffle, drawn lazily
+        int pick = fired + random.nextInt(cells.length - fired);
+        int cell = cells[pick];
+        cells[pick] = cells[fired];
+        cells[fired++] = cell;
+        return Positions.of(cell / boardSize, cell % boardSize);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.ShotStrategy#shotResult(battleship.IPosition, boolean, battleship.IShip)
+     */
+    @Override
+    public void shotResult(IPosition pos, boolean hit, IShip sunk) {
+        // random shooting ignores what it hits
+    }
+}
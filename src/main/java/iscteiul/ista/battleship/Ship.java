@@ -3,7 +3,7 @@
  */
 package iscteiul.ista.battleship;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
@@ -15,28 +15,45 @@ public abstract class Ship implements IShip {
     private static final String CARAVELA = "caravela";
     private static final String BARCA = "barca";
 
+    /**
+     * The names of the kinds of ship, indexed by the {@link ShipShape} kind
+     * constants
+     */
+    static final String[] KIND_NAMES = {BARCA, CARAVELA, NAU, FRAGATA, GALEAO};
+
     /**
      * @param shipKind
      * @param bearing
      * @param pos
      * @return
      */
-    static Ship buildShip(String shipKind, Compass bearing, Position pos) {
+    static Ship buildShip(String shipKind, Compass bearing, IPosition pos) {
+        int kind = kindOf(shipKind);
+        return kind < 0 ? null : buildShip(kind, bearing, pos);
+    }
+
+    /**
+     * @param kind    one of the {@link ShipShape} kind constants
+     * @param bearing
+     * @param pos
+     * @return
+     */
+    static Ship buildShip(int kind, Compass bearing, IPosition pos) {
         Ship s;
-        switch (shipKind) {
-            case BARCA:
+        switch (kind) {
+            case ShipShape.BARCA:
                 s = new Barge(bearing, pos);
                 break;
-            case CARAVELA:
+            case ShipShape.CARAVELA:
                 s = new Caravel(bearing, pos);
                 break;
-            case NAU:
+            case ShipShape.NAU:
                 s = new Carrack(bearing, pos);
                 break;
-            case FRAGATA:
+            case ShipShape.FRAGATA:
                 s = new Frigate(bearing, pos);
                 break;
-            case GALEAO:
+            case ShipShape.GALEAO:
                 s = new Galleon(bearing, pos);
                 break;
             default:
@@ -45,11 +62,45 @@ public abstract class Ship implements IShip {
         return s;
     }
 
+    /**
+     * @param shipKind the name of a kind of ship, as given to
+     *                 {@link #buildShip(String, Compass, IPosition)}
+     * @return The matching {@link ShipShape} kind constant, or -1 if there is none
+     */
+    static int kindOf(String shipKind) {
+        switch (shipKind) {
+            case BARCA:
+                return ShipShape.BARCA;
+            case CARAVELA:
+                return ShipShape.CARAVELA;
+            case NAU:
+                return ShipShape.NAU;
+            case FRAGATA:
+                return ShipShape.FRAGATA;
+            case GALEAO:
+                return ShipShape.GALEAO;
+            default:
+                return -1;
+        }
+    }
+
 
     private String category;
     private Compass bearing;
     private IPosition pos;
-    protected List<IPosition> positions;
+    private int row;
+    private int column;
+    private ShipShape shape;
+    /**
+     * Views of the cells of the ship, only built when asked for
+     */
+    private List<IPosition> positions;
+    /**
+     * One bit per cell of the shape, set once the cell has been hit
+     */
+    private int hitMask;
+    private int hits;
+    private Fleet owner;
 
 
     /**
@@ -64,7 +115,42 @@ public abstract class Ship implements IShip {
         this.category = category;
         this.bearing = bearing;
         this.pos = pos;
-        positions = new ArrayList<>();
+        this.row = pos.getRow();
+        this.column = pos.getColumn();
+    }
+
+    /**
+     * This operation lays the ship out; subclasses call it once, from their
+     * constructor
+     *
+     * @param shape The cells of the ship, relative to its anchor position
+     */
+    protected void setShape(ShipShape shape) {
+        assert shape != null && this.shape == null;
+
+        this.shape = shape;
+    }
+
+    /**
+     * This operation lays the ship out anew, at another position and bearing,
+     * with no cell hit, so that the ship can be placed again once its fleet has
+     * been cleared
+     *
+     * @param bearing the new bearing
+     * @param pos     the new anchor position
+     */
+    void moveTo(Compass bearing, IPosition pos) {
+        assert bearing != null;
+        assert pos != null;
+        assert owner == null;
+
+        this.bearing = bearing;
+        this.pos = pos;
+        this.row = pos.getRow();
+        this.column = pos.getColumn();
+        this.shape = ShipShape.of(shape.getKind(), bearing);
+        hitMask = 0;
+        hits = 0;
     }
 
     /*
@@ -81,9 +167,54 @@ public abstract class Ship implements IShip {
      * @return the positions
      */
     public List<IPosition> getPositions() {
+        if (positions == null) {
+            IPosition[] cells = new IPosition[shape.size()];
+            for (int i = 0; i < cells.length; i++)
+                cells[i] = new Cell(i);
+            positions = Arrays.asList(cells);
+        }
         return positions;
     }
 
+    /**
+     * @return The kind of the ship, one of the {@link ShipShape} kind constants
+     */
+    int getKind() {
+        return shape.getKind();
+    }
+
+    /**
+     * @return The number of cells of the ship
+     */
+    int cellCount() {
+        return shape.size();
+    }
+
+    /**
+     * @return The row of the i-th cell of the ship
+     */
+    int cellRow(int i) {
+        return row + shape.rowOffset(i);
+    }
+
+    /**
+     * @return The column of the i-th cell of the ship
+     */
+    int cellColumn(int i) {
+        return column + shape.columnOffset(i);
+    }
+
+    /**
+     * @return true if every cell of the ship lies on a board of the given side,
+     * reckoned in long arithmetic so that a ship past the last row or column
+     * of the largest boards does not wrap around
+     */
+    boolean liesWithin(int boardSize) {
+        long last = boardSize - 1L;
+        return (long) row + shape.getTop() >= 0 && (long) row + shape.getBottom() <= last
+                && (long) column + shape.getLeft() >= 0 && (long) column + shape.getRight() <= last;
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -111,10 +242,31 @@ public abstract class Ship implements IShip {
      */
     @Override
     public boolean stillFloating() {
-        for (int i = 0; i < getSize(); i++)
-            if (!getPositions().get(i).isHit())
-                return true;
-        return false;
+        return hits < shape.size();
+    }
+
+    /**
+     * This operation registers the fleet to be told when this ship sinks. A ship
+     * reports to a single fleet, the first one to claim it
+     *
+     * @param fleet The fleet the ship has been added to
+     * @return true if the fleet is now the owner of the ship
+     */
+    boolean claim(Fleet fleet) {
+        if (owner != null)
+            return false;
+        owner = fleet;
+        return true;
+    }
+
+    /**
+     * This operation stops reporting to the given fleet, if it owns the ship
+     *
+     * @param fleet The fleet the ship is being removed from
+     */
+    void release(Fleet fleet) {
+        if (owner == fleet)
+            owner = null;
     }
 
     /*
@@ -124,11 +276,7 @@ public abstract class Ship implements IShip {
      */
     @Override
     public int getTopMostPos() {
-        int top = getPositions().get(0).getRow();
-        for (int i = 1; i < getSize(); i++)
-            if (getPositions().get(i).getRow() < top)
-                top = getPositions().get(i).getRow();
-        return top;
+        return row + shape.getTop();
     }
 
     /*
@@ -138,11 +286,7 @@ public abstract class Ship implements IShip {
      */
     @Override
     public int getBottomMostPos() {
-        int bottom = getPositions().get(0).getRow();
-        for (int i = 1; i < getSize(); i++)
-            if (getPositions().get(i).getRow() > bottom)
-                bottom = getPositions().get(i).getRow();
-        return bottom;
+        return row + shape.getBottom();
     }
 
     /*
@@ -152,11 +296,7 @@ public abstract class Ship implements IShip {
      */
     @Override
     public int getLeftMostPos() {
-        int left = getPositions().get(0).getColumn();
-        for (int i = 1; i < getSize(); i++)
-            if (getPositions().get(i).getColumn() < left)
-                left = getPositions().get(i).getColumn();
-        return left;
+        return column + shape.getLeft();
     }
 
     /*
@@ -166,11 +306,7 @@ public abstract class Ship implements IShip {
      */
     @Override
     public int getRightMostPos() {
-        int right = getPositions().get(0).getColumn();
-        for (int i = 1; i < getSize(); i++)
-            if (getPositions().get(i).getColumn() > right)
-                right = getPositions().get(i).getColumn();
-        return right;
+        return column + shape.getRight();
     }
 
     /*
@@ -182,10 +318,7 @@ public abstract class Ship implements IShip {
     public boolean occupies(IPosition pos) {
         assert pos != null;
 
-        for (int i = 0; i < getSize(); i++)
-            if (getPositions().get(i).equals(pos))
-                return true;
-        return false;
+        return shape.indexOf(pos.getRow() - row, pos.getColumn() - column) >= 0;
     }
 
     /*
@@ -197,6 +330,14 @@ public abstract class Ship implements IShip {
     public boolean tooCloseTo(IShip other) {
         assert other != null;
 
+        if (other instanceof Ship) {
+            Ship ship = (Ship) other;
+            for (int i = 0; i < ship.cellCount(); i++)
+                if (tooCloseTo(ship.cellRow(i), ship.cellColumn(i)))
+                    return true;
+            return false;
+        }
+
         Iterator<IPosition> otherPos = other.getPositions().iterator();
         while (otherPos.hasNext())
             if (tooCloseTo(otherPos.next()))
@@ -212,8 +353,15 @@ public abstract class Ship implements IShip {
      */
     @Override
     public boolean tooCloseTo(IPosition pos) {
-        for (int i = 0; i < this.getSize(); i++)
-            if (getPositions().get(i).isAdjacentTo(pos))
+        return tooCloseTo(pos.getRow(), pos.getColumn());
+    }
+
+    private boolean tooCloseTo(int r, int c) {
+        if (r < getTopMostPos() - 1 || r > getBottomMostPos() + 1 || c < getLeftMostPos() - 1
+                || c > getRightMostPos() + 1)
+            return false;
+        for (int i = 0; i < shape.size(); i++)
+            if (Math.abs(cellRow(i) - r) <= 1 && Math.abs(cellColumn(i) - c) <= 1)
                 return true;
         return false;
     }
@@ -228,10 +376,47 @@ public abstract class Ship implements IShip {
     public void shoot(IPosition pos) {
         assert pos != null;
 
-        for (IPosition position : getPositions()) {
-            if (position.equals(pos))
-                position.shoot();
-        }
+        int i = shape.indexOf(pos.getRow() - row, pos.getColumn() - column);
+        if (i >= 0)
+            hitCell(i);
+    }
+
+    /**
+     * @return A new ship with the same placement and hit cells, which does not
+     * report to any fleet yet
+     */
+    Ship fork() {
+        Ship copy = buildShip(shape.getKind(), bearing, pos);
+        copy.hitMask = hitMask;
+        copy.hits = hits;
+        return copy;
+    }
+
+    /**
+     * @return One bit per cell of the ship, in the order of its shape, set if
+     * the cell has been hit
+     */
+    int getHitMask() {
+        return hitMask;
+    }
+
+    /**
+     * This operation hits the cells given by a mask, as returned by
+     * {@link #getHitMask()}
+     */
+    void hitCells(int mask) {
+        for (int i = 0; i < shape.size(); i++)
+            if ((mask & (1 << i)) != 0)
+                hitCell(i);
+    }
+
+    private void hitCell(int i) {
+        if ((hitMask & (1 << i)) != 0)
+            return;
+        hitMask |= 1 << i;
+        hits++;
+        if (hits == shape.size() && owner != null)
+            owner.shipSunk();
     }
 
 
@@ -240,4 +425,71 @@ public abstract class Ship implements IShip {
         return "[" + category + " " + bearing + " " + pos + "]";
     }
 
+    /**
+     * A cell of the ship, whose hit state is kept by the ship itself
+     */
+    private final class Cell implements IPosition {
+        private final int index;
+
+        private Cell(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int getRow() {
+            return cellRow(index);
+        }
+
+        @Override
+        public int getColumn() {
+            return cellColumn(index);
+        }
+
+        @Override
+        public int hashCode() {
+            return Positions.hash(getRow(), getColumn());
+        }
+
+        @Override
+        public boolean equals(Object otherPosition) {
+            if (this == otherPosition)
+                return true;
+            if (otherPosition instanceof IPosition) {
+                IPosition other = (IPosition) otherPosition;
+                return (getRow() == other.getRow() && getColumn() == other.getColumn());
+            } else {
+                return false;
+            }
+        }
+
+        @Override
+        public boolean isAdjacentTo(IPosition other) {
+            return (Math.abs(getRow() - other.getRow()) <= 1 && Math.abs(getColumn() - other.getColumn()) <= 1);
+        }
+
+        @Override
+        public void occupy() {
+        }
+
+        @Override
+        public void shoot() {
+            hitCell(index);
+        }
+
+        @Override
+        public boolean isOccupied() {
+            return true;
+        }
+
+        @Override
+        public boolean isHit() {
+            return (hitMask & (1 << index)) != 0;
+        }
+
+        @Override
+        public String toString() {
+            return ("Linha = " + getRow() + " Coluna = " + getColumn());
+        }
+    }
+
 }
\ No newline at end of file
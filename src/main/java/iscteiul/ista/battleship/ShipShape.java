@@ -0,0 +1,158 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+/**
+ * The cells of a kind of ship heading a given way, as offsets from its anchor.
+ * <p>
+ * Shapes are built once, when the class is loaded, and shared by every ship
+ * of that kind and bearing. Bearings giving the same cells share the same
+ * instance: north and south for straight ships, every bearing for the barge.
+ * Each offset is packed in a single int, the row in the upper half and the
+ * column in the lower one.
+ */
+final class ShipShape {
+    static final int BARCA = 0;
+    static final int CARAVELA = 1;
+    static final int NAU = 2;
+    static final int FRAGATA = 3;
+    static final int GALEAO = 4;
+    static final int KINDS = 5;
+
+    private static final ShipShape[][] SHAPES = new ShipShape[KINDS][Compass.values().length];
+
+    static {
+        ShipShape barge = new ShipShape(BARCA, 0, 0);
+        for (Compass bearing : Compass.values())
+            SHAPES[BARCA][bearing.ordinal()] = barge;
+        straight(CARAVELA, 2);
+        straight(NAU, 3);
+        straight(FRAGATA, 4);
+        SHAPES[GALEAO][Compass.NORTH.ordinal()] = new ShipShape(GALEAO, 0, 0, 0, 1, 0, 2, 1, 1, 2, 1);
+        SHAPES[GALEAO][Compass.SOUTH.ordinal()] = new ShipShape(GALEAO, 0, 0, 1, 0, 2, -1, 2, 0, 2, 1);
+        SHAPES[GALEAO][Compass.EAST.ordinal()] = new ShipShape(GALEAO, 0, 0, 1, -2, 1, -1, 1, 0, 2, 0);
+        SHAPES[GALEAO][Compass.WEST.ordinal()] = new ShipShape(GALEAO, 0, 0, 1, 0, 1, 1, 1, 2, 2, 0);
+    }
+
+    private static void straight(int kind, int size) {
+        int[] vertical = new int[2 * size];
+        int[] horizontal = new int[2 * size];
+        for (int i = 0; i < size; i++) {
+            vertical[2 * i] = i;
+            horizontal[2 * i + 1] = i;
+        }
+        ShipShape northSouth = new ShipShape(kind, vertical);
+        ShipShape eastWest = new ShipShape(kind, horizontal);
+        SHAPES[kind][Compass.NORTH.ordinal()] = northSouth;
+        SHAPES[kind][Compass.SOUTH.ordinal()] = northSouth;
+        SHAPES[kind][Compass.EAST.ordinal()] = eastWest;
+        SHAPES[kind][Compass.WEST.ordinal()] = eastWest;
+    }
+
+    /**
+     * @param kind    one of the kind constants
+     * @param bearing the bearing of the ship
+     * @return The shape of that kind of ship with that bearing, or null if the
+     * kind cannot head that way
+     */
+    static ShipShape of(int kind, Compass bearing) {
+        assert kind >= 0 && kind < KINDS;
+
+        if (bearing == null)
+            return null;
+        return SHAPES[kind][bearing.ordinal()];
+    }
+
+    private final int kind;
+    private final int[] offsets;
+    private final int top;
+    private final int bottom;
+    private final int left;
+    private final int right;
+
+    /**
+     * @param kind           the kind of ship with this shape
+     * @param rowsAndColumns the row and column offsets of each cell, in turn
+     */
+    private ShipShape(int kind, int... rowsAndColumns) {
+        this.kind = kind;
+        offsets = new int[rowsAndColumns.length / 2];
+        int top = 0, bottom = 0, left = 0, right = 0;
+        for (int i = 0; i < offsets.length; i++) {
+            int row = rowsAndColumns[2 * i];
+            int column = rowsAndColumns[2 * i + 1];
+            offsets[i] = pack(row, column);
+            top = Math.min(top, row);
+            bottom = Math.max(bottom, row);
+            left = Math.min(left, column);
+            right = Math.max(right, column);
+        }
+        this.top = top;
+        this.bottom = bottom;
+        this.left = left;
+        this.right = right;
+    }
+
+    private static int pack(int row, int column) {
+        return (row << 16) | (column & 0xFFFF);
+    }
+
+    /**
+     * @return The kind of ship with this shape
+     */
+    int getKind() {
+        return kind;
+    }
+
+    /**
+     * @return The number of cells of the shape
+     */
+    int size() {
+        return offsets.length;
+    }
+
+    /**
+     * @return The row offset of the i-th cell
+     */
+    int rowOffset(int i) {
+        return offsets[i] >> 16;
+    }
+
+    /**
+     * @return The column offset of the i-th cell
+     */
+    int columnOffset(int i) {
+        return (short) offsets[i];
+    }
+
+    int getTop() {
+        return top;
+    }
+
+    int getBottom() {
+        return bottom;
+    }
+
+    int getLeft() {
+        return left;
+    }
+
+    int getRight() {
+        return right;
+    }
+
+    /**
+     * @return The index of the cell with the given offsets, or -1 if the shape
+     * has no such cell
+     */
+    int indexOf(int rowOffset, int columnOffset) {
+        if (rowOffset < top || rowOffset > bottom || columnOffset < left || columnOffset > right)
+            return -1;
+        int packed = pack(rowOffset, columnOffset);
+        for (int i = 0; i < offsets.length; i++)
+            if (offsets[i] == packed)
+                return i;
+        return -1;
+    }
+}
@@ -0,0 +1,19 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+/**
+ * A game that tells the outcome of each shot it fires, so that a wrapper need
+ * not work it out from counters that other threads may be moving too
+ */
+interface ShotOutcomes {
+    /**
+     * This operation fires a shot, as {@link IGame#fire(IPosition)} does
+     *
+     * @param outcome an array whose first element is set to the outcome of the
+     *                shot, one of the IGame.SHOT_ constants
+     * @return The ship sunk by the shot, or null
+     */
+    IShip fire(IPosition pos, byte[] outcome);
+}
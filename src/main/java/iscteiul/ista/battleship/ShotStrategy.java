@@ -0,0 +1,36 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+/**
+ * A way of choosing where to fire next, driven by the outcome of the previous
+ * shots.
+ * <p>
+ * A strategy instance plays one game at a time and is reused from game to game
+ * through {@link #newGame(BoardSpec, long)}; it need not be thread-safe.
+ */
+public interface ShotStrategy {
+    /**
+     * This operation forgets the previous game and gets ready for a new one
+     *
+     * @param spec the board of the new game
+     * @param seed seed for any randomness the strategy uses
+     */
+    void newGame(BoardSpec spec, long seed);
+
+    /**
+     * @return The position to fire at next
+     */
+    IPosition nextShot();
+
+    /**
+     * This operation reports the outcome of firing at a position given by
+     * {@link #nextShot()}
+     *
+     * @param pos  the position fired at
+     * @param hit  true if a ship was hit (for the first time at that position)
+     * @param sunk the ship sunk by this shot, or null
+     */
+    void shotResult(IPosition pos, boolean hit, IShip sunk);
+}
@@ -0,0 +1,175 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Aggregated outcome of a batch of simulated games: shots needed to sink the
+ * whole fleet, hit rate and the order in which each category of ship went down
+ */
+public class SimulationStatistics {
+    /**
+     * Initial length of the histogram, which grows up to the longest game
+     * actually won rather than the longest possible one
+     */
+    private static final int INITIAL_SHOTS = 256;
+
+    private final int maxShots;
+    /**
+     * Number of games won in each number of shots
+     */
+    private int[] shotsToWin;
+    private long games;
+    private long unfinishedGames;
+    private long shots;
+    private long hits;
+    /**
+     * Per category: sum of the ranks (1 for the first ship sunk in a game) and
+     * number of ships sunk
+     */
+    private final Map<String, long[]> sinkRanks = new TreeMap<>();
+
+    /**
+     * @param maxShots the largest number of shots a game may last
+     */
+    SimulationStatistics(int maxShots) {
+        this.maxShots = maxShots;
+        shotsToWin = new int[Math.min(maxShots, INITIAL_SHOTS) + 1];
+    }
+
+    private void ensureShots(int shotsFired) {
+        if (shotsFired >= shotsToWin.length)
+            shotsToWin = Arrays.copyOf(shotsToWin,
+                    (int) Math.min(Math.max(2L * shotsToWin.length, shotsFired + 1L), maxShots + 1L));
+    }
+
+    /**
+     * This operation records a game that has been played
+     *
+     * @param shotsFired number of shots fired in the game
+     * @param hitsScored number of those shots that hit a ship
+     * @param finished   true if the whole fleet was sunk
+     */
+    void recordGame(int shotsFired, int hitsScored, boolean finished) {
+        games++;
+        shots += shotsFired;
+        hits += hitsScored;
+        if (finished) {
+            ensureShots(shotsFired);
+            shotsToWin[shotsFired]++;
+        } else {
+            unfinishedGames++;
+        }
+    }
+
+    /**
+     * This operation records the sinking of a ship
+     *
+     * @param category the category of the ship
+     * @param rank     1 if it was the first ship sunk in its game, 2 if the second...
+     */
+    void recordSink(String category, int rank) {
+        long[] entry = sinkRanks.get(category);
+        if (entry == null) {
+            entry = new long[2];
+            sinkRanks.put(category, entry);
+        }
+        entry[0] += rank;
+        entry[1]++;
+    }
+
+    /**
+     * This operation adds the figures of another batch to this one
+     *
+     * @param other statistics of games played with the same board
+     */
+    void merge(SimulationStatistics other) {
+        games += other.games;
+        unfinishedGames += other.unfinishedGames;
+        shots += other.shots;
+        hits += other.hits;
+        ensureShots(other.shotsToWin.length - 1);
+        for (int i = 0; i < other.shotsToWin.length; i++)
+            shotsToWin[i] += other.shotsToWin[i];
+        for (Map.Entry<String, long[]> e : other.sinkRanks.entrySet()) {
+            long[] entry = sinkRanks.get(e.getKey());
+            if (entry == null)
+                sinkRanks.put(e.getKey(), e.getValue().clone());
+            else {
+                entry[0] += e.getValue()[0];
+                entry[1] += e.getValue()[1];
+            }
+        }
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * @return Number of games that ended before the whole fleet was sunk
+     */
+    public long getUnfinishedGames() {
+        return unfinishedGames;
+    }
+
+    /**
+     * @return Mean number of shots needed to sink the whole fleet, over the
+     * finished games
+     */
+    public double getMeanShotsToWin() {
+        long finished = games - unfinishedGames;
+        if (finished == 0)
+            return Double.NaN;
+        long total = 0;
+        for (int i = 0; i < shotsToWin.length; i++)
+            total += (long) i * shotsToWin[i];
+        return (double) total / finished;
+    }
+
+    /**
+     * @return Number of finished games won with exactly the given number of shots
+     */
+    public int getGamesWonIn(int shotsFired) {
+        return shotsFired >= 0 && shotsFired < shotsToWin.length ? shotsToWin[shotsFired] : 0;
+    }
+
+    /**
+     * @return Fraction of the shots fired that hit a ship
+     */
+    public double getHitRate() {
+        return shots == 0 ? Double.NaN : (double) hits / shots;
+    }
+
+    /**
+     * @return The categories of ship that have been sunk at least once
+     */
+    public Set<String> getSunkCategories() {
+        return Collections.unmodifiableSet(sinkRanks.keySet());
+    }
+
+    /**
+     * @return Mean position (1 for first) at which ships of the given category
+     * were sunk
+     */
+    public double getMeanSinkRank(String category) {
+        long[] entry = sinkRanks.get(category);
+        return entry == null ? Double.NaN : (double) entry[0] / entry[1];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Jogos: %d (inacabados: %d) Tiros para ganhar: %.2f Acerto: %.3f", games,
+                unfinishedGames, getMeanShotsToWin(), getHitRate()));
+        for (String category : sinkRanks.keySet())
+            sb.append(String.format("%n  %s afundado em media em %.2f lugar", category, getMeanSinkRank(category)));
+        return sb.toString();
+    }
+}
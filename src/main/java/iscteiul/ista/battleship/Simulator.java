@@ -0,0 +1,145 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Plays large numbers of independent games of a {@link ShotStrategy} against
+ * random fleets, spread over a work-stealing pool.
+ * <p>
+ * Game {@code i} of a run is fully determined by the run seed and {@code i}, so
+ * the aggregated statistics do not depend on how games were spread over
+ * threads. During a run, each pool thread keeps its own fleet, game, fleet
+ * generator, strategy and statistics, which are reused from game to game; the
+ * statistics of the threads are merged once, at the end of the run, and nothing
+ * of a run stays with the pool threads once it is over.
+ */
+public class Simulator {
+    /**
+     * Games played by a single task before it stops splitting its range
+     */
+    private static final int GAMES_PER_TASK = 64;
+
+    private final BoardSpec spec;
+    private final String[] composition;
+    private final Supplier<? extends ShotStrategy> strategies;
+    private final ForkJoinPool pool;
+    private final int maxShots;
+
+    /**
+     * @param strategies creates the strategy instances, one per pool thread
+     */
+    public Simulator(Supplier<? extends ShotStrategy> strategies) {
+        this(BoardSpec.DEFAULT, FleetGenerator.STANDARD_COMPOSITION, strategies, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param spec        the board of every game
+     * @param composition the fleet to be sunk, as in {@link FleetGenerator}
+     * @param strategies  creates the strategy instances, one per pool thread
+     * @param pool        the pool the games are played on
+     */
+    public Simulator(BoardSpec spec, String[] composition, Supplier<? extends ShotStrategy> strategies,
+                     ForkJoinPool pool) {
+        assert spec != null;
+        assert composition != null;
+        assert strategies != null;
+        assert pool != null;
+
+        this.spec = spec;
+        this.composition = composition.clone();
+        this.strategies = strategies;
+        this.pool = pool;
+        // a strategy that keeps repeating itself must not play forever
+        this.maxShots = 2 * spec.getCellCount();
+    }
+
+    /**
+     * This operation plays a number of games and aggregates their outcome
+     *
+     * @param games number of games to be played
+     * @param seed  seed of the run
+     * @return The statistics of all the games
+     */
+    public SimulationStatistics run(int games, long seed) {
+        assert games >= 0;
+
+        Map<Thread, Player> players = new ConcurrentHashMap<>();
+        pool.invoke(new Batch(players, seed, 0, games));
+        SimulationStatistics stats = new SimulationStatistics(maxShots);
+        for (Player player : players.values())
+            stats.merge(player.stats);
+        return stats;
+    }
+
+    /**
+     * The games of a run within [from, to)
+     */
+    private final class Batch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The players of the run, by pool thread
+         */
+        private final Map<Thread, Player> players;
+        private final long seed;
+        private final int from;
+        private final int to;
+
+        Batch(Map<Thread, Player> players, long seed, int from, int to) {
+            this.players = players;
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                Player player = players.computeIfAbsent(Thread.currentThread(), thread -> new Player());
+                for (int i = from; i < to; i++)
+                    player.play(SplitMix64.split(seed, i));
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Batch(players, seed, from, middle), new Batch(players, seed, middle, to));
+        }
+    }
+
+    /**
+     * The state a pool thread reuses from game to game
+     */
+    private final class Player {
+        private final Fleet fleet = new BitboardFleet(spec);
+        private final Game game = new Game(fleet);
+        private final FleetGenerator generator = new FleetGenerator(spec, composition, 0);
+        private final ShotStrategy strategy = strategies.get();
+        private final SimulationStatistics stats = new SimulationStatistics(maxShots);
+
+        void play(long gameSeed) {
+            generator.reseed(gameSeed);
+            generator.fill(fleet);
+            game.reset();
+            strategy.newGame(spec, SplitMix64.split(gameSeed, 0));
+
+            int shots = 0;
+            int sinks = 0;
+            while (fleet.countFloatingShips() > 0 && shots < maxShots) {
+                IPosition pos = strategy.nextShot();
+                int hitsBefore = game.getHits();
+                IShip sunk = game.fire(pos);
+                shots++;
+                strategy.shotResult(pos, game.getHits() > hitsBefore, sunk);
+                if (sunk != null)
+                    stats.recordSink(sunk.getCategory(), ++sinks);
+            }
+            stats.recordGame(shots, game.getHits(), fleet.countFloatingShips() == 0);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+/**
+ * A fleet on a sparse board, see {@link BoardSpec#sparse(int, int)}: the cells
+ * its ships occupy are the keys of a {@link CellTable}, mapped to the index of
+ * their ship, so that its memory grows with the ships, not the board, and a
+ * cell is looked up in constant expected time.
+ * <p>
+ * Placement rules and query results are those of {@link Fleet}, see
+ * {@link CellIndexedFleet}.
+ */
+public class SparseFleet extends CellIndexedFleet {
+    private final CellTable cells = new CellTable();
+
+    /**
+     * @param spec the board and fleet dimensions, of a sparse board or not
+     */
+    public SparseFleet(BoardSpec spec) {
+        super(spec);
+    }
+
+    @Override
+    int shipIndexAt(int row, int column) {
+        int index = cells.get(BoardSpec.cellKey(row, column));
+        return index == CellTable.NO_VALUE ? NO_SHIP : index;
+    }
+
+    @Override
+    void indexCell(int row, int column, int ship) {
+        cells.putIfAbsent(BoardSpec.cellKey(row, column), ship);
+    }
+
+    @Override
+    void clearCells() {
+        cells.clear();
+    }
+}
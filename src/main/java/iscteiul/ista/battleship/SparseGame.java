@@ -0,0 +1,169 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A game on the sparse board of a {@link SparseFleet}: the cells fired at are
+ * the keys of a {@link CellTable}, and the order they were fired at a log of
+ * cell keys, so that its memory grows with the shots, not the board, and no
+ * object is kept per shot.
+ * <p>
+ * Shots and their outcomes are those of {@link Game}. The list of shots is a
+ * view of the log, building each position as it is read.
+ */
+public class SparseGame extends CellIndexedGame {
+    private static final int MIN_LOG_LENGTH = 16;
+    /**
+     * Side of the largest part of the board printed in one piece, and of the
+     * tiles the board is printed in when its ships and shots lie further apart
+     */
+    static final int PRINTED_SIDE = 64;
+
+    private final BoardSpec spec;
+    private final CellTable fired = new CellTable();
+    private long[] shotLog = new long[MIN_LOG_LENGTH];
+    private final List<IPosition> shots = new ShotList();
+
+    /**
+     * @param fleet the fleet to be fired at, already complete
+     */
+    public SparseGame(SparseFleet fleet) {
+        super(fleet);
+
+        this.spec = fleet.getBoardSpec();
+    }
+
+    @Override
+    boolean markFired(int row, int column) {
+        long key = BoardSpec.cellKey(row, column);
+        int shot = fired.size();
+        if (!fired.putIfAbsent(key, shot))
+            return false;
+        if (shot == shotLog.length)
+            shotLog = Arrays.copyOf(shotLog, shot << 1);
+        shotLog[shot] = key;
+        return true;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.FiredCells#isFired(int, int)
+     */
+    @Override
+    public boolean isFired(int row, int column) {
+        return spec.contains(row, column) && fired.containsKey(BoardSpec.cellKey(row, column));
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.CellIndexedGame#reset()
+     */
+    @Override
+    public void reset() {
+        fired.clear();
+        shotLog = new long[MIN_LOG_LENGTH];
+        super.reset();
+    }
+
+    /**
+     * The shots fired, read from the shot log
+     */
+    private final class ShotList extends AbstractList<IPosition> implements RandomAccess {
+        @Override
+        public IPosition get(int index) {
+            if (index < 0 || index >= fired.size())
+                throw new IndexOutOfBoundsException("ERROR! no shot " + index);
+            return Positions.of(BoardSpec.keyRow(shotLog[index]), BoardSpec.keyColumn(shotLog[index]));
+        }
+
+        @Override
+        public int size() {
+            return fired.size();
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see battleship.IGame#getShots()
+     */
+    @Override
+    public List<IPosition> getShots() {
+        return shots;
+    }
+
+    /**
+     * This operation prints the smallest part of the board holding every ship
+     * and valid shot, as a sparse board is too large to be printed whole. Should
+     * that part be more than PRINTED_SIDE cells high or wide, only the tiles of
+     * that side holding a ship or a shot are printed, each under a line telling
+     * where it lies, so that ships far apart are printed in bounded memory
+     */
+    @Override
+    void print(int layers) {
+        int top = Integer.MAX_VALUE;
+        int left = Integer.MAX_VALUE;
+        int bottom = -1;
+        int right = -1;
+        for (IShip s : getFleet().getShips()) {
+            top = Math.min(top, s.getTopMostPos());
+            left = Math.min(left, s.getLeftMostPos());
+            bottom = Math.max(bottom, s.getBottomMostPos());
+            right = Math.max(right, s.getRightMostPos());
+        }
+        for (int i = 0; i < fired.size(); i++) {
+            top = Math.min(top, BoardSpec.keyRow(shotLog[i]));
+            left = Math.min(left, BoardSpec.keyColumn(shotLog[i]));
+            bottom = Math.max(bottom, BoardSpec.keyRow(shotLog[i]));
+            right = Math.max(right, BoardSpec.keyColumn(shotLog[i]));
+        }
+        if (bottom < 0)
+            return;
+        if (bottom - top < PRINTED_SIDE && right - left < PRINTED_SIDE) {
+            print(new BoardRenderer().render(getFleet(), this, layers, top, left, bottom - top + 1, right - left + 1));
+            return;
+        }
+
+        long[] tiles = occupiedTiles();
+        BoardRenderer renderer = new BoardRenderer();
+        int last = spec.getBoardSize() - 1;
+        for (int i = 0; i < tiles.length; i++) {
+            if (i > 0 && tiles[i] == tiles[i - 1])
+                continue;
+            int row = BoardSpec.keyRow(tiles[i]) * PRINTED_SIDE;
+            int column = BoardSpec.keyColumn(tiles[i]) * PRINTED_SIDE;
+            System.out.println("[linhas " + row + "-" + Math.min((long) row + PRINTED_SIDE - 1, last) + ", colunas "
+                    + column + "-" + Math.min((long) column + PRINTED_SIDE - 1, last) + "]");
+            print(renderer.render(getFleet(), this, layers, row, column, PRINTED_SIDE, PRINTED_SIDE));
+        }
+    }
+
+    /**
+     * @return The keys of the tiles holding a cell of a ship or a shot, with
+     * their tile row and column in place of a cell's, sorted, and repeated as
+     * many times as they hold such cells
+     */
+    private long[] occupiedTiles() {
+        int cells = fired.size();
+        for (IShip s : getFleet().getShips())
+            cells += s.getPositions().size();
+        long[] tiles = new long[cells];
+        int n = 0;
+        for (IShip s : getFleet().getShips())
+            for (IPosition pos : s.getPositions())
+                tiles[n++] = BoardSpec.cellKey(pos.getRow() / PRINTED_SIDE, pos.getColumn() / PRINTED_SIDE);
+        for (int i = 0; i < fired.size(); i++)
+            tiles[n++] = BoardSpec.cellKey(BoardSpec.keyRow(shotLog[i]) / PRINTED_SIDE,
+                    BoardSpec.keyColumn(shotLog[i]) / PRINTED_SIDE);
+        Arrays.sort(tiles);
+        return tiles;
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+/**
+ * A small, fast, re-seedable pseudo-random sequence (SplitMix64), used where
+ * games must be reproducible from a seed
+ */
+final class SplitMix64 {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    SplitMix64(long seed) {
+        state = seed;
+    }
+
+    /**
+     * This operation restarts the sequence
+     *
+     * @param seed the new seed
+     */
+    void reseed(long seed) {
+        state = seed;
+    }
+
+    /**
+     * @return The next 64 pseudo-random bits
+     */
+    long nextLong() {
+        return mix(state += GOLDEN_GAMMA);
+    }
+
+    /**
+     * @return A pseudo-random value in [0, bound)
+     */
+    int nextInt(int bound) {
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * @return A pseudo-random value in [0, 1)
+     */
+    double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * @return A well-mixed seed derived from a base seed and an index, so that
+     * independent games can be seeded by their number alone
+     */
+    static long split(long seed, long index) {
+        return mix(seed + (index + 1) * GOLDEN_GAMMA);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
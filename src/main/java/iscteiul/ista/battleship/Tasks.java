@@ -3,7 +3,7 @@
  */
 package iscteiul.ista.battleship;
 
-import java.util.Scanner;
+import java.nio.channels.Channels;
 
 
 import org.apache.logging.log4j.LogManager;
@@ -26,6 +26,17 @@ public class Tasks {
     private static final String BATOTA = "mapa";
     private static final String STATUS = "estado";
 
+    /**
+     * The commands, as looked up by {@link CommandReader#nextWord(String[])}
+     */
+    private static final String[] COMMANDS = {NOVAFROTA, DESISTIR, RAJADA, VERTIROS, BATOTA, STATUS};
+    private static final int CMD_NOVAFROTA = 0;
+    private static final int CMD_DESISTIR = 1;
+    private static final int CMD_RAJADA = 2;
+    private static final int CMD_VERTIROS = 3;
+    private static final int CMD_BATOTA = 4;
+    private static final int CMD_STATUS = 5;
+
 
     /////////////////////////////////////////////////////////////////////////////
     // hereafter one may find some code that can be converted to automatic tests,
@@ -39,12 +50,12 @@ public class Tasks {
      * indicates whether the ship occupies each one of such positions or not
      */
     public static void taskA() {
-        Scanner in = new Scanner(System.in);
+        CommandReader in = new CommandReader(Channels.newChannel(System.in));
         while (in.hasNext()) {
             Ship s = readShip(in);
             if (s != null)
                 for (int i = 0; i < NUMBER_SHOTS; i++) {
-                    Position p = readPosition(in);
+                    IPosition p = readPosition(in);
                     LOGGER.info("{} {}", p, s.occupies(p));
                 }
         }
@@ -54,15 +65,15 @@ public class Tasks {
      * This task tests the building up of fleets
      */
     public static void taskB() {
-        Scanner in = new Scanner(System.in);
+        CommandReader in = new CommandReader(Channels.newChannel(System.in));
         IFleet fleet = null;
-        String command = in.next();
-        while (!command.equals(DESISTIR)) {
+        int command = in.nextWord(COMMANDS);
+        while (command != CMD_DESISTIR) {
             switch (command) {
-                case NOVAFROTA:
+                case CMD_NOVAFROTA:
                     fleet = buildFleet(in);
                     break;
-                case STATUS:
+                case CMD_STATUS:
                     if (fleet != null)
                         fleet.printStatus();
                     break;
@@ -70,7 +81,7 @@ public class Tasks {
                     LOGGER.info("Que comando é esse??? Repete lá ...");
             }
             // The other commands are unknown in this task
-            command = in.next();
+            command = in.nextWord(COMMANDS);
         }
         LOGGER.info(GOODBYE_MESSAGE);
     }
@@ -80,26 +91,26 @@ public class Tasks {
      * possibility of cheating
      */
     public static void taskC() {
-        Scanner in = new Scanner(System.in);
+        CommandReader in = new CommandReader(Channels.newChannel(System.in));
         IFleet fleet = null;
-        String command = in.next();
-        while (!command.equals(DESISTIR)) {
+        int command = in.nextWord(COMMANDS);
+        while (command != CMD_DESISTIR) {
             switch (command) {
-                case NOVAFROTA:
+                case CMD_NOVAFROTA:
                     fleet = buildFleet(in);
                     break;
-                case STATUS:
+                case CMD_STATUS:
                     if (fleet != null)
                         fleet.printStatus();
                     break;
-                case BATOTA:
+                case CMD_BATOTA:
                     LOGGER.info(fleet);
                     break;
                 default:
                     LOGGER.info("Que comando é esse??? Repete lá ...");
             }
             // The other commands are unknown in this task
-            command = in.next();
+            command = in.nextWord(COMMANDS);
         }
         LOGGER.info(GOODBYE_MESSAGE);
     }
@@ -109,27 +120,27 @@ public class Tasks {
      */
     public static void taskD() {
 
-        Scanner in = new Scanner(System.in);
+        CommandReader in = new CommandReader(Channels.newChannel(System.in));
         IFleet fleet = null;
         IGame game = null;
-        String command = in.next();
-        while (!command.equals(DESISTIR)) {
+        int command = in.nextWord(COMMANDS);
+        while (command != CMD_DESISTIR) {
             switch (command) {
-                case NOVAFROTA:
+                case CMD_NOVAFROTA:
                     fleet = buildFleet(in);
                     game = new Game(fleet);
                     break;
-                case STATUS:
+                case CMD_STATUS:
                     if (fleet != null)
                         fleet.printStatus();
                     break;
-                case BATOTA:
+                case CMD_BATOTA:
                     if (fleet != null)
                         game.printFleet();
                     break;
-                case RAJADA:
+                case CMD_RAJADA:
                     if (game != null) {
-                        firingRound(in, game);
+                        firingRound(in, game, fleet);
 
                         LOGGER.info("Hits: {} Inv: {} Rep: {} Restam {} navios.", game.getHits(), game.getInvalidShots(),
                                 game.getRepeatedShots(), game.getRemainingShips());
@@ -137,14 +148,14 @@ public class Tasks {
                             LOGGER.info("Maldito sejas, Java Sparrow, eu voltarei, glub glub glub...");
                     }
                     break;
-                case VERTIROS:
+                case CMD_VERTIROS:
                     if (game != null)
                         game.printValidShots();
                     break;
                 default:
                     LOGGER.info("Que comando é esse??? Repete ...");
             }
-            command = in.next();
+            command = in.nextWord(COMMANDS);
         }
         LOGGER.info(GOODBYE_MESSAGE);
     }
@@ -152,10 +163,10 @@ public class Tasks {
     /**
      * This operation allows the build up of a fleet, given user data
      *
-     * @param in The scanner to read from
+     * @param in The reader to read from
      * @return The fleet that has been built
      */
-    static Fleet buildFleet(Scanner in) {
+    static Fleet buildFleet(CommandReader in) {
         assert in != null;
 
         Fleet fleet = new Fleet();
@@ -180,44 +191,50 @@ public class Tasks {
     /**
      * This operation reads data about a ship, build it and returns it
      *
-     * @param in The scanner to read from
+     * @param in The reader to read from
      * @return The created ship based on the data that has been read
      */
-    static Ship readShip(Scanner in) {
-        String shipKind = in.next();
-        Position pos = readPosition(in);
-        char c = in.next().charAt(0);
+    static Ship readShip(CommandReader in) {
+        int shipKind = in.nextWord(Ship.KIND_NAMES);
+        IPosition pos = readPosition(in);
+        char c = in.nextChar();
         Compass bearing = Compass.charToCompass(c);
-        return Ship.buildShip(shipKind, bearing, pos);
+        return shipKind < 0 ? null : Ship.buildShip(shipKind, bearing, pos);
     }
 
     /**
      * This operation allows reading a position in the map
      *
-     * @param in The scanner to read from
-     * @return The position that has been read
+     * @param in The reader to read from
+     * @return The (shared, immutable) position that has been read
      */
-    static Position readPosition(Scanner in) {
+    static IPosition readPosition(CommandReader in) {
         int row = in.nextInt();
         int column = in.nextInt();
-        return new Position(row, column);
+        return Positions.of(row, column);
     }
 
     /**
      * This operation allows firing a round of shots (three) over a fleet, in the
      * context of a game
      *
-     * @param in   The scanner to read from
-     * @param game The context game while fleet is being attacked
+     * @param in    The reader to read from
+     * @param game  The context game while fleet is being attacked
+     * @param fleet The fleet under attack
      */
-    static void firingRound(Scanner in, IGame game) {
+    static void firingRound(CommandReader in, IGame game, IFleet fleet) {
+        int[] rows = new int[NUMBER_SHOTS];
+        int[] cols = new int[NUMBER_SHOTS];
+        byte[] outcomes = new byte[NUMBER_SHOTS];
         for (int i = 0; i < NUMBER_SHOTS; i++) {
-            IPosition pos = readPosition(in);
-            IShip sh = game.fire(pos);
-            if (sh != null)
-                LOGGER.info("Mas... mas... {}s nao sao a prova de bala? :-(", sh.getCategory());
+            rows[i] = in.nextInt();
+            cols[i] = in.nextInt();
         }
-
+        game.fireVolley(rows, cols, outcomes);
+        for (int i = 0; i < NUMBER_SHOTS; i++)
+            if (outcomes[i] == IGame.SHOT_SUNK)
+                LOGGER.info("Mas... mas... {}s nao sao a prova de bala? :-(",
+                        fleet.shipAt(Positions.of(rows[i], cols[i])).getCategory());
     }
 
 }
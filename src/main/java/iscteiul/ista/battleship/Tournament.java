@@ -0,0 +1,437 @@
+/**
+ *
+ */
+package iscteiul.ista.battleship;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * A round-robin tournament of players, each a way of placing a fleet and a way
+ * of shooting, ranked by Elo and Glicko ratings.
+ * <p>
+ * Every pair of players meets once per round. In a match each player places a
+ * fleet and fires at the other one's, with {@link Game#fire(IPosition)}, until
+ * it is sunk; whoever needs fewer shots wins, and the match is a draw if both
+ * need the same. Match {@code m} is fully determined by the tournament seed and
+ * {@code m}, and its outcome is kept in a slot of its own: matches are played in
+ * contiguous shards over a work-stealing pool, sharing nothing but those slots,
+ * and the ratings are worked out from them afterwards in match order, so that
+ * they do not depend on the number of threads.
+ * <p>
+ * The Elo ratings are the maximum likelihood ratings of the Bradley-Terry
+ * model on the Elo scale, each player also drawing a virtual game against a
+ * player rated 1500 so that unbeaten and winless players have finite ratings.
+ * The Glicko ratings take each round as a rating period, starting at 1500 with
+ * a deviation of 350; players do not change between rounds, so deviations do
+ * not grow back. Intervals are of 95% confidence; those of the Elo ratings are
+ * approximate, leaving out the correlation between ratings.
+ */
+public class Tournament {
+    /**
+     * Matches played by a single task before it stops splitting its shard
+     */
+    private static final int MATCHES_PER_TASK = 16;
+
+    private static final double INITIAL_RATING = 1500;
+    private static final double INITIAL_DEVIATION = 350;
+    private static final double Z_95 = 1.959964;
+    private static final double Q = Math.log(10) / 400;
+    private static final int MAX_ITERATIONS = 10_000;
+
+    /**
+     * A player of a tournament
+     */
+    public static final class Player {
+        private final String name;
+        private final Supplier<? extends PlacementStrategy> placements;
+        private final Supplier<? extends ShotStrategy> shooters;
+
+        /**
+         * @param name       the name the player is ranked under
+         * @param placements creates the placement strategy instances, one per
+         *                   pool thread
+         * @param shooters   creates the shot strategy instances, one per pool
+         *                   thread
+         */
+        public Player(String name, Supplier<? extends PlacementStrategy> placements,
+                      Supplier<? extends ShotStrategy> shooters) {
+            assert name != null;
+            assert placements != null;
+            assert shooters != null;
+
+            this.name = name;
+            this.placements = placements;
+            this.shooters = shooters;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * The ranking of a player at the end of a tournament
+     */
+    public static final class Standing {
+        private final String name;
+        private final int wins;
+        private final int draws;
+        private final int losses;
+        private final double meanShots;
+        private final double elo;
+        private final double eloMargin;
+        private final double glicko;
+        private final double glickoDeviation;
+
+        Standing(String name, int wins, int draws, int losses, double meanShots, double elo, double eloMargin,
+                 double glicko, double glickoDeviation) {
+            this.name = name;
+            this.wins = wins;
+            this.draws = draws;
+            this.losses = losses;
+            this.meanShots = meanShots;
+            this.elo = elo;
+            this.eloMargin = eloMargin;
+            this.glicko = glicko;
+            this.glickoDeviation = glickoDeviation;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getMatches() {
+            return wins + draws + losses;
+        }
+
+        public int getWins() {
+            return wins;
+        }
+
+        public int getDraws() {
+            return draws;
+        }
+
+        public int getLosses() {
+            return losses;
+        }
+
+        /**
+         * @return The mean number of shots the player needed to sink a fleet
+         */
+        public double getMeanShots() {
+            return meanShots;
+        }
+
+        public double getElo() {
+            return elo;
+        }
+
+        /**
+         * @return The half width of the 95% confidence interval of the Elo
+         * rating
+         */
+        public double getEloMargin() {
+            return eloMargin;
+        }
+
+        public double getGlicko() {
+            return glicko;
+        }
+
+        public double getGlickoDeviation() {
+            return glickoDeviation;
+        }
+
+        /**
+         * @return The half width of the 95% confidence interval of the Glicko
+         * rating
+         */
+        public double getGlickoMargin() {
+            return Z_95 * glickoDeviation;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-12s %5d-%d-%d  %.1f shots  Elo %.0f ± %.0f  Glicko %.0f ± %.0f", name, wins,
+                    draws, losses, meanShots, elo, eloMargin, glicko, getGlickoMargin());
+        }
+    }
+
+    private final BoardSpec spec;
+    private final Player[] players;
+    private final ForkJoinPool pool;
+    private final int maxShots;
+    /**
+     * The two players of each pair, pairs in lexicographic order
+     */
+    private final int[] firstOf;
+    private final int[] secondOf;
+    private final ThreadLocal<Table> tables = ThreadLocal.withInitial(Table::new);
+
+    /**
+     * @param players the players, at least two
+     */
+    public Tournament(List<Player> players) {
+        this(BoardSpec.DEFAULT, players, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param spec    the board of every match
+     * @param players the players, at least two
+     * @param pool    the pool the matches are played on
+     */
+    public Tournament(BoardSpec spec, List<Player> players, ForkJoinPool pool) throws IllegalArgumentException {
+        assert spec != null;
+        assert players != null;
+        assert pool != null;
+
+        if (players.size() < 2)
+            throw new IllegalArgumentException("ERROR! a tournament needs two players at least");
+
+        this.spec = spec;
+        this.players = players.toArray(new Player[0]);
+        this.pool = pool;
+        // a strategy that keeps repeating itself must not play forever
+        this.maxShots = 2 * spec.getCellCount();
+        int n = this.players.length;
+        this.firstOf = new int[n * (n - 1) / 2];
+        this.secondOf = new int[firstOf.length];
+        int pair = 0;
+        for (int i = 0; i < n; i++)
+            for (int j = i + 1; j < n; j++) {
+                firstOf[pair] = i;
+                secondOf[pair] = j;
+                pair++;
+            }
+    }
+
+    /**
+     * This operation plays a tournament
+     *
+     * @param rounds the number of times every pair of players meets
+     * @param seed   the seed of the tournament
+     * @return The standings, best Elo rating first
+     */
+    public List<Standing> run(int rounds, long seed) throws IllegalArgumentException {
+        if (rounds <= 0 || (long) rounds * firstOf.length > Integer.MAX_VALUE / 2)
+            throw new IllegalArgumentException("ERROR! invalid number of rounds: " + rounds);
+
+        int matches = rounds * firstOf.length;
+        // per match, the shots each player needed, the first player of the pair first
+        int[] shots = new int[2 * matches];
+        pool.invoke(new Shard(seed, 0, matches, shots));
+        return rank(rounds, shots);
+    }
+
+    /**
+     * The matches of a tournament within [from, to); match m is round m / pairs
+     * of pair m % pairs
+     */
+    private final class Shard extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long seed;
+        private final int from;
+        private final int to;
+        private final int[] shots;
+
+        Shard(long seed, int from, int to, int[] shots) {
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+            this.shots = shots;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MATCHES_PER_TASK) {
+                Table table = tables.get();
+                for (int m = from; m < to; m++)
+                    table.play(SplitMix64.split(seed, m), m % firstOf.length, shots, 2 * m);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Shard(seed, from, middle, shots), new Shard(seed, middle, to, shots));
+        }
+    }
+
+    /**
+     * The state a pool thread reuses from match to match: a fleet and a game per
+     * side and each player's strategies
+     */
+    private final class Table {
+        private final Fleet[] fleets = {new BitboardFleet(spec), new BitboardFleet(spec)};
+        private final Game[] games = {new Game(fleets[0]), new Game(fleets[1])};
+        private final PlacementStrategy[] placements = new PlacementStrategy[players.length];
+        private final ShotStrategy[] shooters = new ShotStrategy[players.length];
+
+        void play(long matchSeed, int pair, int[] shots, int slot) {
+            for (int side = 0; side < 2; side++)
+                placementOf(side == 0 ? firstOf[pair] : secondOf[pair]).place(fleets[side],
+                        SplitMix64.split(matchSeed, side));
+            // each side fires at the fleet of the other
+            shots[slot] = sink(fleets[1], games[1], shooters[firstOf[pair]], SplitMix64.split(matchSeed, 2));
+            shots[slot + 1] = sink(fleets[0], games[0], shooters[secondOf[pair]], SplitMix64.split(matchSeed, 3));
+        }
+
+        private PlacementStrategy placementOf(int player) {
+            if (placements[player] == null) {
+                placements[player] = players[player].placements.get();
+                shooters[player] = players[player].shooters.get();
+            }
+            return placements[player];
+        }
+
+        private int sink(Fleet fleet, Game game, ShotStrategy strategy, long seed) {
+            game.reset();
+            strategy.newGame(spec, seed);
+            int fired = 0;
+            while (fleet.countFloatingShips() > 0 && fired < maxShots) {
+                IPosition pos = strategy.nextShot();
+                int hitsBefore = game.getHits();
+                IShip sunk = game.fire(pos);
+                fired++;
+                strategy.shotResult(pos, game.getHits() > hitsBefore, sunk);
+            }
+            return fired;
+        }
+    }
+
+    /**
+     * @return The score of the first player of a match: 1 for a win, 0.5 for a
+     * draw and 0 for a loss
+     */
+    private static double score(int[] shots, int match) {
+        int first = shots[2 * match];
+        int second = shots[2 * match + 1];
+        return first < second ? 1 : first == second ? 0.5 : 0;
+    }
+
+    private List<Standing> rank(int rounds, int[] shots) {
+        int n = players.length;
+        int pairs = firstOf.length;
+        int[] wins = new int[n];
+        int[] draws = new int[n];
+        long[] shotsFired = new long[n];
+        // scores[i][j]: the points i scored against j
+        double[][] scores = new double[n][n];
+        for (int m = 0; m < rounds * pairs; m++) {
+            int i = firstOf[m % pairs];
+            int j = secondOf[m % pairs];
+            double s = score(shots, m);
+            scores[i][j] += s;
+            scores[j][i] += 1 - s;
+            if (s == 1)
+                wins[i]++;
+            else if (s == 0)
+                wins[j]++;
+            else {
+                draws[i]++;
+                draws[j]++;
+            }
+            shotsFired[i] += shots[2 * m];
+            shotsFired[j] += shots[2 * m + 1];
+        }
+
+        double[] elo = new double[n];
+        double[] eloMargin = new double[n];
+        elo(rounds, scores, elo, eloMargin);
+        double[] glicko = new double[n];
+        double[] deviation = new double[n];
+        glicko(rounds, shots, glicko, deviation);
+
+        int matches = rounds * (n - 1);
+        List<Standing> standings = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+            standings.add(new Standing(players[i].name, wins[i], draws[i], matches - wins[i] - draws[i],
+                    (double) shotsFired[i] / matches, elo[i], eloMargin[i], glicko[i], deviation[i]));
+        // a stable sort: equal ratings keep the order of the players
+        standings.sort(Comparator.comparingDouble(Standing::getElo).reversed());
+        return Collections.unmodifiableList(standings);
+    }
+
+    /**
+     * This operation fits the Bradley-Terry model by minorization-maximization,
+     * then rescales the strengths to Elo ratings
+     */
+    private void elo(int rounds, double[][] scores, double[] elo, double[] margin) {
+        int n = players.length;
+        double[] strength = new double[n];
+        double[] next = new double[n];
+        Arrays.fill(strength, 1);
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            double change = 0;
+            for (int i = 0; i < n; i++) {
+                // the virtual draw against a player of strength 1
+                double points = 0.5;
+                double games = 1 / (strength[i] + 1);
+                for (int j = 0; j < n; j++)
+                    if (j != i) {
+                        points += scores[i][j];
+                        games += rounds / (strength[i] + strength[j]);
+                    }
+                next[i] = points / games;
+                change = Math.max(change, Math.abs(Math.log(next[i] / strength[i])));
+            }
+            System.arraycopy(next, 0, strength, 0, n);
+            if (change < 1e-12)
+                break;
+        }
+        for (int i = 0; i < n; i++) {
+            double p = strength[i] / (strength[i] + 1);
+            double information = p * (1 - p);
+            for (int j = 0; j < n; j++)
+                if (j != i) {
+                    p = strength[i] / (strength[i] + strength[j]);
+                    information += rounds * p * (1 - p);
+                }
+            elo[i] = INITIAL_RATING + Math.log(strength[i]) / Q;
+            margin[i] = Z_95 / Q / Math.sqrt(information);
+        }
+    }
+
+    /**
+     * This operation runs the Glicko system, every round a rating period in
+     * which every player meets every other one once
+     */
+    private void glicko(int rounds, int[] shots, double[] rating, double[] deviation) {
+        int n = players.length;
+        int pairs = firstOf.length;
+        Arrays.fill(rating, INITIAL_RATING);
+        Arrays.fill(deviation, INITIAL_DEVIATION);
+        double[] g = new double[n];
+        double[] information = new double[n];
+        double[] surprise = new double[n];
+        for (int round = 0; round < rounds; round++) {
+            for (int i = 0; i < n; i++) {
+                g[i] = 1 / Math.sqrt(1 + 3 * Q * Q * deviation[i] * deviation[i] / (Math.PI * Math.PI));
+                information[i] = 0;
+                surprise[i] = 0;
+            }
+            for (int pair = 0; pair < pairs; pair++) {
+                int i = firstOf[pair];
+                int j = secondOf[pair];
+                double s = score(shots, round * pairs + pair);
+                double expectedI = 1 / (1 + Math.pow(10, -g[j] * (rating[i] - rating[j]) / 400));
+                double expectedJ = 1 / (1 + Math.pow(10, -g[i] * (rating[j] - rating[i]) / 400));
+                information[i] += g[j] * g[j] * expectedI * (1 - expectedI);
+                information[j] += g[i] * g[i] * expectedJ * (1 - expectedJ);
+                surprise[i] += g[j] * (s - expectedI);
+                surprise[j] += g[i] * (1 - s - expectedJ);
+            }
+            for (int i = 0; i < n; i++) {
+                double precision = 1 / (deviation[i] * deviation[i]) + Q * Q * information[i];
+                rating[i] += Q / precision * surprise[i];
+                deviation[i] = Math.sqrt(1 / precision);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes - Execução em lote")
+class BatchRunnerTest {
+
+    /**
+     * A script with every command, an unknown one and a fleet with a rejected
+     * ship
+     */
+    private static String script(long seed) {
+        return "olá\n" + GameLoadClient.script(seed).replace("nova\n", "nova\nbarca 0 0 n\n")
+                .replace("desisto\n", "") + "ver\nmapa\nestado\ndesisto\n";
+    }
+
+    /**
+     * Plays the interactive task D in a process of its own, with a log layout of
+     * the bare messages
+     */
+    public static void main(String[] args) {
+        Tasks.taskD();
+    }
+
+    private static byte[] interactive(Path script, Path directory) throws IOException, InterruptedException {
+        Path config = directory.resolve("log4j2.xml");
+        Files.writeString(config, "<Configuration status=\"WARN\"><Appenders><Console name=\"Console\" "
+                + "target=\"SYSTEM_OUT\"><PatternLayout pattern=\"%msg%n\"/></Console></Appenders><Loggers>"
+                + "<Root level=\"INFO\"><AppenderRef ref=\"Console\"/></Root></Loggers></Configuration>");
+        Path output = directory.resolve("interactive.txt");
+        Process task = new ProcessBuilder(ProcessHandle.current().info().command().orElse("java"), "-cp",
+                System.getProperty("java.class.path"), "-Dlog4j2.configurationFile=" + config,
+                "-Dfile.encoding=UTF-8",
+                BatchRunnerTest.class.getName())
+                .redirectInput(script.toFile())
+                .redirectOutput(output.toFile())
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        assertTrue(task.waitFor(60, TimeUnit.SECONDS));
+        return Files.readAllBytes(output);
+    }
+
+    @Nested
+    @DisplayName("Saída")
+    class OutputTests {
+
+        @Test
+        @DisplayName("Cada guião escreve o que a tarefa D escreve, byte a byte")
+        void sameAsInteractive(@TempDir Path directory) throws Exception {
+            Path scripts = Files.createDirectories(directory.resolve("scripts"));
+            Path script = Files.writeString(scripts.resolve("a.txt"), script(5));
+
+            BatchRunner.Report report = new BatchRunner(1).run(scripts, directory.resolve("out"));
+            byte[] batch = Files.readAllBytes(directory.resolve("out").resolve("a.txt" + BatchRunner.OUTPUT_SUFFIX));
+
+            assertEquals(1, report.getScripts());
+            assertEquals(0, report.getFailed());
+            assertEquals(new String(interactive(script, directory), StandardCharsets.UTF_8),
+                    new String(batch, StandardCharsets.UTF_8));
+        }
+
+        @Test
+        @DisplayName("Um número mal escrito para a tarefa D, mas não o guião")
+        void malformedNumber(@TempDir Path directory) throws Exception {
+            Path scripts = Files.createDirectories(directory.resolve("scripts"));
+            Path script = Files.writeString(scripts.resolve("a.txt"), GameLoadClient.script(5)
+                    .replace("desisto\n", "rajada x 1 1 1 1 1\nestado\ndesisto\n"));
+
+            BatchRunner.Report report = new BatchRunner(1).run(scripts, directory.resolve("out"));
+            String batch = Files.readString(directory.resolve("out").resolve("a.txt" + BatchRunner.OUTPUT_SUFFIX));
+            String task = new String(interactive(script, directory), StandardCharsets.UTF_8);
+
+            assertEquals(0, report.getFailed());
+            assertTrue(batch.startsWith(task));
+            assertTrue(batch.substring(task.length()).startsWith(GameSession.UNKNOWN_COMMAND + "\n"));
+            assertFalse(task.contains(GameSession.GOODBYE_MESSAGE));
+            assertTrue(batch.endsWith(GameSession.GOODBYE_MESSAGE + "\n"));
+        }
+
+        @Test
+        @DisplayName("Os guiões jogam-se em simultâneo, cada um com o seu jogo")
+        void concurrentScripts(@TempDir Path directory) throws Exception {
+            Path scripts = Files.createDirectories(directory.resolve("scripts"));
+            for (int i = 0; i < 40; i++)
+                Files.writeString(scripts.resolve("s" + i), script(i % 4));
+
+            BatchRunner.Report report = new BatchRunner(4).run(scripts, directory.resolve("out"));
+
+            assertEquals(40, report.getScripts());
+            assertEquals(0, report.getFailed());
+            for (int i = 0; i < 40; i++)
+                assertArrayEquals(Files.readAllBytes(directory.resolve("out").resolve("s" + (i % 4) + ".out")),
+                        Files.readAllBytes(directory.resolve("out").resolve("s" + i + ".out")), "script " + i);
+            assertTrue(report.getThroughput() > 0);
+        }
+    }
+
+    @Nested
+    @DisplayName("Relatório")
+    class ReportTests {
+
+        @Test
+        @DisplayName("A latência conta-se por comando")
+        void latencies(@TempDir Path directory) throws Exception {
+            Path scripts = Files.createDirectories(directory.resolve("scripts"));
+            Files.writeString(scripts.resolve("a"), GameLoadClient.script(1));
+            Files.writeString(scripts.resolve("b"), "estado\nxyz\n");
+
+            BatchRunner.Report report = new BatchRunner(2).run(scripts, directory.resolve("out"));
+
+            assertEquals(1, report.getLatencies().get("nova").getCount());
+            assertEquals(34, report.getLatencies().get("rajada").getCount());
+            assertEquals(1, report.getLatencies().get("estado").getCount());
+            assertEquals(1, report.getLatencies().get("?").getCount());
+            assertEquals(1, report.getLatencies().get("desisto").getCount());
+            assertEquals("", Files.readString(directory.resolve("out").resolve("b.out")).replace(
+                    GameSession.UNKNOWN_COMMAND + "\n", ""));
+            assertTrue(report.toString().contains("rajada"));
+        }
+
+        @Test
+        @DisplayName("O número de threads tem de ser positivo")
+        void threads() {
+            assertThrows(IllegalArgumentException.class, () -> new BatchRunner(0));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes - Frota com índice de tabuleiro")
+class BitboardFleetTest {
+
+    private static List<IShip> sampleShips() {
+        List<IShip> ships = new ArrayList<>();
+        ships.add(new Galleon(Compass.NORTH, new Position(0, 0)));
+        ships.add(new Frigate(Compass.EAST, new Position(0, 5)));
+        ships.add(new Carrack(Compass.SOUTH, new Position(4, 0)));
+        ships.add(new Carrack(Compass.WEST, new Position(9, 0)));
+        ships.add(new Caravel(Compass.NORTH, new Position(3, 9)));
+        ships.add(new Caravel(Compass.EAST, new Position(6, 4)));
+        ships.add(new Caravel(Compass.SOUTH, new Position(4, 4))); // demasiado perto: rejeitada
+        ships.add(new Barge(Compass.NORTH, new Position(9, 9)));
+        ships.add(new Barge(Compass.NORTH, new Position(7, 7)));
+        ships.add(new Barge(Compass.NORTH, new Position(2, 7)));
+        ships.add(new Barge(Compass.NORTH, new Position(0, 12))); // fora do tabuleiro: rejeitada
+        return ships;
+    }
+
+    private static List<IShip> sampleShipsCopy() {
+        List<IShip> copy = new ArrayList<>();
+        for (IShip s : sampleShips())
+            copy.add(Ship.buildShip(kindOf(s), s.getBearing(), new Position(s.getPosition().getRow(),
+                    s.getPosition().getColumn())));
+        return copy;
+    }
+
+    private static String kindOf(IShip s) {
+        switch (s.getCategory()) {
+            case "Galeao":
+                return "galeao";
+            case "Fragata":
+                return "fragata";
+            case "Nau":
+                return "nau";
+            case "Caravela":
+                return "caravela";
+            default:
+                return "barca";
+        }
+    }
+
+    @Nested
+    @DisplayName("Equivalência com Fleet")
+    class EquivalenceTests {
+
+        @Test
+        @DisplayName("addShip aceita e recusa exatamente os mesmos navios")
+        void sameAcceptedShips() {
+            Fleet reference = new Fleet();
+            BitboardFleet indexed = new BitboardFleet();
+
+            List<IShip> a = sampleShips();
+            List<IShip> b = sampleShipsCopy();
+            for (int i = 0; i < a.size(); i++)
+                assertEquals(reference.addShip(a.get(i)), indexed.addShip(b.get(i)), "navio " + i);
+
+            assertEquals(reference.getShips().size(), indexed.getShips().size());
+        }
+
+        @Test
+        @DisplayName("shipAt devolve o mesmo navio em todas as células, incluindo fora do tabuleiro")
+        void sameShipAtEveryCell() {
+            Fleet reference = new Fleet();
+            BitboardFleet indexed = new BitboardFleet();
+            for (IShip s : sampleShips()) {
+                reference.addShip(s);
+                indexed.addShip(s);
+            }
+
+            for (int r = -1; r <= IFleet.BOARD_SIZE; r++)
+                for (int c = -1; c <= IFleet.BOARD_SIZE; c++) {
+                    Position p = new Position(r, c);
+                    assertSame(reference.shipAt(p), indexed.shipAt(p), p.toString());
+                }
+        }
+
+        @Test
+        @DisplayName("Um jogo completo produz os mesmos resultados nas duas frotas")
+        void sameGameOutcome() {
+            Fleet reference = new Fleet();
+            BitboardFleet indexed = new BitboardFleet();
+            for (IShip s : sampleShips())
+                reference.addShip(s);
+            for (IShip s : sampleShipsCopy())
+                indexed.addShip(s);
+
+            Game g1 = new Game(reference);
+            Game g2 = new Game(indexed);
+
+            for (int r = 0; r < IFleet.BOARD_SIZE; r++)
+                for (int c = 0; c < IFleet.BOARD_SIZE; c++) {
+                    IShip sunk1 = g1.fire(new Position(r, c));
+                    IShip sunk2 = g2.fire(new Position(r, c));
+                    assertEquals(sunk1 == null, sunk2 == null);
+                    if (sunk1 != null)
+                        assertEquals(sunk1.getCategory(), sunk2.getCategory());
+                    assertEquals(g1.getRemainingShips(), g2.getRemainingShips());
+                }
+
+            assertEquals(g1.getHits(), g2.getHits());
+            assertEquals(g1.getSunkShips(), g2.getSunkShips());
+            assertEquals(0, g2.getRemainingShips());
+            assertTrue(indexed.getFloatingShips().isEmpty());
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes - Desenho do tabuleiro")
+class BoardRendererTest {
+
+    private static Fleet fleet() {
+        Fleet fleet = new Fleet(new BoardSpec(5, 2));
+        fleet.addShip(new Caravel(Compass.EAST, new Position(0, 0)));
+        fleet.addShip(new Barge(Compass.NORTH, new Position(3, 3)));
+        return fleet;
+    }
+
+    @Nested
+    @DisplayName("Camadas")
+    class LayerTests {
+
+        @Test
+        @DisplayName("A frota desenha-se com '#'")
+        void fleetLayer() {
+            String board = new BoardRenderer().render(fleet(), null, BoardRenderer.FLEET).toString();
+            assertEquals("##...\n.....\n.....\n...#.\n.....\n", board);
+        }
+
+        @Test
+        @DisplayName("Os tiros desenham-se com 'X', e os resultados com '*' e 'o'")
+        void shotLayers() {
+            Fleet fleet = fleet();
+            Game game = new Game(fleet);
+            game.fire(new Position(0, 1));
+            game.fire(new Position(2, 2));
+            game.fire(new Position(7, 7));
+            BoardRenderer renderer = new BoardRenderer();
+
+            assertEquals(".X...\n.....\n..X..\n.....\n.....\n",
+                    renderer.render(fleet, game, BoardRenderer.SHOTS).toString());
+            assertEquals(".*...\n.....\n..o..\n.....\n.....\n",
+                    renderer.render(fleet, game, BoardRenderer.OUTCOMES).toString());
+            assertEquals("#*...\n.....\n..o..\n...#.\n.....\n",
+                    renderer.render(fleet, game, BoardRenderer.FLEET | BoardRenderer.OUTCOMES).toString());
+        }
+
+        @Test
+        @DisplayName("Qualquer jogo serve, e sem jogo não há tiros")
+        void anyGame() {
+            Fleet fleet = fleet();
+            ConcurrentGame concurrent = new ConcurrentGame(fleet);
+            concurrent.fire(new Position(3, 3));
+            IGame metered = new EngineMetrics().meter(new Game(fleet));
+            metered.fire(new Position(3, 3));
+            BoardRenderer renderer = new BoardRenderer();
+
+            String expected = renderer.render(fleet, concurrent, BoardRenderer.OUTCOMES).toString();
+            assertEquals(".....\n.....\n.....\n...*.\n.....\n", expected);
+            assertEquals(expected, renderer.render(fleet, metered, BoardRenderer.OUTCOMES).toString());
+            assertThrows(IllegalArgumentException.class, () -> renderer.render(fleet, null, BoardRenderer.SHOTS));
+        }
+
+        @Test
+        @DisplayName("As posições dadas marcam-se, e as de fora ficam de fora")
+        void positions() {
+            BoardRenderer renderer = new BoardRenderer();
+            String board = renderer.render(new BoardSpec(3, 1), List.of(new Position(1, 1), new Position(5, 0)), '@')
+                    .toString();
+            assertEquals("...\n.@.\n...\n", board);
+        }
+    }
+
+    @Nested
+    @DisplayName("Janela")
+    class ViewportTests {
+
+        @Test
+        @DisplayName("Desenha-se só a janela pedida, cortada ao tabuleiro")
+        void viewport() {
+            BoardRenderer renderer = new BoardRenderer();
+            assertEquals("#..\n...\n", renderer.render(fleet(), null, BoardRenderer.FLEET, -1, 1, 3, 3).toString());
+            assertEquals("#.\n..\n", renderer.render(fleet(), null, BoardRenderer.FLEET, 3, 3, 10, 10).toString());
+            assertEquals("", renderer.render(fleet(), null, BoardRenderer.FLEET, 7, 0, 2, 2).toString());
+            assertEquals(0, renderer.length());
+        }
+
+        @Test
+        @DisplayName("Um canto de um tabuleiro enorme desenha-se sem percorrer o resto")
+        void largeBoard() {
+            Fleet fleet = new Fleet(new BoardSpec(20_000, 1));
+            fleet.addShip(new Frigate(Compass.SOUTH, new Position(10_000, 10_000)));
+            Game game = new Game(fleet);
+            game.fire(new Position(10_001, 10_000));
+            game.fire(new Position(10_001, 10_001));
+
+            String board = new BoardRenderer()
+                    .render(fleet, game, BoardRenderer.FLEET | BoardRenderer.OUTCOMES, 10_000, 9_999, 3, 3)
+                    .toString();
+            assertEquals(".#.\n.*o\n.#.\n", board);
+        }
+    }
+
+    @Nested
+    @DisplayName("Escrita")
+    class WriteTests {
+
+        @Test
+        @DisplayName("O desenho escreve-se igual num Appendable e num canal")
+        void writeTo() throws Exception {
+            BoardRenderer renderer = new BoardRenderer().render(fleet(), null, BoardRenderer.FLEET);
+            StringBuilder text = new StringBuilder("> ");
+            renderer.writeTo(text);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            renderer.writeTo(Channels.newChannel(bytes));
+
+            assertEquals("> " + renderer, text.toString());
+            assertEquals(renderer.toString(), bytes.toString(StandardCharsets.US_ASCII));
+        }
+
+        @Test
+        @DisplayName("O jogo imprime o tabuleiro de uma só vez")
+        void printFleet() {
+            PrintStream console = System.out;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            Game game = new Game(fleet());
+            try {
+                System.setOut(new PrintStream(bytes, true));
+                game.printFleet();
+                game.fire(new Position(4, 4));
+                game.printValidShots();
+            } finally {
+                System.setOut(console);
+            }
+            assertEquals("##...\n.....\n.....\n...#.\n.....\n" + ".....\n.....\n.....\n.....\n....X\n",
+                    bytes.toString());
+        }
+    }
+}
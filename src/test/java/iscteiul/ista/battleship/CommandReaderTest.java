@@ -0,0 +1,122 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes - Leitor de comandos")
+class CommandReaderTest {
+
+    private static CommandReader reader(String input, int bufferSize) {
+        return new CommandReader(Channels.newChannel(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))),
+                bufferSize);
+    }
+
+    private static CommandReader reader(String input) {
+        return reader(input, 3);
+    }
+
+    @Nested
+    @DisplayName("Tokens")
+    class TokenTests {
+
+        @Test
+        @DisplayName("Tokens separados por espaços, tabs e mudanças de linha, mesmo partidos entre leituras")
+        void tokens() {
+            CommandReader in = reader("  nova\tgaleao\r\n 12 -3 +4 n\n\ndesisto ");
+            assertEquals(0, in.nextWord(new String[]{"nova", "desisto"}));
+            assertEquals(4, in.nextWord(Ship.KIND_NAMES));
+            assertEquals(12, in.nextInt());
+            assertEquals(-3, in.nextInt());
+            assertEquals(4, in.nextInt());
+            assertEquals('n', in.nextChar());
+            assertTrue(in.hasNext());
+            assertEquals(-1, in.nextWord(new String[]{"nova", "desist"}));
+            assertFalse(in.hasNext());
+            assertThrows(NoSuchElementException.class, in::next);
+        }
+
+        @Test
+        @DisplayName("Um token que não é inteiro fica por ler")
+        void intMismatch() {
+            CommandReader in = reader("abc 2147483648 2147483647 -2147483648 - 7");
+            assertThrows(InputMismatchException.class, in::nextInt);
+            assertEquals("abc", in.next());
+            assertThrows(InputMismatchException.class, in::nextInt);
+            assertEquals("2147483648", in.next());
+            assertEquals(Integer.MAX_VALUE, in.nextInt());
+            assertEquals(Integer.MIN_VALUE, in.nextInt());
+            assertThrows(InputMismatchException.class, in::nextInt);
+            in.next();
+            assertEquals(7, in.nextInt());
+        }
+
+        @Test
+        @DisplayName("Tokens longos e caracteres não ASCII")
+        void longTokens() {
+            String longWord = "x".repeat(1000);
+            CommandReader in = reader(longWord + " ção");
+            assertEquals(longWord, in.next());
+            assertEquals('\uFFFD', in.nextChar());
+            assertNull(in.ioException());
+        }
+
+        @Test
+        @DisplayName("Mesmos tokens e inteiros que o Scanner")
+        void sameAsScanner() {
+            StringBuilder sb = new StringBuilder();
+            SplitMix64 random = new SplitMix64(3);
+            String[] words = {"nova", "rajada", "estado", "-17", "42", "0", "+8", "n", "galeao"};
+            String[] gaps = {" ", "\n", "\t", "  \r\n"};
+            for (int i = 0; i < 2000; i++)
+                sb.append(words[random.nextInt(words.length)]).append(gaps[random.nextInt(gaps.length)]);
+
+            Scanner scanner = new Scanner(sb.toString());
+            CommandReader in = reader(sb.toString(), 64);
+            while (scanner.hasNext()) {
+                assertTrue(in.hasNext());
+                if (scanner.hasNextInt())
+                    assertEquals(scanner.nextInt(), in.nextInt());
+                else
+                    assertEquals(scanner.next(), in.next());
+            }
+            assertFalse(in.hasNext());
+        }
+    }
+
+    @Nested
+    @DisplayName("Leitura de navios e frotas")
+    class TasksTests {
+
+        @Test
+        @DisplayName("Navios conhecidos, desconhecidos e com rumo inválido")
+        void readShips() {
+            CommandReader in = reader("nau 2 3 e submarino 1 1 n barca 0 0 x");
+            Ship carrack = Tasks.readShip(in);
+            assertEquals("Nau", carrack.getCategory());
+            assertEquals(Compass.EAST, carrack.getBearing());
+            assertEquals(Positions.of(2, 3), carrack.getPosition());
+            assertNull(Tasks.readShip(in));
+            assertEquals(Compass.UNKNOWN, Tasks.readShip(in).getBearing());
+        }
+
+        @Test
+        @DisplayName("Uma frota completa é lida, saltando navios inválidos")
+        void readFleet() {
+            String input = "galeao 0 0 n fragata 0 0 n fragata 5 9 s nau 0 5 e nau 4 0 s caravela 9 5 e "
+                    + "caravela 6 6 s caravela 2 7 s barca 8 3 n barca 6 2 n barca 0 9 n barca 9 0 n";
+            Fleet fleet = Tasks.buildFleet(reader(input, 16));
+            assertEquals(11, fleet.getShips().size());
+            assertEquals(11, fleet.countFloatingShips());
+        }
+    }
+}
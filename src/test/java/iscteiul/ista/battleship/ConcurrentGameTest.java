@@ -0,0 +1,130 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes - Jogo concorrente")
+class ConcurrentGameTest {
+
+    @Nested
+    @DisplayName("Equivalência com Game")
+    class EquivalenceTests {
+
+        @Test
+        @DisplayName("Numa só thread, os resultados são os de Game")
+        void sameOutcomes() {
+            Random random = new Random(3);
+            int[] rows = new int[150];
+            int[] cols = new int[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = random.nextInt(12) - 1;
+                cols[i] = random.nextInt(12) - 1;
+            }
+            Game game = new Game(new FleetGenerator(5).generate());
+            ConcurrentGame concurrent = new ConcurrentGame(new FleetGenerator(5).generate());
+            byte[] expected = new byte[rows.length];
+            byte[] outcomes = new byte[rows.length];
+            game.fireVolley(rows, cols, expected);
+            concurrent.fireVolley(rows, cols, outcomes);
+
+            assertArrayEquals(expected, outcomes);
+            assertEquals(game.getHits(), concurrent.getHits());
+            assertEquals(game.getInvalidShots(), concurrent.getInvalidShots());
+            assertEquals(game.getRepeatedShots(), concurrent.getRepeatedShots());
+            assertEquals(game.getSunkShips(), concurrent.getSunkShips());
+            assertEquals(game.getRemainingShips(), concurrent.getRemainingShips());
+            assertEquals(game.getShots(), concurrent.getShots());
+            for (int r = -1; r <= IFleet.BOARD_SIZE; r++)
+                for (int c = -1; c <= IFleet.BOARD_SIZE; c++)
+                    assertEquals(game.isFired(r, c), concurrent.isFired(r, c), r + "," + c);
+        }
+    }
+
+    @Nested
+    @DisplayName("Frota")
+    class FleetTests {
+
+        @Test
+        @DisplayName("O jogo não dispara sobre os navios da frota: só ele sabe quais afundaram")
+        void fleetIsNotShot() {
+            Fleet fleet = new Fleet();
+            Barge barge = new Barge(Compass.NORTH, new Position(2, 2));
+            assertTrue(fleet.addShip(barge));
+            ConcurrentGame game = new ConcurrentGame(fleet);
+
+            assertSame(barge, game.fire(Positions.of(2, 2)));
+            assertEquals(0, game.getRemainingShips());
+            assertEquals(1, game.getSunkShips());
+            assertTrue(game.isFired(2, 2));
+
+            assertTrue(barge.stillFloating());
+            assertFalse(barge.getPositions().get(0).isHit());
+            assertEquals(1, fleet.getFloatingShips().size());
+            assertEquals(1, fleet.countFloatingShips());
+        }
+    }
+
+    @Nested
+    @DisplayName("Várias threads")
+    class ThreadTests {
+
+        @Test
+        @DisplayName("Cada célula conta uma vez e cada navio afunda uma só vez")
+        void sharedBoard() throws Exception {
+            final int threads = 8;
+            Fleet fleet = new FleetGenerator(9).generate();
+            ConcurrentGame game = new ConcurrentGame(fleet);
+            int cells = BoardSpec.DEFAULT.getCellCount();
+            ConcurrentLinkedQueue<IShip> sunk = new ConcurrentLinkedQueue<>();
+            CyclicBarrier start = new CyclicBarrier(threads);
+
+            List<Thread> shooters = new ArrayList<>();
+            List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+            for (int t = 0; t < threads; t++) {
+                List<IPosition> order = new ArrayList<>();
+                for (int i = 0; i < cells; i++)
+                    order.add(Positions.of(i / IFleet.BOARD_SIZE, i % IFleet.BOARD_SIZE));
+                Collections.shuffle(order, new Random(t));
+                Thread shooter = new Thread(() -> {
+                    try {
+                        start.await();
+                        for (IPosition pos : order) {
+                            IShip ship = game.fire(pos);
+                            if (ship != null)
+                                sunk.add(ship);
+                        }
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                });
+                shooters.add(shooter);
+                shooter.start();
+            }
+            for (Thread shooter : shooters)
+                shooter.join();
+
+            assertTrue(failures.isEmpty(), failures.toString());
+            int occupied = 0;
+            for (IShip s : fleet.getShips())
+                occupied += s.getPositions().size();
+            assertEquals(occupied, game.getHits());
+            assertEquals(fleet.getShips().size(), sunk.size());
+            assertEquals(new HashSet<>(fleet.getShips()), new HashSet<>(sunk));
+            assertEquals(fleet.getShips().size(), game.getSunkShips());
+            assertEquals(0, game.getRemainingShips());
+            assertEquals((threads - 1) * cells, game.getRepeatedShots());
+            assertEquals(cells, new HashSet<>(game.getShots()).size());
+        }
+    }
+}
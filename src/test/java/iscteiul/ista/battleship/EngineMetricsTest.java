@@ -0,0 +1,247 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Random;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes - Métricas do motor")
+class EngineMetricsTest {
+
+    @Nested
+    @DisplayName("Contagens")
+    class CountTests {
+
+        @Test
+        @DisplayName("Os tiros medidos contam-se por resultado, sem mudar o jogo")
+        void shots() {
+            Random random = new Random(11);
+            int[] rows = new int[200];
+            int[] cols = new int[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = random.nextInt(12) - 1;
+                cols[i] = random.nextInt(12) - 1;
+            }
+            byte[] expected = new byte[rows.length];
+            new Game(new FleetGenerator(4).generate()).fireVolley(rows, cols, expected);
+
+            EngineMetrics metrics = new EngineMetrics(1);
+            IGame game = metrics.meter(new Game(new FleetGenerator(4).generate()));
+            long[] perOutcome = new long[5];
+            for (int i = 0; i < rows.length; i++) {
+                game.fire(new Position(rows[i], cols[i]));
+                perOutcome[expected[i]]++;
+            }
+
+            assertEquals(rows.length, metrics.getCount(EngineMetrics.FIRE));
+            for (byte outcome = IGame.SHOT_INVALID; outcome <= IGame.SHOT_SUNK; outcome++)
+                assertEquals(perOutcome[outcome], metrics.getShots(outcome), "outcome " + outcome);
+            assertEquals(rows.length, metrics.getLatency(EngineMetrics.FIRE).getCount());
+        }
+
+        @Test
+        @DisplayName("As rajadas contam-se tal como os tiros")
+        void volleys() {
+            EngineMetrics metrics = new EngineMetrics();
+            IGame game = metrics.meter(new Game(new FleetGenerator(4).generate()));
+            int[] rows = {0, 0, -1, 5, 5};
+            int[] cols = {0, 0, 3, 5, 10};
+            byte[] outcomes = new byte[rows.length];
+            game.fireVolley(rows, cols, outcomes);
+
+            assertEquals(rows.length, metrics.getCount(EngineMetrics.FIRE));
+            assertEquals(1, metrics.getShots(IGame.SHOT_REPEATED));
+            assertEquals(2, metrics.getShots(IGame.SHOT_INVALID));
+            assertEquals(rows.length, game.getShots().size() + game.getInvalidShots() + game.getRepeatedShots());
+        }
+
+        @Test
+        @DisplayName("Os tiros de outras threads a meio de um tiro medido não mudam o seu resultado")
+        void interleavedShots() {
+            Fleet fleet = new Fleet();
+            assertTrue(fleet.addShip(new Caravel(Compass.NORTH, new Position(5, 5))));
+            assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(0, 0))));
+            // as if, while each shot is fired, another thread hit the caravel, then fired at (9,9) again
+            IPosition[] others = {Positions.of(5, 5), Positions.of(9, 9)};
+            ConcurrentGame shared = new ConcurrentGame(fleet) {
+                private int shot;
+
+                @Override
+                public IShip fire(IPosition pos) {
+                    super.fire(others[shot++]);
+                    return super.fire(pos);
+                }
+
+                @Override
+                public IShip fire(IPosition pos, byte[] outcome) {
+                    super.fire(others[shot++]);
+                    return super.fire(pos, outcome);
+                }
+            };
+            EngineMetrics metrics = new EngineMetrics();
+            IGame game = metrics.meter(shared);
+
+            assertNull(game.fire(Positions.of(9, 9)));
+            assertNull(game.fire(Positions.of(3, 3)));
+
+            assertEquals(2, metrics.getShots(IGame.SHOT_MISSED));
+            assertEquals(0, metrics.getShots(IGame.SHOT_HIT));
+            assertEquals(0, metrics.getShots(IGame.SHOT_REPEATED));
+            assertEquals(1, shared.getHits());
+            assertEquals(1, shared.getRepeatedShots());
+        }
+
+        @Test
+        @DisplayName("Os navios recusados contam-se pelo motivo")
+        void rejections() {
+            EngineMetrics metrics = new EngineMetrics();
+            IFleet fleet = metrics.meter(new Fleet(new BoardSpec(10, 1)));
+
+            assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(0, 0))));
+            assertFalse(fleet.addShip(new Barge(Compass.NORTH, new Position(0, 1))));
+            assertFalse(fleet.addShip(new Caravel(Compass.EAST, new Position(5, 9))));
+            assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(9, 9))));
+            assertFalse(fleet.addShip(new Barge(Compass.NORTH, new Position(5, 5))));
+
+            assertEquals(5, metrics.getCount(EngineMetrics.ADD_SHIP));
+            assertEquals(1, metrics.getRejections(EngineMetrics.REJECTED_COLLISION));
+            assertEquals(1, metrics.getRejections(EngineMetrics.REJECTED_OUT_OF_BOARD));
+            assertEquals(1, metrics.getRejections(EngineMetrics.REJECTED_FLEET_FULL));
+            assertEquals(2, fleet.getShips().size());
+        }
+
+        @Test
+        @DisplayName("Navios que passam da borda de um tabuleiro enorme contam como fora do tabuleiro")
+        void rejectionsAtTheEdge() {
+            int last = Integer.MAX_VALUE - 1;
+            EngineMetrics metrics = new EngineMetrics();
+            IFleet fleet = metrics.meter(new SparseFleet(BoardSpec.sparse(Integer.MAX_VALUE, 10)));
+
+            assertFalse(fleet.addShip(new Frigate(Compass.NORTH, new Position(last, 5))));
+            assertFalse(fleet.addShip(new Caravel(Compass.EAST, new Position(5, last))));
+
+            assertEquals(2, metrics.getRejections(EngineMetrics.REJECTED_OUT_OF_BOARD));
+            assertEquals(0, metrics.getRejections(EngineMetrics.REJECTED_COLLISION));
+        }
+
+        @Test
+        @DisplayName("As procuras contam-se e as que encontram navio também")
+        void lookups() {
+            EngineMetrics metrics = new EngineMetrics();
+            Fleet original = new FleetGenerator(2).generate();
+            IFleet fleet = metrics.meter(original);
+            int found = 0;
+            for (int row = 0; row < 10; row++)
+                for (int column = 0; column < 10; column++)
+                    if (fleet.shipAt(new Position(row, column)) != null)
+                        found++;
+
+            assertEquals(100, metrics.getCount(EngineMetrics.SHIP_AT));
+            assertEquals(found, metrics.getShipAtFound());
+            assertEquals(original.getShips().stream().mapToInt(IShip::getSize).sum(), found);
+        }
+
+        @Test
+        @DisplayName("O intervalo de amostragem tem de ser potência de dois")
+        void sampleInterval() {
+            assertThrows(IllegalArgumentException.class, () -> new EngineMetrics(0));
+            assertThrows(IllegalArgumentException.class, () -> new EngineMetrics(48));
+            EngineMetrics metrics = new EngineMetrics(16);
+            IFleet fleet = metrics.meter(new FleetGenerator(2).generate());
+            for (int i = 0; i < 160; i++)
+                fleet.shipAt(new Position(i % 10, i / 16));
+
+            assertEquals(160, metrics.getCount(EngineMetrics.SHIP_AT));
+            assertEquals(10, metrics.getLatency(EngineMetrics.SHIP_AT).getCount());
+        }
+    }
+
+    @Nested
+    @DisplayName("Histograma")
+    class HistogramTests {
+
+        @Test
+        @DisplayName("Os percentis ficam dentro da precisão do histograma")
+        void percentiles() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            for (long value = 1; value <= 10_000; value++)
+                histogram.record(value);
+
+            assertEquals(10_000, histogram.getCount());
+            assertEquals(10_000, histogram.getMax());
+            assertEquals(5000.5, histogram.getMean(), 1e-9);
+            assertEquals(5000, histogram.getValueAtPercentile(50), 5000 / 16.0);
+            assertEquals(9900, histogram.getValueAtPercentile(99), 9900 / 16.0);
+            assertEquals(10_000, histogram.getValueAtPercentile(100));
+        }
+
+        @Test
+        @DisplayName("Cada valor cai num balde que o contém")
+        void buckets() {
+            for (long value : new long[] {0, 1, 15, 16, 17, 31, 32, 1000, 123_456_789L, Long.MAX_VALUE}) {
+                int bucket = LatencyHistogram.bucketOf(value);
+                assertTrue(value <= LatencyHistogram.highestValueOf(bucket), "value " + value);
+                assertTrue(bucket == 0 || value > LatencyHistogram.highestValueOf(bucket - 1), "value " + value);
+            }
+        }
+
+        @Test
+        @DisplayName("Um histograma vazio devolve zeros")
+        void empty() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            assertEquals(0, histogram.getValueAtPercentile(99));
+            assertEquals(0, histogram.getMean());
+        }
+    }
+
+    @Nested
+    @DisplayName("JMX")
+    class JmxTests {
+
+        @Test
+        @DisplayName("As métricas registadas leem-se do servidor de MBeans")
+        @SuppressWarnings("unchecked")
+        void register() throws Exception {
+            EngineMetrics metrics = new EngineMetrics(1);
+            IGame game = metrics.meter(new Game(new FleetGenerator(6).generate()));
+            for (int i = 0; i < 30; i++)
+                game.fire(new Position(i / 10, i % 10));
+
+            ObjectName name = metrics.register("test");
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                CompositeData fire = (CompositeData) server.getAttribute(name, "Fire");
+                assertEquals(30L, fire.get("count"));
+                assertEquals(30L, fire.get("sampled"));
+                Object outcomes = server.getAttribute(name, "ShotOutcomes");
+                assertNotNull(outcomes);
+                assertEquals(0L, server.getAttribute(name, "ShipAtFound"));
+            } finally {
+                EngineMetrics.unregister(name);
+            }
+            assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+        }
+
+        @Test
+        @DisplayName("As contagens expostas somam os tiros")
+        void outcomes() {
+            EngineMetrics metrics = new EngineMetrics();
+            IGame game = metrics.meter(new Game(new FleetGenerator(6).generate()));
+            for (int i = 0; i < 30; i++)
+                game.fire(new Position(i / 10, i % 10));
+            Map<String, Long> outcomes = metrics.getShotOutcomes();
+
+            assertEquals(30L, outcomes.values().stream().mapToLong(Long::longValue).sum());
+            assertEquals(30L, outcomes.get("missed") + outcomes.get("hit") + outcomes.get("sunk"));
+        }
+    }
+}
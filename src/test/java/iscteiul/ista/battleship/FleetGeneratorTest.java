@@ -0,0 +1,113 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes - Gerador de frotas")
+class FleetGeneratorTest {
+
+    private static String describe(IFleet fleet) {
+        StringBuilder sb = new StringBuilder();
+        for (IShip s : fleet.getShips())
+            sb.append(s);
+        return sb.toString();
+    }
+
+    @Nested
+    @DisplayName("Frotas geradas")
+    class GenerationTests {
+
+        @Test
+        @DisplayName("Frota padrão tem os 11 navios e respeita as regras de colocação")
+        void standardFleetIsValid() {
+            FleetGenerator generator = new FleetGenerator(7);
+            for (int i = 0; i < 500; i++) {
+                Fleet fleet = generator.generate();
+                assertEquals(FleetGenerator.STANDARD_COMPOSITION.length, fleet.getShips().size());
+                assertEquals(1, fleet.getShipsLike("Galeao").size());
+                assertEquals(1, fleet.getShipsLike("Fragata").size());
+                assertEquals(2, fleet.getShipsLike("Nau").size());
+                assertEquals(3, fleet.getShipsLike("Caravela").size());
+                assertEquals(4, fleet.getShipsLike("Barca").size());
+
+                // voltar a colocar os mesmos navios numa frota nova tem de ser aceite
+                Fleet check = new Fleet();
+                for (IShip s : fleet.getShips())
+                    assertTrue(check.addShip(Ship.buildShip(s.getCategory().toLowerCase(), s.getBearing(),
+                            s.getPosition())), describe(fleet));
+            }
+        }
+
+        @Test
+        @DisplayName("A mesma semente produz as mesmas frotas")
+        void sameSeedSameFleets() {
+            FleetGenerator a = new FleetGenerator(123);
+            FleetGenerator b = new FleetGenerator(123);
+            for (int i = 0; i < 50; i++)
+                assertEquals(describe(a.generate()), describe(b.generate()));
+
+            a.reseed(5);
+            String first = describe(a.generate());
+            a.reseed(5);
+            assertEquals(first, describe(a.generate()));
+        }
+
+        @Test
+        @DisplayName("O preenchimento em bloco reutiliza frotas já existentes")
+        void bulkFillReusesFleets() {
+            FleetGenerator generator = new FleetGenerator(1);
+            Fleet[] fleets = {new Fleet(), new BitboardFleet(), new Fleet()};
+            generator.fill(fleets);
+            generator.fill(fleets);
+
+            for (Fleet fleet : fleets) {
+                assertEquals(11, fleet.getShips().size());
+                assertEquals(11, fleet.countFloatingShips());
+                IShip s = fleet.getShips().get(0);
+                assertSame(s, fleet.shipAt(s.getPosition()));
+            }
+        }
+
+        @Test
+        @DisplayName("Voltar a preencher uma frota move os seus navios em vez de construir outros")
+        void refillMovesShips() {
+            Fleet fleet = new FleetGenerator(3).generate();
+            IShip[] before = fleet.getShips().toArray(new IShip[0]);
+            Game game = new Game(fleet);
+            for (IPosition pos : before[0].getPositions())
+                game.fire(Positions.of(pos.getRow(), pos.getColumn()));
+            assertFalse(before[0].stillFloating());
+
+            FleetGenerator generator = new FleetGenerator(4);
+            generator.fill(fleet);
+            assertEquals(describe(new FleetGenerator(4).generate()), describe(fleet));
+            for (int i = 0; i < before.length; i++)
+                assertSame(before[i], fleet.getShips().get(i));
+            assertEquals(11, fleet.countFloatingShips());
+            for (IShip s : fleet.getShips())
+                for (IPosition pos : s.getPositions())
+                    assertSame(s, fleet.shipAt(pos));
+
+            // navios de outra composição não são aproveitados
+            generator.place(fleet, 4);
+            FleetGenerator barges = new FleetGenerator(BoardSpec.DEFAULT, new String[]{"barca", "galeao"}, 4);
+            barges.fill(fleet);
+            assertEquals(2, fleet.getShips().size());
+            assertNotSame(before[0], fleet.getShips().get(0));
+            assertEquals("Barca", fleet.getShips().get(0).getCategory());
+        }
+
+        @Test
+        @DisplayName("Composições impossíveis são recusadas")
+        void impossibleCompositions() {
+            BoardSpec tiny = new BoardSpec(3, 10);
+            assertThrows(IllegalStateException.class,
+                    () -> new FleetGenerator(tiny, new String[]{"fragata", "fragata"}, 0).generate());
+            assertThrows(IllegalArgumentException.class,
+                    () -> new FleetGenerator(tiny, new String[]{"submarino"}, 0));
+        }
+    }
+}
@@ -8,6 +8,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -234,6 +235,52 @@ class FleetTest {
         }
     }
 
+    @Nested
+    @DisplayName("addShip() - grelha de halo")
+    class HaloTests {
+
+        private final String[] kinds = {"galeao", "fragata", "nau", "caravela", "barca"};
+        private final Compass[] bearings = {Compass.NORTH, Compass.SOUTH, Compass.EAST, Compass.WEST};
+
+        @Test
+        @DisplayName("Aceita e recusa exatamente como a comparação par a par com tooCloseTo")
+        void matchesPairwiseTooCloseTo() {
+            Random random = new Random(42);
+            for (int trial = 0; trial < 200; trial++) {
+                BoardSpec spec = new BoardSpec(12, 30);
+                Fleet f = new Fleet(spec);
+                List<IShip> accepted = new ArrayList<>();
+
+                for (int attempt = 0; attempt < 60; attempt++) {
+                    Ship s = Ship.buildShip(kinds[random.nextInt(kinds.length)],
+                            bearings[random.nextInt(bearings.length)],
+                            new Position(random.nextInt(14) - 1, random.nextInt(14) - 1));
+
+                    boolean inside = s.getTopMostPos() >= 0 && s.getLeftMostPos() >= 0
+                            && s.getBottomMostPos() < 12 && s.getRightMostPos() < 12;
+                    boolean tooClose = false;
+                    for (IShip other : accepted)
+                        tooClose |= other.tooCloseTo(s);
+                    boolean expected = accepted.size() <= 30 && inside && !tooClose;
+
+                    assertEquals(expected, f.addShip(s), s.toString());
+                    if (expected)
+                        accepted.add(s);
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Navios encostados na diagonal são recusados")
+        void diagonalNeighbourRejected() {
+            Fleet f = new Fleet();
+            assertTrue(f.addShip(new Caravel(Compass.EAST, new Position(4, 4))));
+            assertFalse(f.addShip(new Barge(Compass.NORTH, new Position(5, 6))));
+            assertFalse(f.addShip(new Barge(Compass.NORTH, new Position(3, 3))));
+            assertTrue(f.addShip(new Barge(Compass.NORTH, new Position(6, 6))));
+        }
+    }
+
     @Nested
     @DisplayName("getShipsLike()")
     class GetShipsLikeTests {
@@ -297,6 +344,50 @@ class FleetTest {
         }
     }
 
+    @Nested
+    @DisplayName("countFloatingShips()")
+    class CountFloatingShipsTests {
+
+        @Test
+        @DisplayName("Acompanha o afundamento de navios reais e de stubs")
+        void tracksRealAndStubShips() {
+            Fleet f = new Fleet();
+            Caravel caravel = new Caravel(Compass.EAST, new Position(0, 0));
+            Barge barge = new Barge(Compass.NORTH, new Position(5, 5));
+            TestShip stub = createSingleCellShip("Nau", 9, 9);
+
+            f.addShip(caravel);
+            f.addShip(barge);
+            f.addShip(stub);
+            assertEquals(3, f.countFloatingShips());
+
+            caravel.shoot(new Position(0, 0));
+            assertEquals(3, f.countFloatingShips());
+            caravel.shoot(new Position(0, 1));
+            caravel.shoot(new Position(0, 1));
+            assertEquals(2, f.countFloatingShips());
+
+            stub.sink();
+            assertEquals(1, f.countFloatingShips());
+            assertEquals(f.getFloatingShips().size(), f.countFloatingShips());
+        }
+
+        @Test
+        @DisplayName("Um navio partilhado por duas frotas é contado corretamente em ambas")
+        void sharedShip() {
+            Fleet f1 = new Fleet();
+            Fleet f2 = new Fleet();
+            Barge barge = new Barge(Compass.NORTH, new Position(5, 5));
+
+            f1.addShip(barge);
+            f2.addShip(barge);
+            barge.shoot(new Position(5, 5));
+
+            assertEquals(0, f1.countFloatingShips());
+            assertEquals(0, f2.countFloatingShips());
+        }
+    }
+
     @Nested
     @DisplayName("shipAt()")
     class ShipAtTests {
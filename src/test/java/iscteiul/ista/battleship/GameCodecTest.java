@@ -0,0 +1,134 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes - Codificação compacta de jogos")
+class GameCodecTest {
+
+    private static int[] counters(IGame game) {
+        return new int[]{game.getHits(), game.getInvalidShots(), game.getRepeatedShots(), game.getSunkShips(),
+                game.getRemainingShips(), game.getShots().size()};
+    }
+
+    /**
+     * This operation plays part of a game, with an invalid and a repeated shot
+     */
+    private static Game play(long seed, int shots) {
+        Game game = new Game(new FleetGenerator(seed).generate());
+        ShotStrategy strategy = new HuntTargetStrategy();
+        strategy.newGame(BoardSpec.DEFAULT, seed);
+        game.fire(Positions.of(-1, 3));
+        for (int i = 0; i < shots && game.getRemainingShips() > 0; i++) {
+            IPosition pos = strategy.nextShot();
+            int hits = game.getHits();
+            IShip sunk = game.fire(pos);
+            strategy.shotResult(pos, game.getHits() > hits, sunk);
+            if (i == 5)
+                game.fire(pos);
+        }
+        return game;
+    }
+
+    private static void assertSameGame(Game expected, Game actual) {
+        assertArrayEquals(counters(expected), counters(actual));
+        assertEquals(new HashSet<>(expected.getShots()), new HashSet<>(actual.getShots()));
+        List<IShip> ships = expected.getFleet().getShips();
+        List<IShip> restored = actual.getFleet().getShips();
+        assertEquals(ships.size(), restored.size());
+        for (int i = 0; i < ships.size(); i++) {
+            assertEquals(ships.get(i).getCategory(), restored.get(i).getCategory());
+            assertEquals(ships.get(i).getBearing(), restored.get(i).getBearing());
+            assertEquals(ships.get(i).getPosition(), restored.get(i).getPosition());
+            assertEquals(((Ship) ships.get(i)).getHitMask(), ((Ship) restored.get(i)).getHitMask());
+        }
+    }
+
+    @Nested
+    @DisplayName("Ida e volta")
+    class RoundTripTests {
+
+        @Test
+        @DisplayName("Um jogo em curso é reconstruído e continua da mesma forma")
+        void gameRoundTrip() {
+            GameCodec codec = new GameCodec();
+            ByteBuffer buffer = ByteBuffer.allocate(64);
+            for (int shots = 0; shots <= 100; shots += 20) {
+                Game game = play(shots + 1, shots);
+                buffer.clear();
+                codec.encodeGame(game, buffer);
+                buffer.flip();
+                Game restored = codec.decodeGame(buffer, new BitboardFleet());
+                assertFalse(buffer.hasRemaining());
+                assertSameGame(game, restored);
+
+                for (int row = 0; row < IFleet.BOARD_SIZE; row++)
+                    for (int column = 0; column < IFleet.BOARD_SIZE; column++) {
+                        IPosition pos = Positions.of(row, column);
+                        assertEquals(game.fire(pos) == null, restored.fire(pos) == null);
+                    }
+                assertArrayEquals(counters(game), counters(restored));
+            }
+        }
+
+        @Test
+        @DisplayName("Uma frota é reconstruída num tabuleiro maior")
+        void fleetRoundTrip() {
+            BoardSpec spec = new BoardSpec(100, 20);
+            Fleet fleet = new Fleet(spec);
+            assertTrue(fleet.addShip(new Galleon(Compass.WEST, Positions.of(97, 40))));
+            assertTrue(fleet.addShip(new Barge(Compass.UNKNOWN, Positions.of(0, 99))));
+            fleet.getShips().get(0).shoot(Positions.of(98, 42));
+
+            GameCodec codec = new GameCodec();
+            ByteBuffer buffer = ByteBuffer.allocate(32);
+            codec.encodeFleet(fleet, buffer);
+            buffer.flip();
+            Fleet restored = new Fleet(spec);
+            codec.decodeFleet(buffer, restored);
+
+            assertEquals(2, restored.getShips().size());
+            assertEquals(Compass.UNKNOWN, restored.getShips().get(1).getBearing());
+            assertTrue(restored.getShips().get(0).getPositions().get(3).isHit());
+            assertEquals(2, restored.countFloatingShips());
+        }
+
+        @Test
+        @DisplayName("Um jogo 10x10 ocupa bem menos de 64 bytes")
+        void compactSize() {
+            ByteBuffer buffer = ByteBuffer.allocate(64);
+            new GameCodec().encodeGame(play(7, 100), buffer);
+            assertTrue(buffer.position() <= 48, buffer.position() + " bytes");
+        }
+    }
+
+    @Nested
+    @DisplayName("Dados rejeitados")
+    class RejectionTests {
+
+        @Test
+        @DisplayName("Navios estranhos ao jogo, versões e tabuleiros diferentes são rejeitados")
+        void rejected() {
+            GameCodec codec = new GameCodec();
+            Fleet foreign = new Fleet();
+            foreign.addShip(new FleetTest.TestShip("Barca", List.of(Positions.of(0, 0))));
+            assertThrows(IllegalArgumentException.class, () -> codec.encodeFleet(foreign, ByteBuffer.allocate(64)));
+
+            ByteBuffer buffer = ByteBuffer.allocate(64);
+            codec.encodeGame(play(3, 10), buffer);
+            buffer.flip();
+            assertThrows(IllegalArgumentException.class, () -> codec.decodeGame(buffer, new Fleet(new BoardSpec(12, 10))));
+
+            buffer.rewind();
+            buffer.put(0, (byte) (GameCodec.VERSION + 1));
+            assertThrows(IllegalStateException.class, () -> codec.decodeGame(buffer, new Fleet()));
+        }
+    }
+}
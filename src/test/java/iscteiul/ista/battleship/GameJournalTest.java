@@ -0,0 +1,158 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes - Diário de jogos")
+class GameJournalTest {
+
+    /**
+     * Small segments, so that games span several of them
+     */
+    private static final int SEGMENT_SIZE = 10 * GameJournal.RECORD_SIZE;
+
+    private static int[] counters(IGame game) {
+        return new int[]{game.getHits(), game.getInvalidShots(), game.getRepeatedShots(), game.getSunkShips(),
+                game.getRemainingShips(), game.getShots().size()};
+    }
+
+    /**
+     * This operation plays and journals a game, returning the counters after
+     * each of its shots
+     */
+    private static List<int[]> play(GameJournal journal, long seed) {
+        Fleet fleet = new FleetGenerator(seed).generate();
+        JournaledGame game = new JournaledGame(fleet, journal);
+        ShotStrategy strategy = new HuntTargetStrategy();
+        strategy.newGame(BoardSpec.DEFAULT, seed);
+
+        List<int[]> states = new ArrayList<>();
+        states.add(counters(game));
+        game.fire(Positions.of(-1, 4));
+        states.add(counters(game));
+        while (game.getRemainingShips() > 0) {
+            IPosition pos = strategy.nextShot();
+            int hits = game.getHits();
+            IShip sunk = game.fire(pos);
+            strategy.shotResult(pos, game.getHits() > hits, sunk);
+            states.add(counters(game));
+            if (states.size() == 10) {
+                game.fire(pos);
+                states.add(counters(game));
+            }
+        }
+        return states;
+    }
+
+    @Nested
+    @DisplayName("Gravação e repetição")
+    class ReplayTests {
+
+        @Test
+        @DisplayName("Cada jogo é reconstruído em qualquer ponto, atravessando segmentos")
+        void replayAtEveryShot(@TempDir Path directory) throws IOException {
+            List<List<int[]>> played = new ArrayList<>();
+            try (GameJournal journal = new GameJournal(directory, SEGMENT_SIZE)) {
+                for (long seed = 1; seed <= 3; seed++)
+                    played.add(play(journal, seed));
+            }
+
+            GameReplayer replayer = new GameReplayer(directory);
+            assertEquals(3, replayer.countGames());
+            for (int g = 0; g < 3; g++) {
+                List<int[]> states = played.get(g);
+                assertEquals(states.size() - 1, replayer.countShots(g));
+                assertEquals(BoardSpec.DEFAULT, replayer.getBoardSpec(g));
+                for (int shots = 0; shots < states.size(); shots++) {
+                    Game game = replayer.replay(g, shots, new BitboardFleet());
+                    assertArrayEquals(states.get(shots), counters(game), "game " + g + " shot " + shots);
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Reabrir o diário acrescenta jogos a seguir aos existentes")
+        void reopenAppends(@TempDir Path directory) throws IOException {
+            try (GameJournal journal = new GameJournal(directory, SEGMENT_SIZE)) {
+                play(journal, 4);
+            }
+            List<int[]> second;
+            try (GameJournal journal = new GameJournal(directory, SEGMENT_SIZE)) {
+                second = play(journal, 5);
+            }
+
+            GameReplayer replayer = new GameReplayer(directory);
+            assertEquals(2, replayer.countGames());
+            Game game = replayer.replay(1, replayer.countShots(1), new Fleet());
+            assertArrayEquals(second.get(second.size() - 1), counters(game));
+            assertEquals(0, game.getRemainingShips());
+        }
+
+        @Test
+        @DisplayName("Um segmento vazio deixado no fim do diário é ignorado e reaproveitado")
+        void emptyTrailingSegment(@TempDir Path directory) throws IOException {
+            try (GameJournal journal = new GameJournal(directory, SEGMENT_SIZE)) {
+                play(journal, 4);
+            }
+            int last = 0;
+            while (Files.exists(GameJournal.segmentPath(directory, last + 1)))
+                last++;
+            // as left by a crash while the next segment was being created
+            Files.write(GameJournal.segmentPath(directory, last + 1), new byte[0]);
+
+            assertEquals(1, new GameReplayer(directory).countGames());
+            try (GameJournal journal = new GameJournal(directory, SEGMENT_SIZE)) {
+                play(journal, 5);
+            }
+            GameReplayer replayer = new GameReplayer(directory);
+            assertEquals(2, replayer.countGames());
+            assertEquals(0, replayer.replay(1, replayer.countShots(1), new Fleet()).getRemainingShips());
+        }
+
+        @Test
+        @DisplayName("Pedidos fora do diário são rejeitados")
+        void outOfRange(@TempDir Path directory) throws IOException {
+            try (GameJournal journal = new GameJournal(directory)) {
+                play(journal, 6);
+            }
+            GameReplayer replayer = new GameReplayer(directory);
+            assertThrows(IllegalArgumentException.class, () -> replayer.countShots(1));
+            assertThrows(IllegalArgumentException.class,
+                    () -> replayer.replay(0, replayer.countShots(0) + 1, new Fleet()));
+            assertThrows(IllegalArgumentException.class, () -> new GameJournal(directory, 100));
+        }
+    }
+
+    @Nested
+    @DisplayName("Navios estranhos ao jogo")
+    class ForeignShipTests {
+
+        @Test
+        @DisplayName("Só os navios do jogo podem ser gravados")
+        void foreignShipsRejected(@TempDir Path directory) throws IOException {
+            IFleet fleet = new IFleet() {
+                @Override public List<IShip> getShips() {
+                    return List.of(new FleetTest.TestShip("Barca", List.of(Positions.of(0, 0))));
+                }
+                @Override public boolean addShip(IShip s) { return false; }
+                @Override public List<IShip> getShipsLike(String category) { return List.of(); }
+                @Override public List<IShip> getFloatingShips() { return List.of(); }
+                @Override public IShip shipAt(IPosition pos) { return null; }
+                @Override public void printStatus() { }
+            };
+            try (GameJournal journal = new GameJournal(directory)) {
+                assertThrows(IllegalArgumentException.class, () -> journal.recordGame(fleet));
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes - Servidor de jogos")
+class GameServerTest {
+
+    /**
+     * This operation sends commands and reads the replies until the server closes
+     * the connection
+     */
+    private static String converse(GameServer server, String commands) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(server.getAddress())) {
+            ByteBuffer out = ByteBuffer.wrap(commands.getBytes(StandardCharsets.UTF_8));
+            while (out.hasRemaining())
+                channel.write(out);
+            return readAll(channel);
+        }
+    }
+
+    private static String readAll(SocketChannel channel) throws IOException {
+        ByteBuffer in = ByteBuffer.allocate(1 << 16);
+        while (channel.read(in) >= 0)
+            assertTrue(in.hasRemaining());
+        return new String(in.array(), 0, in.position(), StandardCharsets.UTF_8);
+    }
+
+    @Nested
+    @DisplayName("Sessões")
+    class SessionTests {
+
+        @Test
+        @DisplayName("Uma sessão fala a linguagem da tarefa D")
+        void sessionProtocol() throws IOException {
+            try (GameServer server = new GameServer(0, 4)) {
+                String reply = converse(server, "olá\nrajada 1 1 1 1 1 1\n" + GameLoadClient.script(7)
+                        .replace("desisto\n", "") + "rajada x 1 1 1 1 1\nver\nmapa\nestado\ndesisto\n");
+
+                assertTrue(reply.startsWith(GameSession.WELCOME_MESSAGE + "\n"));
+                assertTrue(reply.contains(GameSession.UNKNOWN_COMMAND + "\n"));
+                assertTrue(reply.contains("11 navios adicionados com sucesso!"));
+                assertTrue(reply.contains("s nao sao a prova de bala? :-("));
+                assertTrue(reply.contains("Restam 0 navios."));
+                assertTrue(reply.contains("XXXXXXXXXX\n"));
+                assertTrue(reply.endsWith(GameSession.GOODBYE_MESSAGE + "\n"));
+            }
+        }
+
+        @Test
+        @DisplayName("Uma frota nova mal escrita não substitui a frota em jogo")
+        void malformedFleet() throws IOException {
+            try (GameServer server = new GameServer(0, 4)) {
+                String script = GameLoadClient.script(7);
+                int firstVolley = script.indexOf("rajada");
+                String reply = converse(server, script.substring(0, firstVolley) + "nova barca x\n"
+                        + script.substring(firstVolley));
+
+                assertTrue(reply.contains(GameSession.UNKNOWN_COMMAND + "\n"));
+                assertTrue(reply.contains("s nao sao a prova de bala? :-("));
+                assertTrue(reply.contains("Restam 0 navios."));
+                assertTrue(reply.endsWith(GameSession.GOODBYE_MESSAGE + "\n"));
+            }
+        }
+
+        @Test
+        @DisplayName("Palavras enormes não fazem crescer a sessão")
+        void longTokens() throws IOException {
+            try (GameServer server = new GameServer(0, 4)) {
+                String reply = converse(server, "x".repeat(100_000) + " nova barca 1 " + "9".repeat(50_000)
+                        + " n\ndesisto\n");
+
+                assertTrue(reply.contains(GameSession.UNKNOWN_COMMAND));
+                assertTrue(reply.endsWith(GameSession.GOODBYE_MESSAGE + "\n"));
+            }
+        }
+
+        @Test
+        @DisplayName("Ligações para lá do limite de sessões são recusadas")
+        void sessionLimit() throws IOException {
+            try (GameServer server = new GameServer(0, 1);
+                 SocketChannel first = SocketChannel.open(server.getAddress())) {
+                ByteBuffer welcome = ByteBuffer.allocate(GameSession.WELCOME_MESSAGE.length() + 1);
+                while (welcome.hasRemaining())
+                    assertTrue(first.read(welcome) >= 0);
+
+                assertEquals(GameServer.FULL_MESSAGE, converse(server, ""));
+                assertEquals(1, server.countActiveSessions());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Carga")
+    class LoadTests {
+
+        @Test
+        @DisplayName("O cliente de carga joga muitas sessões em simultâneo")
+        void loadClient() throws IOException, InterruptedException {
+            try (GameServer server = new GameServer(0, 100)) {
+                GameLoadClient.Report report = new GameLoadClient(server.getAddress()).run(300, 50, 1);
+
+                assertEquals(300, report.getSessions());
+                assertEquals(0, report.getFailed(), report.toString());
+                for (int wait = 0; wait < 100 && server.countServedSessions() < 300; wait++)
+                    Thread.sleep(10);
+                assertEquals(300, server.countServedSessions());
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes - Jogo")
+class GameTest {
+
+    private static Fleet smallFleet() {
+        Fleet fleet = new Fleet();
+        fleet.addShip(new Caravel(Compass.EAST, new Position(0, 0)));
+        fleet.addShip(new Barge(Compass.NORTH, new Position(5, 5)));
+        return fleet;
+    }
+
+    @Nested
+    @DisplayName("Tiros repetidos e inválidos")
+    class ShotClassificationTests {
+
+        @Test
+        @DisplayName("Tiros repetidos são contados e não entram no histórico")
+        void repeatedShotsAreCounted() {
+            Game game = new Game(smallFleet());
+
+            game.fire(new Position(3, 3));
+            game.fire(new Position(3, 3));
+            game.fire(new Position(0, 0));
+            game.fire(new Position(0, 0));
+            game.fire(new Position(3, 3));
+
+            assertEquals(2, game.getShots().size());
+            assertEquals(3, game.getRepeatedShots());
+            assertEquals(1, game.getHits());
+            assertEquals(0, game.getInvalidShots());
+        }
+
+        @Test
+        @DisplayName("Tiros fora do tabuleiro são inválidos, incluindo a linha e coluna BOARD_SIZE")
+        void shotsOutsideBoardAreInvalid() {
+            Game game = new Game(smallFleet());
+
+            game.fire(new Position(-1, 0));
+            game.fire(new Position(0, -1));
+            game.fire(new Position(IFleet.BOARD_SIZE, 0));
+            game.fire(new Position(0, IFleet.BOARD_SIZE));
+
+            assertEquals(4, game.getInvalidShots());
+            assertTrue(game.getShots().isEmpty());
+            assertDoesNotThrow(game::printValidShots);
+        }
+
+        @Test
+        @DisplayName("Células fora do tabuleiro nunca foram alvejadas, nem se confundem com outras")
+        void offBoardCellsAreNotFired() {
+            Game game = new Game(smallFleet());
+            game.fire(new Position(1, 0));
+            game.fire(new Position(IFleet.BOARD_SIZE - 1, IFleet.BOARD_SIZE - 1));
+
+            assertTrue(game.isFired(1, 0));
+            assertFalse(game.isFired(0, IFleet.BOARD_SIZE));
+            assertFalse(game.isFired(-1, 0));
+            assertFalse(game.isFired(0, -1));
+            assertFalse(game.isFired(IFleet.BOARD_SIZE, IFleet.BOARD_SIZE - 1));
+        }
+
+        @Test
+        @DisplayName("Afundar todos os navios deixa zero navios restantes")
+        void sinkingEveryShip() {
+            Game game = new Game(smallFleet());
+
+            assertNull(game.fire(new Position(0, 0)));
+            assertNotNull(game.fire(new Position(0, 1)));
+            assertNotNull(game.fire(new Position(5, 5)));
+
+            assertEquals(3, game.getHits());
+            assertEquals(2, game.getSunkShips());
+            assertEquals(0, game.getRemainingShips());
+        }
+    }
+
+    @Nested
+    @DisplayName("Tabuleiros configuráveis")
+    class BoardSpecTests {
+
+        @Test
+        @DisplayName("Tabuleiro 100x100 aceita navios e tiros para lá da linha 10")
+        void largeBoard() {
+            BoardSpec spec = new BoardSpec(100, 200);
+            Fleet fleet = new Fleet(spec);
+            assertTrue(fleet.addShip(new Frigate(Compass.EAST, new Position(50, 96))));
+            assertFalse(fleet.addShip(new Frigate(Compass.EAST, new Position(60, 97))));
+
+            Game game = new Game(fleet);
+            for (int c = 96; c < 100; c++)
+                game.fire(new Position(50, c));
+            game.fire(new Position(100, 0));
+
+            assertEquals(4, game.getHits());
+            assertEquals(1, game.getSunkShips());
+            assertEquals(1, game.getInvalidShots());
+        }
+
+        @Test
+        @DisplayName("BitboardFleet indexa mais navios do que cabem num byte")
+        void manyShipsIndexed() {
+            BoardSpec spec = new BoardSpec(100, 1000);
+            BitboardFleet fleet = new BitboardFleet(spec);
+            for (int i = 0; i <= spec.getFleetSize(); i++)
+                assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(2 * (i / 50), 2 * (i % 50)))));
+            assertFalse(fleet.addShip(new Barge(Compass.NORTH, new Position(99, 99))));
+
+            IShip last = fleet.getShips().get(fleet.getShips().size() - 1);
+            assertSame(last, fleet.shipAt(last.getPosition()));
+            assertEquals(fleet.getShips().size(), fleet.countFloatingShips());
+        }
+
+        @Test
+        @DisplayName("Dimensões inválidas são rejeitadas")
+        void invalidSpec() {
+            assertThrows(IllegalArgumentException.class, () -> new BoardSpec(0, 10));
+            assertThrows(IllegalArgumentException.class, () -> new BoardSpec(BoardSpec.MAX_BOARD_SIZE + 1, 10));
+            assertThrows(IllegalArgumentException.class, () -> new BoardSpec(10, -1));
+            assertEquals(BoardSpec.DEFAULT, new Fleet().getBoardSpec());
+        }
+    }
+
+    @Nested
+    @DisplayName("Rajadas")
+    class VolleyTests {
+
+        private final int[] rows = {0, 9, 0, 10, 0, 5};
+        private final int[] cols = {0, 9, 0, 0, 1, 5};
+        private final byte[] expected = {IGame.SHOT_HIT, IGame.SHOT_MISSED, IGame.SHOT_REPEATED,
+                IGame.SHOT_INVALID, IGame.SHOT_SUNK, IGame.SHOT_SUNK};
+
+        @Test
+        @DisplayName("Cada tiro da rajada tem o seu resultado e os contadores são atualizados")
+        void volleyOutcomes() {
+            Game game = new Game(smallFleet());
+            byte[] outcomes = new byte[rows.length];
+            game.fireVolley(rows, cols, outcomes);
+
+            assertArrayEquals(expected, outcomes);
+            assertEquals(4, game.getShots().size());
+            assertEquals(3, game.getHits());
+            assertEquals(2, game.getSunkShips());
+            assertEquals(1, game.getRepeatedShots());
+            assertEquals(1, game.getInvalidShots());
+            assertEquals(0, game.getRemainingShips());
+        }
+
+        @Test
+        @DisplayName("A implementação por omissão dá os mesmos resultados")
+        void defaultVolley() {
+            Game game = new Game(smallFleet());
+            IGame wrapper = new IGame() {
+                @Override public IShip fire(IPosition pos) { return game.fire(pos); }
+                @Override public java.util.List<IPosition> getShots() { return game.getShots(); }
+                @Override public int getRepeatedShots() { return game.getRepeatedShots(); }
+                @Override public int getInvalidShots() { return game.getInvalidShots(); }
+                @Override public int getHits() { return game.getHits(); }
+                @Override public int getSunkShips() { return game.getSunkShips(); }
+                @Override public int getRemainingShips() { return game.getRemainingShips(); }
+                @Override public void printValidShots() { game.printValidShots(); }
+                @Override public void printFleet() { game.printFleet(); }
+            };
+            byte[] outcomes = new byte[rows.length];
+            wrapper.fireVolley(rows, cols, outcomes);
+
+            assertArrayEquals(expected, outcomes);
+            assertEquals(3, game.getHits());
+        }
+    }
+
+    @Nested
+    @DisplayName("Cópias de jogos")
+    class ForkTests {
+
+        @Test
+        @DisplayName("Um jogo copiado e o original evoluem de forma independente")
+        void forksAreIsolated() {
+            Game game = new Game(smallFleet());
+            game.fire(new Position(0, 0));
+            Game fork = game.fork();
+
+            assertNotNull(fork.fire(new Position(0, 1)));
+            assertEquals(1, game.getHits());
+            assertEquals(1, game.getShots().size());
+            assertEquals(2, game.getRemainingShips());
+            assertEquals(2, fork.getHits());
+            assertEquals(1, fork.getRemainingShips());
+
+            game.fire(new Position(5, 5));
+            game.fire(new Position(5, 5));
+            assertEquals(1, game.getRemainingShips());
+            assertEquals(1, fork.getRemainingShips());
+            assertEquals(0, fork.getRepeatedShots());
+            assertTrue(fork.getFleet().shipAt(new Position(5, 5)).stillFloating());
+            assertTrue(game.getFleet().shipAt(new Position(0, 1)).stillFloating());
+            assertFalse(fork.getFleet().shipAt(new Position(0, 1)).stillFloating());
+            assertTrue(game.getFleet().shipAt(new Position(0, 1)).getPositions().get(0).isHit());
+            assertFalse(game.getFleet().shipAt(new Position(0, 1)).getPositions().get(1).isHit());
+        }
+
+        @Test
+        @DisplayName("As frotas copiadas aceitam navios sem afetar o original")
+        void fleetForks() {
+            BitboardFleet fleet = new BitboardFleet();
+            fleet.addShip(new Caravel(Compass.EAST, new Position(0, 0)));
+            BitboardFleet fork = fleet.fork();
+
+            assertTrue(fork.addShip(new Barge(Compass.NORTH, new Position(5, 5))));
+            assertNull(fleet.shipAt(new Position(5, 5)));
+            assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(5, 6))));
+            assertNull(fork.shipAt(new Position(5, 6)));
+            assertFalse(fork.addShip(new Barge(Compass.NORTH, new Position(5, 6))));
+            assertNotSame(fleet.getShips().get(0), fork.getShips().get(0));
+            assertSame(fork.getShips().get(0), fork.shipAt(new Position(0, 1)));
+
+            fork.clear();
+            assertEquals(2, fleet.getShips().size());
+            assertNotNull(fleet.shipAt(new Position(0, 0)));
+        }
+
+        @Test
+        @DisplayName("Jogos com navios estranhos ao jogo não podem ser copiados")
+        void foreignShipsCannotBeForked() {
+            Fleet fleet = new Fleet();
+            fleet.addShip(new FleetTest.TestShip("Barca", java.util.List.of(new Position(0, 0))));
+            assertThrows(UnsupportedOperationException.class, fleet::fork);
+            assertThrows(UnsupportedOperationException.class, () -> new Game(fleet).fork());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes - Tabuleiro fora do heap")
+class OffHeapBoardTest {
+
+    @Nested
+    @DisplayName("Equivalência")
+    class EquivalenceTests {
+
+        @Test
+        @DisplayName("A frota e o jogo fora do heap dão os resultados de Fleet e Game")
+        void sameAsGame() {
+            try (OffHeapBoard board = new OffHeapBoard(BoardSpec.DEFAULT)) {
+                Fleet fleet = new FleetGenerator(8).generate();
+                OffHeapFleet offHeapFleet = new OffHeapFleet(board);
+                for (IShip s : new FleetGenerator(8).generate().getShips())
+                    assertTrue(offHeapFleet.addShip(s));
+                for (IShip s : new FleetGenerator(9).generate().getShips())
+                    assertEquals(fleet.addShip(s), offHeapFleet.addShip(s));
+
+                Random random = new Random(4);
+                int[] rows = new int[250];
+                int[] cols = new int[rows.length];
+                for (int i = 0; i < rows.length; i++) {
+                    rows[i] = random.nextInt(12) - 1;
+                    cols[i] = random.nextInt(12) - 1;
+                }
+                Game game = new Game(fleet);
+                OffHeapGame offHeapGame = new OffHeapGame(offHeapFleet);
+                byte[] expected = new byte[rows.length];
+                byte[] outcomes = new byte[rows.length];
+                game.fireVolley(rows, cols, expected);
+                offHeapGame.fireVolley(rows, cols, outcomes);
+
+                assertArrayEquals(expected, outcomes);
+                assertEquals(game.getShots(), offHeapGame.getShots());
+                assertEquals(game.getHits(), offHeapGame.getHits());
+                assertEquals(game.getSunkShips(), offHeapGame.getSunkShips());
+                assertEquals(game.getRemainingShips(), offHeapGame.getRemainingShips());
+                assertEquals(new BoardRenderer().render(fleet, game, BoardRenderer.OUTCOMES).toString(),
+                        new BoardRenderer().render(offHeapFleet, offHeapGame, BoardRenderer.OUTCOMES).toString());
+            }
+        }
+
+        @Test
+        @DisplayName("Fogo isolado devolve o navio afundado")
+        void fire() {
+            try (OffHeapBoard board = new OffHeapBoard(BoardSpec.DEFAULT)) {
+                OffHeapFleet fleet = new OffHeapFleet(board);
+                Barge barge = new Barge(Compass.NORTH, new Position(2, 2));
+                assertTrue(fleet.addShip(barge));
+                assertFalse(fleet.addShip(new Barge(Compass.NORTH, new Position(3, 3))));
+                assertFalse(fleet.addShip(new Caravel(Compass.SOUTH, new Position(9, 0))));
+                OffHeapGame game = new OffHeapGame(fleet);
+
+                assertSame(barge, fleet.shipAt(new Position(2, 2)));
+                assertNull(game.fire(new Position(0, 0)));
+                assertSame(barge, game.fire(new Position(2, 2)));
+                assertNull(game.fire(new Position(2, 2)));
+                assertEquals(1, game.getRepeatedShots());
+                assertEquals(0, game.getRemainingShips());
+                assertTrue(board.isHit(2, 2));
+                assertFalse(board.isHit(0, 0));
+                assertThrows(IllegalArgumentException.class, () -> board.shipAt(0, 10));
+                assertThrows(IllegalArgumentException.class, () -> board.isFired(-1, 0));
+                assertThrows(IllegalArgumentException.class, () -> board.isHit(10, 0));
+                assertFalse(game.isFired(-1, 0));
+                assertFalse(game.isFired(0, 10));
+
+                game.reset();
+                assertEquals(0, game.getShots().size());
+                assertFalse(game.isFired(2, 2));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Tabuleiros enormes")
+    class LargeBoardTests {
+
+        @Test
+        @DisplayName("Um tabuleiro de 4096 por 4096 joga-se sem objetos por célula")
+        void largeBoard() {
+            BoardSpec spec = new BoardSpec(4096, 100);
+            try (OffHeapBoard board = new OffHeapBoard(spec)) {
+                long cells = spec.getCellCount();
+                assertEquals(2 * cells + cells / 8, board.getAllocatedBytes());
+
+                OffHeapFleet fleet = new OffHeapFleet(board);
+                Caravel caravel = new Caravel(Compass.EAST, new Position(4000, 4000));
+                assertTrue(fleet.addShip(caravel));
+                OffHeapGame game = new OffHeapGame(fleet);
+                for (int column = 0; column < 4096; column++)
+                    game.fire(Positions.of(4000, column));
+
+                assertEquals(4096, game.getShots().size());
+                assertEquals(Positions.of(4000, 4095), game.getShots().get(4095));
+                assertEquals(caravel.getPositions().size(), game.getHits());
+                assertEquals(1, game.getSunkShips());
+                assertEquals(2 * cells + cells / 8 + (4L << 20), board.getAllocatedBytes());
+
+                String corner = new BoardRenderer()
+                        .render(fleet, game, BoardRenderer.FLEET | BoardRenderer.OUTCOMES, 3999, 3998, 3, 8).toString();
+                assertEquals("........\noo**oooo\n........\n", corner);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Ciclo de vida")
+    class LifecycleTests {
+
+        @Test
+        @DisplayName("Um tabuleiro fechado não se usa mais, e fechá-lo de novo nada faz")
+        void close() {
+            OffHeapBoard board = new OffHeapBoard(BoardSpec.DEFAULT);
+            OffHeapFleet fleet = new OffHeapFleet(board);
+            assertTrue(board.isOpen());
+            board.close();
+
+            assertFalse(board.isOpen());
+            assertEquals(0, board.getAllocatedBytes());
+            assertThrows(IllegalStateException.class, () -> board.isFired(0, 0));
+            assertThrows(IllegalStateException.class, () -> fleet.addShip(new Barge(Compass.NORTH, new Position(0, 0))));
+            assertDoesNotThrow(board::close);
+        }
+
+        @Test
+        @DisplayName("Frotas grandes demais para ids de 16 bits são recusadas")
+        void fleetSize() {
+            assertThrows(IllegalArgumentException.class, () -> new OffHeapBoard(new BoardSpec(1000, Short.MAX_VALUE)));
+        }
+    }
+}
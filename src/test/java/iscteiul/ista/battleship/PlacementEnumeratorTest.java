@@ -0,0 +1,166 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes - Enumerador de colocações")
+class PlacementEnumeratorTest {
+
+    private static final Compass[] BEARINGS = {Compass.NORTH, Compass.SOUTH, Compass.EAST, Compass.WEST};
+
+    /**
+     * Every legal fleet, found by trying all the placements through Fleet.addShip;
+     * straight ships only, whose anchor is always their top left cell
+     */
+    private static Set<BitSet> bruteForce(BoardSpec spec, String[] composition) {
+        Set<BitSet> layouts = new HashSet<>();
+        bruteForce(spec, composition, new ArrayList<>(), layouts);
+        return layouts;
+    }
+
+    private static void bruteForce(BoardSpec spec, String[] composition, List<Ship> chosen, Set<BitSet> layouts) {
+        if (chosen.size() == composition.length) {
+            Fleet fleet = new Fleet(spec);
+            BitSet cells = new BitSet();
+            for (Ship s : chosen) {
+                if (!fleet.addShip(Ship.buildShip(s.getCategory().toLowerCase(), s.getBearing(), s.getPosition())))
+                    return;
+                for (IPosition p : s.getPositions())
+                    cells.set(spec.cellIndex(p.getRow(), p.getColumn()));
+            }
+            layouts.add(cells);
+            return;
+        }
+        int size = spec.getBoardSize();
+        for (Compass bearing : BEARINGS)
+            for (int row = 0; row < size; row++)
+                for (int column = 0; column < size; column++) {
+                    chosen.add(Ship.buildShip(composition[chosen.size()], bearing, new Position(row, column)));
+                    bruteForce(spec, composition, chosen, layouts);
+                    chosen.remove(chosen.size() - 1);
+                }
+    }
+
+    @Nested
+    @DisplayName("Colocações de um navio")
+    class PlacementTests {
+
+        @Test
+        @DisplayName("Número de colocações de cada tipo num tabuleiro vazio")
+        void emptyBoard() {
+            PlacementEnumerator enumerator = new PlacementEnumerator(new BoardSpec(5, 10),
+                    new String[]{"barca", "caravela", "galeao"});
+            assertEquals(25, enumerator.countPlacements("barca"));
+            assertEquals(40, enumerator.countPlacements("caravela"));
+            assertEquals(36, enumerator.countPlacements("galeao"));
+            assertThrows(IllegalArgumentException.class, () -> enumerator.countPlacements("nau"));
+        }
+
+        @Test
+        @DisplayName("Água exclui as colocações que a cobrem")
+        void waterExcludesPlacements() {
+            PlacementEnumerator enumerator = new PlacementEnumerator(new BoardSpec(5, 10), new String[]{"caravela"});
+            enumerator.markWater(2, 2);
+            assertEquals(36, enumerator.countPlacements("caravela"));
+            for (PlacementEnumerator.Placement p : enumerator.placements("caravela"))
+                assertFalse(Ship.buildShip("caravela", p.getBearing(), p.getPosition()).occupies(Positions.of(2, 2)));
+
+            enumerator.markHit(2, 2);
+            assertEquals(40, enumerator.countPlacements("caravela"));
+            assertThrows(IllegalArgumentException.class, () -> enumerator.markWater(5, 0));
+        }
+    }
+
+    @Nested
+    @DisplayName("Contagem de frotas")
+    class CountTests {
+
+        @Test
+        @DisplayName("Contagem igual à de uma pesquisa exaustiva")
+        void matchesBruteForce() {
+            BoardSpec spec = new BoardSpec(4, 10);
+            String[] composition = {"barca", "caravela", "barca"};
+            Set<BitSet> layouts = bruteForce(spec, composition);
+            PlacementEnumerator enumerator = new PlacementEnumerator(spec, composition);
+            assertEquals(layouts.size(), enumerator.countConfigurations());
+        }
+
+        @Test
+        @DisplayName("Probabilidades por célula iguais às de uma pesquisa exaustiva")
+        void probabilitiesMatchBruteForce() {
+            BoardSpec spec = new BoardSpec(4, 10);
+            String[] composition = {"nau", "barca", "barca"};
+            PlacementEnumerator enumerator = new PlacementEnumerator(spec, composition);
+            enumerator.markWater(1, 1);
+            enumerator.markHit(0, 3);
+
+            List<BitSet> compatible = new ArrayList<>();
+            for (BitSet layout : bruteForce(spec, composition))
+                if (!layout.get(spec.cellIndex(1, 1)) && layout.get(spec.cellIndex(0, 3)))
+                    compatible.add(layout);
+            assertEquals(compatible.size(), enumerator.countConfigurations());
+
+            double[][] probabilities = enumerator.hitProbabilities();
+            for (int row = 0; row < 4; row++)
+                for (int column = 0; column < 4; column++) {
+                    int covering = 0;
+                    for (BitSet layout : compatible)
+                        if (layout.get(spec.cellIndex(row, column)))
+                            covering++;
+                    assertEquals((double) covering / compatible.size(), probabilities[row][column], 1e-12);
+                }
+            assertEquals(1.0, probabilities[0][3], 1e-12);
+            assertEquals(0.0, probabilities[1][1]);
+        }
+
+        @Test
+        @DisplayName("Sem frotas compatíveis a contagem é zero")
+        void noCompatibleFleet() {
+            PlacementEnumerator enumerator = new PlacementEnumerator(new BoardSpec(3, 10),
+                    new String[]{"nau", "nau", "nau"});
+            assertEquals(0, enumerator.countConfigurations());
+
+            enumerator = new PlacementEnumerator(new BoardSpec(3, 10), new String[]{"barca"});
+            enumerator.markHit(0, 0);
+            enumerator.markHit(2, 2);
+            assertEquals(0, enumerator.countConfigurations());
+            assertEquals(0.0, enumerator.hitProbabilities()[0][0]);
+        }
+
+        @Test
+        @DisplayName("Frota padrão com o tabuleiro quase resolvido")
+        void standardFleetLateGame() {
+            Fleet fleet = new FleetGenerator(11).generate();
+            PlacementEnumerator enumerator = new PlacementEnumerator(BoardSpec.DEFAULT,
+                    FleetGenerator.STANDARD_COMPOSITION);
+            for (int row = 0; row < 10; row++)
+                for (int column = 0; column < 10; column++) {
+                    // everything is known but the last two rows
+                    if (row >= 8)
+                        continue;
+                    if (fleet.shipAt(Positions.of(row, column)) == null)
+                        enumerator.markWater(row, column);
+                    else
+                        enumerator.markHit(row, column);
+                }
+            long count = enumerator.countConfigurations();
+            assertTrue(count >= 1);
+
+            double[][] probabilities = enumerator.hitProbabilities();
+            for (int row = 0; row < 10; row++)
+                for (int column = 0; column < 10; column++)
+                    if (row < 8)
+                        assertEquals(fleet.shipAt(Positions.of(row, column)) == null ? 0.0 : 1.0,
+                                probabilities[row][column], 1e-12);
+        }
+    }
+}
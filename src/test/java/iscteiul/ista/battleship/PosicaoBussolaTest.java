@@ -41,6 +41,41 @@ public class PosicaoBussolaTest {
         }
     }
 
+    @Nested
+    class PositionsTests {
+        @Test
+        void sharedPositionsAreCachedImmutableAndEqualToPositions() {
+            IPosition a = Positions.of(3, 4);
+            assertSame(a, Positions.of(3, 4));
+            assertEquals(new Position(3, 4), a);
+            assertEquals(a, new Position(3, 4));
+            assertEquals(new Position(3, 4).hashCode(), a.hashCode());
+            assertEquals("Linha = 3 Coluna = 4", a.toString());
+
+            assertThrows(UnsupportedOperationException.class, a::shoot);
+            assertThrows(UnsupportedOperationException.class, a::occupy);
+            assertFalse(a.isHit());
+
+            // fora da área em cache continua a funcionar, sem partilha
+            IPosition far = Positions.of(Positions.CACHED_SIZE, -1);
+            assertEquals(new Position(Positions.CACHED_SIZE, -1), far);
+
+            // o hashCode de Position não depende do estado
+            Position p = new Position(3, 4);
+            int before = p.hashCode();
+            p.shoot();
+            assertEquals(before, p.hashCode());
+        }
+
+        @Test
+        void shipsAcceptSharedPositions() {
+            Caravel c = new Caravel(Compass.NORTH, Positions.of(2, 2));
+            c.shoot(Positions.of(2, 2));
+            c.shoot(Positions.of(3, 2));
+            assertFalse(c.stillFloating());
+        }
+    }
+
     @Nested
     class CompassTests {
         @Test
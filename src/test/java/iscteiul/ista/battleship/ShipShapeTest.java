@@ -0,0 +1,102 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes - Formas dos navios")
+class ShipShapeTest {
+
+    private static final Compass[] BEARINGS = {Compass.NORTH, Compass.SOUTH, Compass.EAST, Compass.WEST};
+
+    @Nested
+    @DisplayName("Tabela de formas")
+    class TableTests {
+
+        @Test
+        @DisplayName("Cada forma tem o tamanho do seu navio e os limites das suas células")
+        void sizesAndBounds() {
+            int[] sizes = {1, 2, 3, 4, 5};
+            for (int kind = 0; kind < ShipShape.KINDS; kind++)
+                for (Compass bearing : BEARINGS) {
+                    ShipShape shape = ShipShape.of(kind, bearing);
+                    assertEquals(sizes[kind], shape.size());
+                    for (int i = 0; i < shape.size(); i++) {
+                        assertTrue(shape.rowOffset(i) >= shape.getTop() && shape.rowOffset(i) <= shape.getBottom());
+                        assertTrue(shape.columnOffset(i) >= shape.getLeft()
+                                && shape.columnOffset(i) <= shape.getRight());
+                        assertEquals(i, shape.indexOf(shape.rowOffset(i), shape.columnOffset(i)));
+                    }
+                }
+        }
+
+        @Test
+        @DisplayName("Rumos com as mesmas células partilham a forma")
+        void sharedShapes() {
+            assertSame(ShipShape.of(ShipShape.NAU, Compass.NORTH), ShipShape.of(ShipShape.NAU, Compass.SOUTH));
+            assertSame(ShipShape.of(ShipShape.NAU, Compass.EAST), ShipShape.of(ShipShape.NAU, Compass.WEST));
+            assertNotSame(ShipShape.of(ShipShape.NAU, Compass.NORTH), ShipShape.of(ShipShape.NAU, Compass.EAST));
+            assertNotSame(ShipShape.of(ShipShape.GALEAO, Compass.NORTH),
+                    ShipShape.of(ShipShape.GALEAO, Compass.SOUTH));
+            assertSame(ShipShape.of(ShipShape.BARCA, Compass.UNKNOWN), ShipShape.of(ShipShape.BARCA, Compass.EAST));
+            assertNull(ShipShape.of(ShipShape.FRAGATA, Compass.UNKNOWN));
+        }
+
+        @Test
+        @DisplayName("Células fora da forma não são encontradas")
+        void indexOfMissingCell() {
+            ShipShape galleon = ShipShape.of(ShipShape.GALEAO, Compass.SOUTH);
+            assertEquals(-1, galleon.indexOf(0, 1));
+            assertEquals(-1, galleon.indexOf(3, 0));
+            assertEquals(2, galleon.indexOf(2, -1));
+            assertEquals(-1, galleon.indexOf(70000, 0));
+        }
+    }
+
+    @Nested
+    @DisplayName("Navios construídos a partir das formas")
+    class ShipTests {
+
+        @Test
+        @DisplayName("Limites do navio vêm da forma")
+        void shipBounds() {
+            Ship galleon = Ship.buildShip("galeao", Compass.EAST, Positions.of(4, 5));
+            assertEquals(4, galleon.getTopMostPos());
+            assertEquals(6, galleon.getBottomMostPos());
+            assertEquals(3, galleon.getLeftMostPos());
+            assertEquals(5, galleon.getRightMostPos());
+            assertTrue(galleon.occupies(Positions.of(5, 3)));
+            assertFalse(galleon.occupies(Positions.of(4, 3)));
+        }
+
+        @Test
+        @DisplayName("Tiros numa célula do navio refletem-se nas suas posições")
+        void cellsShareHitState() {
+            Ship frigate = Ship.buildShip("fragata", Compass.NORTH, Positions.of(1, 1));
+            List<IPosition> cells = frigate.getPositions();
+            assertSame(cells, frigate.getPositions());
+
+            frigate.shoot(Positions.of(2, 1));
+            assertTrue(cells.get(1).isHit());
+            assertFalse(cells.get(0).isHit());
+
+            for (IPosition p : cells)
+                p.shoot();
+            assertFalse(frigate.stillFloating());
+        }
+
+        @Test
+        @DisplayName("Proximidade entre navios e posições")
+        void closeness() {
+            Ship caravel = Ship.buildShip("caravela", Compass.EAST, Positions.of(2, 2));
+            assertTrue(caravel.tooCloseTo(Positions.of(3, 4)));
+            assertFalse(caravel.tooCloseTo(Positions.of(4, 4)));
+            assertTrue(caravel.tooCloseTo(Ship.buildShip("barca", Compass.NORTH, Positions.of(1, 1))));
+            assertFalse(caravel.tooCloseTo(Ship.buildShip("nau", Compass.NORTH, Positions.of(2, 5))));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes - Estratégias de tiro")
+class ShotStrategyTest {
+
+    /**
+     * Plays a number of games and returns the mean number of shots to win,
+     * failing if the strategy ever fires twice at the same cell
+     */
+    private static double play(Supplier<ShotStrategy> strategies, int games) {
+        ShotStrategy strategy = strategies.get();
+        FleetGenerator generator = new FleetGenerator(2024);
+        long shots = 0;
+        for (int g = 0; g < games; g++) {
+            Fleet fleet = generator.generate();
+            Game game = new Game(fleet);
+            strategy.newGame(BoardSpec.DEFAULT, g);
+            while (game.getRemainingShips() > 0) {
+                IPosition pos = strategy.nextShot();
+                int hits = game.getHits();
+                IShip sunk = game.fire(pos);
+                strategy.shotResult(pos, game.getHits() > hits, sunk);
+            }
+            assertEquals(0, game.getRepeatedShots());
+            assertEquals(0, game.getInvalidShots());
+            shots += game.getShots().size();
+        }
+        return (double) shots / games;
+    }
+
+    @Nested
+    @DisplayName("Comparação entre estratégias")
+    class ComparisonTests {
+
+        @Test
+        @DisplayName("Caça e alvo é melhor do que tiros aleatórios, e a densidade melhor ainda")
+        void strategiesAreOrdered() {
+            double random = play(RandomShotStrategy::new, 200);
+            double huntTarget = play(HuntTargetStrategy::new, 200);
+            double density = play(ProbabilityDensityStrategy::new, 200);
+
+            assertTrue(huntTarget < random, huntTarget + " vs " + random);
+            assertTrue(density < huntTarget, density + " vs " + huntTarget);
+        }
+
+        @Test
+        @DisplayName("As estratégias nunca repetem tiros em tabuleiros maiores")
+        void largerBoard() {
+            BoardSpec spec = new BoardSpec(20, 10);
+            for (ShotStrategy strategy : new ShotStrategy[]{new HuntTargetStrategy(),
+                    new ProbabilityDensityStrategy()}) {
+                Fleet fleet = new FleetGenerator(spec, FleetGenerator.STANDARD_COMPOSITION, 3).generate();
+                Game game = new Game(fleet);
+                strategy.newGame(spec, 3);
+                while (game.getRemainingShips() > 0) {
+                    IPosition pos = strategy.nextShot();
+                    int hits = game.getHits();
+                    IShip sunk = game.fire(pos);
+                    strategy.shotResult(pos, game.getHits() > hits, sunk);
+                }
+                assertEquals(0, game.getRepeatedShots());
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes - Simulador")
+class SimulatorTest {
+
+    private static final int STANDARD_FLEET_CELLS = 25;
+
+    @Nested
+    @DisplayName("Simulação com tiros aleatórios")
+    class RandomStrategyTests {
+
+        @Test
+        @DisplayName("Todos os jogos terminam e as estatísticas são coerentes")
+        void statisticsAreConsistent() {
+            SimulationStatistics stats = new Simulator(RandomShotStrategy::new).run(500, 1);
+
+            assertEquals(500, stats.getGames());
+            assertEquals(0, stats.getUnfinishedGames());
+            assertTrue(stats.getMeanShotsToWin() >= STANDARD_FLEET_CELLS);
+            assertTrue(stats.getMeanShotsToWin() <= IFleet.BOARD_SIZE * IFleet.BOARD_SIZE);
+            assertEquals(STANDARD_FLEET_CELLS / stats.getMeanShotsToWin(), stats.getHitRate(), 1e-9);
+            assertEquals(5, stats.getSunkCategories().size());
+            for (String category : stats.getSunkCategories()) {
+                double rank = stats.getMeanSinkRank(category);
+                assertTrue(rank >= 1 && rank <= FleetGenerator.STANDARD_COMPOSITION.length, category);
+            }
+        }
+
+        @Test
+        @DisplayName("O resultado não depende do número de threads")
+        void deterministicAcrossPools() {
+            ForkJoinPool single = new ForkJoinPool(1);
+            ForkJoinPool many = new ForkJoinPool(4);
+            try {
+                SimulationStatistics a = new Simulator(BoardSpec.DEFAULT, FleetGenerator.STANDARD_COMPOSITION,
+                        RandomShotStrategy::new, single).run(300, 99);
+                SimulationStatistics b = new Simulator(BoardSpec.DEFAULT, FleetGenerator.STANDARD_COMPOSITION,
+                        RandomShotStrategy::new, many).run(300, 99);
+
+                assertEquals(a.toString(), b.toString());
+                for (int shots = 0; shots <= 100; shots++)
+                    assertEquals(a.getGamesWonIn(shots), b.getGamesWonIn(shots));
+            } finally {
+                single.shutdown();
+                many.shutdown();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Estatísticas")
+    class StatisticsTests {
+
+        @Test
+        @DisplayName("O histograma cresce até ao jogo mais longo, não até ao limite de tiros")
+        void histogramGrows() {
+            SimulationStatistics a = new SimulationStatistics(1 << 24);
+            SimulationStatistics b = new SimulationStatistics(1 << 24);
+            a.recordGame(90, 20, true);
+            b.recordGame(5000, 20, true);
+            b.recordGame(1 << 24, 20, true);
+            a.merge(b);
+
+            assertEquals(3, a.getGames());
+            assertEquals(1, a.getGamesWonIn(90));
+            assertEquals(1, a.getGamesWonIn(5000));
+            assertEquals(1, a.getGamesWonIn(1 << 24));
+            assertEquals(0, a.getGamesWonIn((1 << 24) + 1));
+            assertEquals((90 + 5000 + (1 << 24)) / 3.0, a.getMeanShotsToWin(), 1e-9);
+        }
+    }
+}
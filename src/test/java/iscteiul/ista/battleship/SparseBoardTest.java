@@ -0,0 +1,216 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes - Tabuleiro esparso")
+class SparseBoardTest {
+
+    private static String[] printed(Runnable print) {
+        PrintStream console = System.out;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            System.setOut(new PrintStream(bytes, true));
+            print.run();
+        } finally {
+            System.setOut(console);
+        }
+        return bytes.toString().split("\\n");
+    }
+
+    @Nested
+    @DisplayName("Especificação")
+    class SpecTests {
+
+        @Test
+        @DisplayName("Um tabuleiro esparso vai até Integer.MAX_VALUE e não indexa células")
+        void sparseSpec() {
+            BoardSpec spec = BoardSpec.sparse(Integer.MAX_VALUE, 10);
+
+            assertTrue(spec.isSparse());
+            assertFalse(BoardSpec.DEFAULT.isSparse());
+            assertTrue(spec.contains(Integer.MAX_VALUE - 1, Integer.MAX_VALUE - 1));
+            assertThrows(IllegalStateException.class, spec::getCellCount);
+            assertNotEquals(BoardSpec.sparse(10, 10), BoardSpec.DEFAULT);
+            assertEquals(BoardSpec.sparse(10, 10), BoardSpec.sparse(10, 10));
+            assertThrows(IllegalArgumentException.class, () -> BoardSpec.sparse(0, 10));
+        }
+
+        @Test
+        @DisplayName("A chave de uma célula devolve a linha e a coluna")
+        void cellKey() {
+            long key = BoardSpec.cellKey(Integer.MAX_VALUE - 1, 7);
+
+            assertEquals(Integer.MAX_VALUE - 1, BoardSpec.keyRow(key));
+            assertEquals(7, BoardSpec.keyColumn(key));
+            assertNotEquals(key, BoardSpec.cellKey(7, Integer.MAX_VALUE - 1));
+        }
+    }
+
+    @Nested
+    @DisplayName("Tabela de células")
+    class CellTableTests {
+
+        @Test
+        @DisplayName("A tabela cresce sem perder entradas e esvazia-se de uma vez")
+        void growAndClear() {
+            CellTable table = new CellTable();
+            Random random = new Random(3);
+            long[] keys = new long[10_000];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = BoardSpec.cellKey(random.nextInt(Integer.MAX_VALUE), random.nextInt(Integer.MAX_VALUE));
+                assertTrue(table.putIfAbsent(keys[i], i));
+            }
+
+            assertEquals(keys.length, table.size());
+            for (int i = 0; i < keys.length; i++)
+                assertEquals(i, table.get(keys[i]));
+            assertFalse(table.putIfAbsent(keys[0], 42));
+            assertEquals(0, table.get(keys[0]));
+            assertEquals(CellTable.NO_VALUE, table.get(BoardSpec.cellKey(0, 0)));
+
+            table.clear();
+            assertEquals(0, table.size());
+            assertFalse(table.containsKey(keys[1]));
+        }
+    }
+
+    @Nested
+    @DisplayName("Equivalência")
+    class EquivalenceTests {
+
+        @Test
+        @DisplayName("A frota e o jogo esparsos dão os resultados de Fleet e Game")
+        void sameAsGame() {
+            Fleet fleet = new FleetGenerator(8).generate();
+            SparseFleet sparseFleet = new SparseFleet(BoardSpec.DEFAULT);
+            for (IShip s : new FleetGenerator(8).generate().getShips())
+                assertTrue(sparseFleet.addShip(s));
+            for (IShip s : new FleetGenerator(9).generate().getShips())
+                assertEquals(fleet.addShip(s), sparseFleet.addShip(s));
+
+            Random random = new Random(4);
+            int[] rows = new int[250];
+            int[] cols = new int[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = random.nextInt(12) - 1;
+                cols[i] = random.nextInt(12) - 1;
+            }
+            Game game = new Game(fleet);
+            SparseGame sparseGame = new SparseGame(sparseFleet);
+            byte[] expected = new byte[rows.length];
+            byte[] outcomes = new byte[rows.length];
+            game.fireVolley(rows, cols, expected);
+            sparseGame.fireVolley(rows, cols, outcomes);
+
+            assertArrayEquals(expected, outcomes);
+            assertEquals(game.getShots(), sparseGame.getShots());
+            assertEquals(game.getHits(), sparseGame.getHits());
+            assertEquals(game.getSunkShips(), sparseGame.getSunkShips());
+            assertEquals(game.getRemainingShips(), sparseGame.getRemainingShips());
+            assertEquals(new BoardRenderer().render(fleet, game, BoardRenderer.OUTCOMES).toString(),
+                    new BoardRenderer().render(sparseFleet, sparseGame, BoardRenderer.OUTCOMES).toString());
+        }
+    }
+
+    @Nested
+    @DisplayName("Tabuleiros enormes")
+    class HugeBoardTests {
+
+        @Test
+        @DisplayName("Joga-se nos cantos de um tabuleiro de 2^31 - 1 por 2^31 - 1")
+        void hugeBoard() {
+            int last = Integer.MAX_VALUE - 1;
+            SparseFleet fleet = new SparseFleet(BoardSpec.sparse(Integer.MAX_VALUE, 10));
+            Barge corner = new Barge(Compass.NORTH, new Position(last, last));
+            Caravel caravel = new Caravel(Compass.EAST, new Position(last, last - 5));
+
+            assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(0, 0))));
+            assertTrue(fleet.addShip(corner));
+            assertFalse(fleet.addShip(new Barge(Compass.NORTH, new Position(last - 1, last - 1))));
+            assertTrue(fleet.addShip(caravel));
+            assertFalse(fleet.addShip(new Caravel(Compass.EAST, new Position(5, last))));
+            assertSame(corner, fleet.shipAt(Positions.of(last, last)));
+            assertNull(fleet.shipAt(Positions.of(last, 0)));
+
+            SparseGame game = new SparseGame(fleet);
+            assertSame(corner, game.fire(Positions.of(last, last)));
+            assertNull(game.fire(Positions.of(last, last)));
+            assertNull(game.fire(Positions.of(last, Integer.MAX_VALUE)));
+            assertNull(game.fire(Positions.of(-1, -1)));
+            assertNull(game.fire(Positions.of(last, last - 5)));
+
+            assertEquals(2, game.getShots().size());
+            assertEquals(Positions.of(last, last - 5), game.getShots().get(1));
+            assertEquals(1, game.getRepeatedShots());
+            assertEquals(2, game.getInvalidShots());
+            assertEquals(2, game.getHits());
+            assertEquals(2, game.getRemainingShips());
+            assertTrue(game.isFired(last, last));
+            assertFalse(game.isFired(-1, -1));
+            assertEquals("*#...*\n", new BoardRenderer()
+                    .render(fleet, game, BoardRenderer.FLEET | BoardRenderer.OUTCOMES, last, last - 5, 1, 6).toString());
+            assertThrows(IllegalArgumentException.class,
+                    () -> new BoardRenderer().render(fleet, game, BoardRenderer.FLEET));
+
+            game.reset();
+            assertEquals(0, game.getShots().size());
+            assertFalse(game.isFired(last, last));
+        }
+
+        @Test
+        @DisplayName("Navios muito afastados imprimem-se em blocos, sem desenhar o espaço entre eles")
+        void printFarApart() {
+            int last = Integer.MAX_VALUE - 1;
+            SparseFleet fleet = new SparseFleet(BoardSpec.sparse(Integer.MAX_VALUE, 10));
+            assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(0, 0))));
+            assertTrue(fleet.addShip(new Barge(Compass.NORTH, new Position(50_000, 50_000))));
+            assertTrue(fleet.addShip(new Caravel(Compass.EAST, new Position(last, last - 1))));
+            SparseGame game = new SparseGame(fleet);
+            game.fire(Positions.of(50_000, 50_001));
+
+            // três blocos de 64 por 64, o último cortado a 63 por 63 pela borda do tabuleiro
+            String[] ships = printed(game::printFleet);
+            assertEquals(65 + 65 + 64, ships.length);
+            assertEquals("[linhas 0-63, colunas 0-63]", ships[0]);
+            assertEquals("#...", ships[1].substring(0, 4));
+            assertEquals("[linhas 49984-50047, colunas 49984-50047]", ships[65]);
+            assertEquals('#', ships[65 + 1 + 16].charAt(16));
+            assertEquals("[linhas 2147483584-2147483646, colunas 2147483584-2147483646]", ships[130]);
+            assertEquals(63, ships[193].length());
+            assertTrue(ships[193].endsWith(".##"));
+
+            String[] shots = printed(game::printValidShots);
+            assertEquals(ships.length, shots.length);
+            assertEquals("X", shots[65 + 1 + 16].replace(".", ""));
+            assertEquals(17, shots[65 + 1 + 16].indexOf('X'));
+        }
+
+        @Test
+        @DisplayName("Navios que passam da última linha ou coluna são recusados, sem dar a volta")
+        void pastTheEdge() {
+            int last = Integer.MAX_VALUE - 1;
+            SparseFleet fleet = new SparseFleet(BoardSpec.sparse(Integer.MAX_VALUE, 10));
+
+            assertFalse(fleet.addShip(new Frigate(Compass.NORTH, new Position(last, 5))));
+            assertFalse(fleet.addShip(new Frigate(Compass.EAST, new Position(5, last))));
+            assertFalse(fleet.addShip(new Galleon(Compass.NORTH, new Position(last - 1, last - 1))));
+            assertEquals(0, fleet.getShips().size());
+
+            Frigate frigate = new Frigate(Compass.NORTH, new Position(last - 3, 5));
+            assertTrue(fleet.addShip(frigate));
+            assertEquals(last, frigate.getBottomMostPos());
+            SparseGame game = new SparseGame(fleet);
+            for (IPosition pos : frigate.getPositions())
+                game.fire(Positions.of(pos.getRow(), pos.getColumn()));
+            assertEquals(0, game.getRemainingShips());
+        }
+    }
+}
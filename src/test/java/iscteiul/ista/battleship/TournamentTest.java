@@ -0,0 +1,131 @@
+package iscteiul.ista.battleship;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Testes - Torneio")
+class TournamentTest {
+
+    private static final Supplier<PlacementStrategy> RANDOM_PLACEMENT = () -> new FleetGenerator(0);
+
+    private static List<Tournament.Player> players() {
+        return List.of(new Tournament.Player("aleatorio", RANDOM_PLACEMENT, RandomShotStrategy::new),
+                new Tournament.Player("caca", RANDOM_PLACEMENT, HuntTargetStrategy::new),
+                new Tournament.Player("densidade", RANDOM_PLACEMENT, ProbabilityDensityStrategy::new));
+    }
+
+    @Nested
+    @DisplayName("Classificação")
+    class RankingTests {
+
+        @Test
+        @DisplayName("As estratégias melhores ficam à frente")
+        void ranking() {
+            List<Tournament.Standing> standings = new Tournament(players()).run(40, 3);
+
+            assertEquals("densidade", standings.get(0).getName());
+            assertEquals("caca", standings.get(1).getName());
+            assertEquals("aleatorio", standings.get(2).getName());
+            assertTrue(standings.get(0).getGlicko() > standings.get(1).getGlicko());
+            assertTrue(standings.get(1).getGlicko() > standings.get(2).getGlicko());
+            assertTrue(standings.get(0).getMeanShots() < standings.get(2).getMeanShots());
+            // the random shooter is beaten well beyond the margins
+            assertTrue(standings.get(1).getElo() - standings.get(1).getEloMargin()
+                    > standings.get(2).getElo() + standings.get(2).getEloMargin());
+        }
+
+        @Test
+        @DisplayName("Cada jogador joga uma vez por ronda com cada outro")
+        void matches() {
+            List<Tournament.Standing> standings = new Tournament(players()).run(10, 5);
+
+            int wins = 0;
+            int losses = 0;
+            for (Tournament.Standing standing : standings) {
+                assertEquals(2 * 10, standing.getMatches());
+                wins += standing.getWins();
+                losses += standing.getLosses();
+            }
+            assertEquals(wins, losses);
+        }
+
+        @Test
+        @DisplayName("Os intervalos estreitam com mais rondas")
+        void margins() {
+            Tournament tournament = new Tournament(players());
+            Tournament.Standing few = tournament.run(5, 7).get(0);
+            Tournament.Standing many = tournament.run(80, 7).get(0);
+
+            assertTrue(few.getEloMargin() > many.getEloMargin());
+            assertTrue(few.getGlickoMargin() > many.getGlickoMargin());
+            assertTrue(many.getGlickoDeviation() > 0);
+        }
+
+        @Test
+        @DisplayName("Jogadores iguais ficam perto de 1500")
+        void equalPlayers() {
+            List<Tournament.Standing> standings = new Tournament(List.of(
+                    new Tournament.Player("a", RANDOM_PLACEMENT, HuntTargetStrategy::new),
+                    new Tournament.Player("b", RANDOM_PLACEMENT, HuntTargetStrategy::new))).run(100, 11);
+
+            for (Tournament.Standing standing : standings) {
+                assertEquals(1500, standing.getElo(), standing.getEloMargin());
+                assertEquals(1500, standing.getGlicko(), standing.getGlickoMargin());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Determinismo")
+    class DeterminismTests {
+
+        @Test
+        @DisplayName("O resultado não depende do número de threads")
+        void deterministicAcrossPools() {
+            ForkJoinPool single = new ForkJoinPool(1);
+            ForkJoinPool many = new ForkJoinPool(4);
+            try {
+                List<Tournament.Standing> a = new Tournament(BoardSpec.DEFAULT, players(), single).run(25, 99);
+                List<Tournament.Standing> b = new Tournament(BoardSpec.DEFAULT, players(), many).run(25, 99);
+
+                assertEquals(a.toString(), b.toString());
+                for (int i = 0; i < a.size(); i++) {
+                    assertEquals(a.get(i).getElo(), b.get(i).getElo());
+                    assertEquals(a.get(i).getGlicko(), b.get(i).getGlicko());
+                }
+            } finally {
+                single.shutdown();
+                many.shutdown();
+            }
+        }
+
+        @Test
+        @DisplayName("A colocação aleatória é a do gerador com a mesma semente")
+        void placement() {
+            FleetGenerator generator = new FleetGenerator(1);
+            Fleet fleet = new Fleet();
+            generator.place(fleet, 42);
+
+            assertEquals(new FleetGenerator(42).generate().getShips().toString(), fleet.getShips().toString());
+        }
+    }
+
+    @Nested
+    @DisplayName("Argumentos")
+    class ArgumentTests {
+
+        @Test
+        @DisplayName("Um torneio precisa de dois jogadores e de rondas")
+        void arguments() {
+            assertThrows(IllegalArgumentException.class, () -> new Tournament(players().subList(0, 1)));
+            assertThrows(IllegalArgumentException.class, () -> new Tournament(players()).run(0, 1));
+        }
+    }
+}